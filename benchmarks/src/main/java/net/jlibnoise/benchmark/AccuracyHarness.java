@@ -0,0 +1,239 @@
+package net.jlibnoise.benchmark;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import net.jlibnoise.MathPrecision;
+import net.jlibnoise.Module;
+
+/**
+ * Measures what each {@link FastPath} costs in accuracy and gains in speed.
+ *
+ * For each scenario the harness builds a reference graph with
+ * MathPrecision.EXACT and a second graph with the fast path applied,
+ * evaluates both at the same random input values through getValues(), and
+ * prints the maximum, mean and RMS absolute error, a histogram of the
+ * errors by decade and the speedup of the fast graph.
+ *
+ * Usage: AccuracyHarness [sampleCount [scenario...]].  Each timed pass
+ * repeats getValues() for at least MIN_PASS_NANOS on the calling thread,
+ * and the passes alternate between the two graphs.  The speedup printed is
+ * the median over the passes, followed by the smallest and largest; a
+ * fast path whose output is bit-identical to the reference is flagged,
+ * since any speedup it shows is noise.  The timings are indicative only,
+ * the JMH benchmarks give the precise figures.
+ */
+public class AccuracyHarness {
+	/// Default number of input values.
+	static final int DEFAULT_SAMPLE_COUNT = 1 << 16;
+
+	/// Number of untimed passes over the input values.
+	static final int WARMUP_PASS_COUNT = 3;
+
+	/// Number of timed passes over the input values.
+	static final int PASS_COUNT = 7;
+
+	/// Shortest duration of a pass; getValues() is called repeatedly until
+	/// it is reached.
+	static final long MIN_PASS_NANOS = 100000000L;
+
+	/// Fewest getValues() calls in a pass.
+	static final int MIN_PASS_CALLS = 3;
+
+	/// Decades covered by the histogram: errors below 10^-MIN_DECADE are
+	/// counted together, as are errors of 1 or more.
+	static final int MIN_DECADE = 12;
+
+	/**
+	 * Accuracy and speed of one fast path on one scenario.
+	 */
+	public static class Result {
+		final Scenario scenario;
+		final FastPath fastPath;
+		final int sampleCount;
+		double maxError;
+		double sumError;
+		double sumSquaredError;
+		int exactCount;
+		// histogram[d] counts the non-zero errors in [10^(d - MIN_DECADE - 1),
+		// 10^(d - MIN_DECADE)), with the first and last buckets open-ended.
+		final int[] histogram = new int[MIN_DECADE + 2];
+		// Time of one getValues() call over all input values, per pass.
+		final double[] referenceNanos = new double[PASS_COUNT];
+		final double[] fastNanos = new double[PASS_COUNT];
+
+		Result(Scenario scenario, FastPath fastPath, int sampleCount) {
+			this.scenario = scenario;
+			this.fastPath = fastPath;
+			this.sampleCount = sampleCount;
+		}
+
+		void add(double reference, double fast) {
+			double error = Math.abs(fast - reference);
+			if (error == 0.0) {
+				exactCount++;
+				return;
+			}
+			maxError = Math.max(maxError, error);
+			sumError += error;
+			sumSquaredError += error * error;
+			int decade = (int) Math.floor(Math.log10(error)) + MIN_DECADE + 1;
+			histogram[Math.max(0, Math.min(histogram.length - 1, decade))]++;
+		}
+
+		public double getMaxError() {
+			return maxError;
+		}
+
+		public double getMeanError() {
+			return sumError / sampleCount;
+		}
+
+		public double getRmsError() {
+			return Math.sqrt(sumSquaredError / sampleCount);
+		}
+
+		/**
+		 * Returns true if the fast graph returned exactly the reference
+		 * values, in which case the speedup only measures noise.
+		 */
+		public boolean isIdentical() {
+			return exactCount == sampleCount;
+		}
+
+		/**
+		 * Returns the median over the passes of the speedup of the fast
+		 * graph.
+		 */
+		public double getSpeedup() {
+			return speedups()[PASS_COUNT / 2];
+		}
+
+		public double getMinSpeedup() {
+			return speedups()[0];
+		}
+
+		public double getMaxSpeedup() {
+			return speedups()[PASS_COUNT - 1];
+		}
+
+		// The speedup of each pass, sorted.
+		private double[] speedups() {
+			double[] speedups = new double[PASS_COUNT];
+			for (int i = 0; i < PASS_COUNT; i++) {
+				speedups[i] = referenceNanos[i] / fastNanos[i];
+			}
+			Arrays.sort(speedups);
+			return speedups;
+		}
+
+		void print(PrintStream out) {
+			out.printf("%-8s %-17s max %.3e  mean %.3e  rms %.3e  %7.1f ns -> %7.1f ns  speedup %.2fx (%.2f-%.2f)%s%n", scenario, fastPath, maxError, getMeanError(), getRmsError(), median(referenceNanos) / sampleCount, median(fastNanos) / sampleCount, getSpeedup(), getMinSpeedup(), getMaxSpeedup(), isIdentical() ? "  identical output" : "");
+			StringBuilder line = new StringBuilder("    exact ").append(percent(exactCount));
+			for (int d = 0; d < histogram.length; d++) {
+				if (histogram[d] == 0) {
+					continue;
+				}
+				line.append("  ");
+				if (d == 0) {
+					line.append("<1e-").append(MIN_DECADE);
+				} else if (d == histogram.length - 1) {
+					line.append(">=1");
+				} else {
+					line.append("<1e").append(d - MIN_DECADE);
+				}
+				line.append(' ').append(percent(histogram[d]));
+			}
+			out.println(line);
+		}
+
+		private String percent(int count) {
+			return String.format("%.1f%%", 100.0 * count / sampleCount);
+		}
+
+		private static double median(double[] values) {
+			double[] sorted = values.clone();
+			Arrays.sort(sorted);
+			return sorted[sorted.length / 2];
+		}
+	}
+
+	public static void main(String[] args) {
+		int sampleCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SAMPLE_COUNT;
+		List<Scenario> scenarios = new ArrayList<Scenario>();
+		for (int i = 1; i < args.length; i++) {
+			scenarios.add(Scenario.valueOf(args[i]));
+		}
+		if (scenarios.isEmpty()) {
+			for (Scenario scenario : Scenario.values()) {
+				scenarios.add(scenario);
+			}
+		}
+		for (Scenario scenario : scenarios) {
+			for (FastPath fastPath : FastPath.values()) {
+				measure(scenario, fastPath, sampleCount).print(System.out);
+			}
+		}
+	}
+
+	/**
+	 * Compares a scenario with and without a fast path.
+	 * 
+	 * @param scenario The scenario.
+	 * @param fastPath The fast path.
+	 * @param sampleCount The number of input values.
+	 * @return The measured accuracy and speed.
+	 */
+	public static Result measure(Scenario scenario, FastPath fastPath, int sampleCount) {
+		Module reference = scenario.build();
+		MathPrecision.EXACT.applyTo(reference);
+		Module fast = scenario.build();
+		fastPath.applyTo(fast);
+
+		// Uniform input values over the cube that the 3D chunk covers.
+		Random random = new Random(scenario.ordinal());
+		double[] x = new double[sampleCount];
+		double[] y = new double[sampleCount];
+		double[] z = new double[sampleCount];
+		for (int i = 0; i < sampleCount; i++) {
+			x[i] = (random.nextDouble() - 0.5) * scenario.extent;
+			y[i] = (random.nextDouble() - 0.5) * scenario.extent;
+			z[i] = (random.nextDouble() - 0.5) * scenario.extent;
+		}
+		double[] referenceValues = new double[sampleCount];
+		double[] fastValues = new double[sampleCount];
+
+		// The passes alternate between the graphs, so that neither benefits
+		// more from the warm-up of the shared code.
+		Result result = new Result(scenario, fastPath, sampleCount);
+		for (int pass = 0; pass < WARMUP_PASS_COUNT + PASS_COUNT; pass++) {
+			double referenceNanos = time(reference, x, y, z, referenceValues);
+			double fastNanos = time(fast, x, y, z, fastValues);
+			if (pass >= WARMUP_PASS_COUNT) {
+				result.referenceNanos[pass - WARMUP_PASS_COUNT] = referenceNanos;
+				result.fastNanos[pass - WARMUP_PASS_COUNT] = fastNanos;
+			}
+		}
+		for (int i = 0; i < sampleCount; i++) {
+			result.add(referenceValues[i], fastValues[i]);
+		}
+		return result;
+	}
+
+	// Returns the mean time of one getValues() call over all input values,
+	// calling it for at least MIN_PASS_NANOS and MIN_PASS_CALLS times.
+	private static double time(Module module, double[] x, double[] y, double[] z, double[] dest) {
+		long start = System.nanoTime();
+		long elapsed;
+		int calls = 0;
+		do {
+			module.getValues(x, y, z, 0, dest, 0, dest.length);
+			calls++;
+			elapsed = System.nanoTime() - start;
+		} while (calls < MIN_PASS_CALLS || elapsed < MIN_PASS_NANOS);
+		return (double) elapsed / calls;
+	}
+}
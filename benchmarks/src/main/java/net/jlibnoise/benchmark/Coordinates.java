@@ -0,0 +1,50 @@
+package net.jlibnoise.benchmark;
+
+import java.util.Random;
+
+/**
+ * Fixed pseudo-random input values shared by the benchmarks.
+ *
+ * Scalar benchmarks cycle through the input values, so that the JIT cannot
+ * fold the evaluation into a constant; batch benchmarks use rows of
+ * closely spaced input values, as a grid sampler passes them.
+ */
+final class Coordinates {
+	/// Number of input values; a power of two.
+	static final int COUNT = 1024;
+
+	/// Number of input values of a batch.
+	static final int BATCH_SIZE = 256;
+
+	final double[] x = new double[COUNT];
+	final double[] y = new double[COUNT];
+	final double[] z = new double[COUNT];
+
+	// Input values of one batch along a row.
+	final double[] rowX = new double[BATCH_SIZE];
+	final double[] rowY = new double[BATCH_SIZE];
+	final double[] rowZ = new double[BATCH_SIZE];
+
+	private int index;
+
+	Coordinates(double scale) {
+		Random random = new Random(1);
+		for (int i = 0; i < COUNT; i++) {
+			x[i] = (random.nextDouble() * 2.0 - 1.0) * scale;
+			y[i] = (random.nextDouble() * 2.0 - 1.0) * scale;
+			z[i] = (random.nextDouble() * 2.0 - 1.0) * scale;
+		}
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			rowX[i] = scale * i / BATCH_SIZE;
+			rowY[i] = 0.25;
+			rowZ[i] = 0.5;
+		}
+	}
+
+	/**
+	 * Returns the index of the next input value.
+	 */
+	int next() {
+		return index = (index + 1) & (COUNT - 1);
+	}
+}
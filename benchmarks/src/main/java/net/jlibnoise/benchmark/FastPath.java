@@ -0,0 +1,219 @@
+package net.jlibnoise.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import net.jlibnoise.MathPrecision;
+import net.jlibnoise.Module;
+import net.jlibnoise.NoiseQuality;
+import net.jlibnoise.exception.NoModuleException;
+import net.jlibnoise.filter.Billow;
+import net.jlibnoise.filter.RidgedMulti;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.modifier.Abs;
+import net.jlibnoise.modifier.Clamp;
+import net.jlibnoise.modifier.Curve;
+import net.jlibnoise.modifier.Exponent;
+import net.jlibnoise.modifier.Invert;
+import net.jlibnoise.modifier.LookupTable;
+import net.jlibnoise.modifier.ScaleBias;
+import net.jlibnoise.modifier.Terrace;
+import net.jlibnoise.transformer.DomainWarp;
+
+/**
+ * Optional speed-ups that change the output values of a graph slightly,
+ * as measured by {@link AccuracyHarness}.  Each one is applied to a freshly
+ * built graph whose reference counterpart uses MathPrecision.EXACT.
+ */
+public enum FastPath {
+	/**
+	 * MathPrecision.FAST, the library default.
+	 */
+	MATH_FAST {
+		@Override
+		void applyTo(Module root) {
+			MathPrecision.FAST.applyTo(root);
+		}
+	},
+
+	/**
+	 * MathPrecision.FASTEST.
+	 */
+	MATH_FASTEST {
+		@Override
+		void applyTo(Module root) {
+			MathPrecision.FASTEST.applyTo(root);
+		}
+	},
+
+	/**
+	 * NoiseQuality.FAST on every coherent-noise module, on top of the
+	 * exact math functions.
+	 */
+	FAST_NOISE {
+		@Override
+		void applyTo(Module root) {
+			MathPrecision.EXACT.applyTo(root);
+			for (Module module : modules(root)) {
+				if (module instanceof Perlin) {
+					((Perlin) module).setNoiseQuality(NoiseQuality.FAST);
+				} else if (module instanceof Billow) {
+					((Billow) module).setQuality(NoiseQuality.FAST);
+				} else if (module instanceof RidgedMulti) {
+					((RidgedMulti) module).setNoiseQuality(NoiseQuality.FAST);
+				} else if (module instanceof DomainWarp) {
+					((DomainWarp) module).getWarpNoise().setNoiseQuality(NoiseQuality.FAST);
+				}
+			}
+		}
+	},
+
+	/**
+	 * Drops the finest octave of every fractal generator that has more
+	 * than one, on top of the exact math functions.
+	 */
+	TRUNCATED_OCTAVES {
+		@Override
+		void applyTo(Module root) {
+			MathPrecision.EXACT.applyTo(root);
+			for (Module module : modules(root)) {
+				if (module instanceof Perlin) {
+					Perlin perlin = (Perlin) module;
+					perlin.setOctaveCount(Math.max(1, perlin.getOctaveCount() - 1));
+				} else if (module instanceof Billow) {
+					Billow billow = (Billow) module;
+					billow.setOctaveCount(Math.max(1, billow.getOctaveCount() - 1));
+				} else if (module instanceof RidgedMulti) {
+					RidgedMulti ridged = (RidgedMulti) module;
+					ridged.setOctaveCount(Math.max(1, ridged.getOctaveCount() - 1));
+				}
+			}
+		}
+	},
+
+	/**
+	 * Replaces each chain of modifier modules that ends in a Curve or a
+	 * Terrace with a LookupTable sampled from the chain, on top of the exact
+	 * math functions.
+	 * 
+	 * The chain grows from the Curve or Terrace towards the root through
+	 * Curve, Terrace, Exponent, ScaleBias, Clamp, Abs and Invert modules
+	 * that have a single parent.  Curve and Terrace return the value of
+	 * their outermost control point beyond it, so the control points give
+	 * an input range outside of which clamping the table loses nothing;
+	 * a chain that ends in an Exponent has no such range and is left
+	 * alone.
+	 */
+	LOOKUP_TABLES {
+		@Override
+		void applyTo(Module root) {
+			MathPrecision.EXACT.applyTo(root);
+			List<Module> modules = modules(root);
+			IdentityHashMap<Module, List<Module>> parents = new IdentityHashMap<Module, List<Module>>();
+			for (Module module : modules) {
+				for (int i = 0; i < module.getSourceModuleCount(); i++) {
+					try {
+						Module source = module.getSourceModule(i);
+						if (!parents.containsKey(source)) {
+							parents.put(source, new ArrayList<Module>());
+						}
+						parents.get(source).add(module);
+					} catch (NoModuleException e) {
+						// Unconnected source modules are skipped.
+					}
+				}
+			}
+
+			IdentityHashMap<Module, Boolean> replaced = new IdentityHashMap<Module, Boolean>();
+			for (Module tail : modules) {
+				double lower, upper;
+				if (tail instanceof Curve && !replaced.containsKey(tail)) {
+					Curve curve = (Curve) tail;
+					lower = curve.getInputValue(0);
+					upper = curve.getInputValue(curve.getControlPointCount() - 1);
+				} else if (tail instanceof Terrace && !replaced.containsKey(tail)) {
+					double[] points = ((Terrace) tail).getControlPoints();
+					lower = points[0];
+					upper = points[points.length - 1];
+				} else {
+					continue;
+				}
+
+				Module head = tail;
+				replaced.put(tail, Boolean.TRUE);
+				while (head != root && parents.get(head).size() == 1 && isTransferFunction(parents.get(head).get(0))) {
+					head = parents.get(head).get(0);
+					replaced.put(head, Boolean.TRUE);
+				}
+				// The root has no parent to rewire.
+				if (head == root)
+					continue;
+
+				LookupTable table = new LookupTable();
+				table.setSourceModule(0, tail.getSourceModule(0));
+				table.setInputRange(lower, upper);
+				table.setMaxError(MAX_TABLE_ERROR);
+				table.setChain(head, tail);
+				for (Module parent : parents.get(head)) {
+					for (int i = 0; i < parent.getSourceModuleCount(); i++) {
+						try {
+							if (parent.getSourceModule(i) == head) {
+								parent.setSourceModule(i, table);
+							}
+						} catch (NoModuleException e) {
+							// Unconnected source modules are skipped.
+						}
+					}
+				}
+			}
+		}
+	};
+
+	/// Interpolation error that the tables of LOOKUP_TABLES are built for.
+	static final double MAX_TABLE_ERROR = 1e-4;
+
+	// Returns true if the module is a modifier whose output value depends
+	// on the output value from its source module only.
+	static boolean isTransferFunction(Module module) {
+		return module instanceof Curve || module instanceof Terrace || module instanceof Exponent || module instanceof ScaleBias || module instanceof Clamp || module instanceof Abs
+				|| module instanceof Invert;
+	}
+
+	/**
+	 * Enables this fast path on every module of a graph.
+	 * 
+	 * @param root The module at the root of the graph.
+	 */
+	abstract void applyTo(Module root);
+
+	/**
+	 * Returns every module of a graph once, in the order that
+	 * MathPrecision.applyTo() visits them.
+	 * 
+	 * @param root The module at the root of the graph.
+	 * @return The modules of the graph.
+	 */
+	static List<Module> modules(Module root) {
+		List<Module> modules = new ArrayList<Module>();
+		IdentityHashMap<Module, Boolean> visited = new IdentityHashMap<Module, Boolean>();
+		ArrayDeque<Module> pending = new ArrayDeque<Module>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			Module module = pending.pop();
+			if (visited.put(module, Boolean.TRUE) != null) {
+				continue;
+			}
+			modules.add(module);
+			for (int i = 0; i < module.getSourceModuleCount(); i++) {
+				try {
+					pending.push(module.getSourceModule(i));
+				} catch (NoModuleException e) {
+					// Unconnected source modules are skipped.
+				}
+			}
+		}
+		return modules;
+	}
+}
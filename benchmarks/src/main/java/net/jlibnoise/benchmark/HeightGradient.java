@@ -0,0 +1,31 @@
+package net.jlibnoise.benchmark;
+
+import net.jlibnoise.Module;
+
+/**
+ * Source module whose output value decreases linearly with the @a y
+ * coordinate; the base of a voxel density function, which is positive
+ * below the surface and negative above it.
+ */
+public class HeightGradient extends Module {
+	// Change of the output value per unit of height.
+	final double slope;
+
+	/**
+	 * @param slope The change of the output value per unit of height.
+	 */
+	public HeightGradient(double slope) {
+		super(0);
+		this.slope = slope;
+	}
+
+	@Override
+	public int getSourceModuleCount() {
+		return 0;
+	}
+
+	@Override
+	public double getValue(double x, double y, double z) {
+		return -y * slope;
+	}
+}
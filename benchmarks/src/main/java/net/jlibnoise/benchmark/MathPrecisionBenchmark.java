@@ -0,0 +1,55 @@
+package net.jlibnoise.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.jlibnoise.MathPrecision;
+
+/**
+ * Benchmarks the functions of each {@link MathPrecision} policy over the
+ * ranges the modules use: angles in -2 PI to +2 PI, distances in 0 to 100
+ * and powers of values in 0 to 2.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathPrecisionBenchmark {
+	@Param({ "EXACT", "FAST", "FASTEST" })
+	MathPrecision precision;
+
+	final Coordinates coordinates = new Coordinates(2.0 * Math.PI);
+
+	@Benchmark
+	public double sin() {
+		return precision.sin(coordinates.x[coordinates.next()]);
+	}
+
+	@Benchmark
+	public double cos() {
+		return precision.cos(coordinates.x[coordinates.next()]);
+	}
+
+	@Benchmark
+	public double sqrt() {
+		return precision.sqrt(Math.abs(coordinates.x[coordinates.next()]) * 16.0);
+	}
+
+	@Benchmark
+	public double pow() {
+		int i = coordinates.next();
+		return precision.pow(Math.abs(coordinates.x[i]) / Math.PI, coordinates.y[i]);
+	}
+}
@@ -0,0 +1,66 @@
+package net.jlibnoise.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.NoiseQuality;
+
+/**
+ * Benchmarks each module class in isolation, with {@link Ramp} source
+ * modules, through getValue() at scattered input values and through
+ * getValues() along a row.  Both report input values per second.
+ *
+ * The noise quality defaults to STANDARD; pass "-p
+ * quality=FAST,STANDARD,BEST" to compare the qualities, which affect
+ * Perlin, Billow, RidgedMulti, DomainWarp and Turbulence.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleBenchmark {
+	@Param({ "Checkerboard", "Constant", "Cylinders", "Perlin", "Spheres", "Billow", "RidgedMulti", "Voronoi", "Abs", "Cache", "Clamp", "Curve", "Exponent", "Invert", "LookupTable", "ScaleBias", "Terrace", "Add", "Displace", "Max", "Min", "Multiply", "NaryAdd", "NaryMultiply", "NaryMin", "NaryMax", "Power", "Blend", "Select", "ThresholdSelect", "DomainWarp", "RotatePoint", "ScalePoint", "TranslatePoint", "Turbulence" })
+	String module;
+
+	@Param({ "STANDARD" })
+	NoiseQuality quality;
+
+	final Coordinates coordinates = new Coordinates(10.0);
+
+	final double[] values = new double[Coordinates.BATCH_SIZE];
+
+	Module instance;
+
+	@Setup
+	public void setUp() {
+		instance = Modules.create(module, quality);
+	}
+
+	@Benchmark
+	public double getValue() {
+		int i = coordinates.next();
+		return instance.getValue(coordinates.x[i], coordinates.y[i], coordinates.z[i]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(Coordinates.BATCH_SIZE)
+	public double[] getValues() {
+		instance.getValues(coordinates.rowX, coordinates.rowY, coordinates.rowZ, 0, values, 0, Coordinates.BATCH_SIZE);
+		return values;
+	}
+}
@@ -0,0 +1,185 @@
+package net.jlibnoise.benchmark;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.NoiseQuality;
+import net.jlibnoise.combiner.Add;
+import net.jlibnoise.combiner.Displace;
+import net.jlibnoise.combiner.Max;
+import net.jlibnoise.combiner.Min;
+import net.jlibnoise.combiner.Multiply;
+import net.jlibnoise.combiner.NaryAdd;
+import net.jlibnoise.combiner.NaryMax;
+import net.jlibnoise.combiner.NaryMin;
+import net.jlibnoise.combiner.NaryMultiply;
+import net.jlibnoise.combiner.Power;
+import net.jlibnoise.filter.Billow;
+import net.jlibnoise.filter.RidgedMulti;
+import net.jlibnoise.filter.Voronoi;
+import net.jlibnoise.generator.Checkerboard;
+import net.jlibnoise.generator.Constant;
+import net.jlibnoise.generator.Cylinders;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.generator.Spheres;
+import net.jlibnoise.modifier.Abs;
+import net.jlibnoise.modifier.Cache;
+import net.jlibnoise.modifier.Clamp;
+import net.jlibnoise.modifier.Curve;
+import net.jlibnoise.modifier.Exponent;
+import net.jlibnoise.modifier.Invert;
+import net.jlibnoise.modifier.LookupTable;
+import net.jlibnoise.modifier.ScaleBias;
+import net.jlibnoise.modifier.Terrace;
+import net.jlibnoise.selector.Blend;
+import net.jlibnoise.selector.Select;
+import net.jlibnoise.selector.ThresholdSelect;
+import net.jlibnoise.transformer.DomainWarp;
+import net.jlibnoise.transformer.RotatePoint;
+import net.jlibnoise.transformer.ScalePoint;
+import net.jlibnoise.transformer.TranslatePoint;
+import net.jlibnoise.transformer.Turbulence;
+
+/**
+ * Creates each module class of the library with inexpensive {@link Ramp}
+ * source modules, so that a benchmark measures the module in isolation.
+ */
+final class Modules {
+	private Modules() {
+	}
+
+	/**
+	 * Creates a module with its source modules connected.
+	 * 
+	 * @param name The simple name of the module class.
+	 * @param quality The noise quality, for the modules that have one.
+	 * @return The module.
+	 * @throws IllegalArgumentException if the name is unknown.
+	 */
+	static Module create(String name, NoiseQuality quality) {
+		Module module;
+		if (name.equals("Checkerboard")) {
+			module = new Checkerboard();
+		} else if (name.equals("Constant")) {
+			module = new Constant();
+		} else if (name.equals("Cylinders")) {
+			module = new Cylinders();
+		} else if (name.equals("Perlin")) {
+			Perlin perlin = new Perlin();
+			perlin.setNoiseQuality(quality);
+			module = perlin;
+		} else if (name.equals("Spheres")) {
+			module = new Spheres();
+		} else if (name.equals("Billow")) {
+			Billow billow = new Billow();
+			billow.setQuality(quality);
+			module = billow;
+		} else if (name.equals("RidgedMulti")) {
+			RidgedMulti ridged = new RidgedMulti();
+			ridged.setNoiseQuality(quality);
+			module = ridged;
+		} else if (name.equals("Voronoi")) {
+			Voronoi voronoi = new Voronoi();
+			voronoi.setEnableDistance(true);
+			module = voronoi;
+		} else if (name.equals("Abs")) {
+			module = new Abs();
+		} else if (name.equals("Cache")) {
+			module = new Cache();
+		} else if (name.equals("Clamp")) {
+			Clamp clamp = new Clamp();
+			clamp.setBounds(-0.5, 0.5);
+			module = clamp;
+		} else if (name.equals("Curve")) {
+			Curve curve = new Curve();
+			for (int i = 0; i < 8; i++) {
+				double input = -1.0 + 2.0 * i / 7.0;
+				curve.AddControlPoint(input, input * input * input);
+			}
+			module = curve;
+		} else if (name.equals("Exponent")) {
+			module = new Exponent();
+		} else if (name.equals("Invert")) {
+			module = new Invert();
+		} else if (name.equals("LookupTable")) {
+			LookupTable table = new LookupTable();
+			table.setFunction(new LookupTable.TransferFunction() {
+				@Override
+				public double apply(double value) {
+					return Math.pow(Math.abs(value), 1.7);
+				}
+			});
+			module = table;
+		} else if (name.equals("ScaleBias")) {
+			module = new ScaleBias();
+		} else if (name.equals("Terrace")) {
+			Terrace terrace = new Terrace();
+			terrace.makeControlPoints(8);
+			module = terrace;
+		} else if (name.equals("Add")) {
+			module = new Add();
+		} else if (name.equals("Displace")) {
+			module = new Displace();
+		} else if (name.equals("Max")) {
+			module = new Max();
+		} else if (name.equals("Min")) {
+			module = new Min();
+		} else if (name.equals("Multiply")) {
+			module = new Multiply();
+		} else if (name.equals("NaryAdd")) {
+			module = new NaryAdd(8);
+		} else if (name.equals("NaryMultiply")) {
+			module = new NaryMultiply(8);
+		} else if (name.equals("NaryMin")) {
+			module = new NaryMin(8);
+		} else if (name.equals("NaryMax")) {
+			module = new NaryMax(8);
+		} else if (name.equals("Power")) {
+			module = new Power();
+		} else if (name.equals("Blend")) {
+			module = new Blend();
+		} else if (name.equals("Select")) {
+			Select select = new Select();
+			select.setBounds(1.0, 0.0);
+			select.setEdgeFalloff(0.125);
+			module = select;
+		} else if (name.equals("ThresholdSelect")) {
+			ThresholdSelect select = new ThresholdSelect(8);
+			double[] thresholds = new double[7];
+			double[] falloffs = new double[7];
+			for (int i = 0; i < thresholds.length; i++) {
+				thresholds[i] = select.getThreshold(i);
+				falloffs[i] = 0.05;
+			}
+			select.setThresholds(thresholds, falloffs);
+			module = select;
+		} else if (name.equals("DomainWarp")) {
+			DomainWarp warp = new DomainWarp();
+			warp.getWarpNoise().setNoiseQuality(quality);
+			module = warp;
+		} else if (name.equals("RotatePoint")) {
+			RotatePoint rotate = new RotatePoint();
+			rotate.setAngles(30.0, 45.0, 60.0);
+			module = rotate;
+		} else if (name.equals("ScalePoint")) {
+			module = new ScalePoint();
+		} else if (name.equals("TranslatePoint")) {
+			module = new TranslatePoint();
+		} else if (name.equals("Turbulence")) {
+			Turbulence turbulence = new Turbulence();
+			turbulence.getWarpNoise().setNoiseQuality(quality);
+			module = turbulence;
+		} else {
+			throw new IllegalArgumentException("Unknown module: " + name);
+		}
+
+		for (int i = 0; i < module.getSourceModuleCount(); i++) {
+			module.setSourceModule(i, new Ramp());
+		}
+		if (module instanceof Power) {
+			// Keep the base positive.
+			Constant base = new Constant();
+			base.setValue(0.5);
+			module.setSourceModule(0, base);
+		}
+		return module;
+	}
+}
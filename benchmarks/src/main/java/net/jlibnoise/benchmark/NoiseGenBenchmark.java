@@ -0,0 +1,68 @@
+package net.jlibnoise.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.jlibnoise.NoiseGen;
+import net.jlibnoise.NoiseQuality;
+
+/**
+ * Benchmarks the noise primitives of {@link NoiseGen}.
+ *
+ * The coherent-noise functions run once for each {@link NoiseQuality};
+ * the lattice functions do not depend on the quality, and their results
+ * are the same for each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseGenBenchmark {
+	@Param({ "FAST", "STANDARD", "BEST" })
+	NoiseQuality quality;
+
+	final Coordinates coordinates = new Coordinates(100.0);
+
+	@Benchmark
+	public double gradientCoherentNoise3D() {
+		int i = coordinates.next();
+		return NoiseGen.gradientCoherentNoise3D(coordinates.x[i], coordinates.y[i], coordinates.z[i], 0, quality);
+	}
+
+	@Benchmark
+	public double valueCoherentNoise3D() {
+		int i = coordinates.next();
+		return NoiseGen.valueCoherentNoise3D(coordinates.x[i], coordinates.y[i], coordinates.z[i], 0, quality);
+	}
+
+	@Benchmark
+	public double gradientNoise3D() {
+		int i = coordinates.next();
+		double x = coordinates.x[i], y = coordinates.y[i], z = coordinates.z[i];
+		return NoiseGen.gradientNoise3D(x, y, z, (int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z), 0);
+	}
+
+	@Benchmark
+	public double valueNoise3D() {
+		int i = coordinates.next();
+		return NoiseGen.valueNoise3D((int) coordinates.x[i], (int) coordinates.y[i], (int) coordinates.z[i], 0);
+	}
+
+	@Benchmark
+	public int intValueNoise3D() {
+		int i = coordinates.next();
+		return NoiseGen.intValueNoise3D((int) coordinates.x[i], (int) coordinates.y[i], (int) coordinates.z[i], 0);
+	}
+}
@@ -0,0 +1,25 @@
+package net.jlibnoise.benchmark;
+
+import net.jlibnoise.Module;
+
+/**
+ * Inexpensive source module whose output value sweeps -1.0 to +1.0 along
+ * the @a x axis with a period of 2.0, so that modules benchmarked in
+ * isolation see varying source values at almost no cost of their own.
+ */
+public class Ramp extends Module {
+
+	public Ramp() {
+		super(0);
+	}
+
+	@Override
+	public int getSourceModuleCount() {
+		return 0;
+	}
+
+	@Override
+	public double getValue(double x, double y, double z) {
+		return x - 2.0 * Math.floor((x + 1.0) * 0.5);
+	}
+}
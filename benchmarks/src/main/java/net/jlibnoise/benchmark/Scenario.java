@@ -0,0 +1,239 @@
+package net.jlibnoise.benchmark;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.NoiseQuality;
+import net.jlibnoise.combiner.Add;
+import net.jlibnoise.combiner.Min;
+import net.jlibnoise.filter.Billow;
+import net.jlibnoise.filter.RidgedMulti;
+import net.jlibnoise.filter.Voronoi;
+import net.jlibnoise.generator.Constant;
+import net.jlibnoise.generator.Cylinders;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.modifier.Cache;
+import net.jlibnoise.modifier.Clamp;
+import net.jlibnoise.modifier.Curve;
+import net.jlibnoise.modifier.ScaleBias;
+import net.jlibnoise.modifier.Terrace;
+import net.jlibnoise.selector.Select;
+import net.jlibnoise.transformer.RotatePoint;
+import net.jlibnoise.transformer.ScalePoint;
+import net.jlibnoise.transformer.TranslatePoint;
+import net.jlibnoise.transformer.Turbulence;
+
+/**
+ * Realistic module graphs for the end-to-end benchmarks.
+ *
+ * Each scenario builds its graph and gives the size of the region that
+ * the planar and 3D-chunk outputs cover; the spherical output always
+ * covers the whole unit sphere.
+ */
+public enum Scenario {
+	/**
+	 * The continent definition and terrain type stages of the libnoise
+	 * "complex planet" example, as published, followed by condensed
+	 * mountain, hill, plain and badland groups blended by terrain type.
+	 */
+	PLANET(2.0) {
+		@Override
+		Module build() {
+			// Continent definition.
+			Perlin continents = perlin(0, 1.0, 0.5, 2.208984375, 14);
+			Curve continentCurve = new Curve();
+			continentCurve.setSourceModule(0, continents);
+			double[][] points = { { -2.0, -1.625 }, { -1.0, -1.375 }, { 0.0, -0.375 }, { 0.0625, 0.125 }, { 0.125, 0.25 }, { 0.25, 1.0 }, { 0.5, 0.25 }, { 0.75, 0.25 }, { 1.0, 0.5 }, { 2.0, 0.5 } };
+			for (double[] point : points) {
+				continentCurve.AddControlPoint(point[0], point[1]);
+			}
+			Module carver = scaleBias(perlin(1, 4.34375, 0.5, 2.208984375, 11), 0.375, 0.625);
+			Min carved = new Min();
+			carved.setSourceModule(0, carver);
+			carved.setSourceModule(1, continentCurve);
+			Clamp baseContinents = new Clamp();
+			baseContinents.setSourceModule(0, carved);
+			baseContinents.setBounds(-1.0, 1.0);
+			Module warped = turbulence(baseContinents, 10, 15.25, 1.0 / 113.75, 13);
+			warped = turbulence(warped, 11, 47.25, 1.0 / 433.75, 12);
+			warped = turbulence(warped, 12, 95.25, 1.0 / 1019.75, 11);
+			Select continentSelect = select(baseContinents, warped, baseContinents, -0.0375, 1000.0375, 0.0625);
+			Cache continentDef = new Cache();
+			continentDef.setSourceModule(0, continentSelect);
+
+			// Terrain type.
+			Terrace terrainTerrace = new Terrace();
+			terrainTerrace.setSourceModule(0, turbulence(continentDef, 20, 18.125, 1.0 / 20.59375, 3));
+			terrainTerrace.addControlPoint(-1.0);
+			terrainTerrace.addControlPoint(-0.375);
+			terrainTerrace.addControlPoint(1.0);
+			Cache terrainType = new Cache();
+			terrainType.setSourceModule(0, terrainTerrace);
+
+			// Terrain groups.
+			RidgedMulti ridges = new RidgedMulti();
+			ridges.setSeed(30);
+			ridges.setFrequency(1723.0);
+			ridges.setLacunarity(2.142578125);
+			ridges.setOctaveCount(8);
+			Module mountains = scaleBias(turbulence(ridges, 32, 1337.0, 1.0 / 6730.0, 4), 0.5, 0.375);
+			Billow hillBase = new Billow();
+			hillBase.setSeed(60);
+			hillBase.setFrequency(1663.0);
+			hillBase.setLacunarity(2.162109375);
+			hillBase.setOctaveCount(6);
+			Module hills = scaleBias(hillBase, 0.5, 0.125);
+			Billow plainBase = new Billow();
+			plainBase.setSeed(70);
+			plainBase.setFrequency(1097.5);
+			plainBase.setLacunarity(2.314453125);
+			plainBase.setOctaveCount(8);
+			Module plains = scaleBias(plainBase, 0.0625, 0.0);
+			Voronoi cliffs = new Voronoi();
+			cliffs.setSeed(80);
+			cliffs.setFrequency(826.0);
+			cliffs.setEnableDistance(true);
+			Terrace badlandTerrace = new Terrace();
+			badlandTerrace.setSourceModule(0, cliffs);
+			badlandTerrace.makeControlPoints(6);
+			Module badlands = scaleBias(badlandTerrace, 0.25, 0.0625);
+
+			Module land = select(plains, hills, terrainType, 0.25, 1000.25, 0.25);
+			land = select(land, badlands, terrainType, 0.5, 0.75, 0.0625);
+			land = select(land, mountains, terrainType, 0.75, 1000.75, 0.125);
+			Add elevation = new Add();
+			elevation.setSourceModule(0, scaleBias(continentDef, 0.5, 0.0));
+			elevation.setSourceModule(1, scaleBias(land, 0.25, 0.0));
+			Module ocean = scaleBias(continentDef, 0.25, -0.125);
+			return select(ocean, elevation, continentDef, 0.0, 1000.0, 0.03125);
+		}
+	},
+
+	/**
+	 * A voxel density function: a height gradient with rolling hills,
+	 * carved by two intersecting ridged-multifractal "worm" fields.
+	 */
+	CAVES(64.0) {
+		@Override
+		Module build() {
+			Add terrain = new Add();
+			terrain.setSourceModule(0, new HeightGradient(1.0 / 16.0));
+			terrain.setSourceModule(1, perlin(0, 1.0 / 32.0, 0.5, 2.0, 5));
+			RidgedMulti worms0 = new RidgedMulti();
+			worms0.setFrequency(1.0 / 24.0);
+			worms0.setOctaveCount(3);
+			RidgedMulti worms1 = new RidgedMulti();
+			worms1.setSeed(1);
+			worms1.setFrequency(1.0 / 24.0);
+			worms1.setOctaveCount(3);
+			Min tunnels = new Min();
+			tunnels.setSourceModule(0, worms0);
+			tunnels.setSourceModule(1, worms1);
+			Module caves = turbulence(tunnels, 2, 1.0 / 8.0, 2.0, 3);
+			Constant air = new Constant();
+			air.setValue(-1.0);
+			return select(terrain, air, caves, 0.6, 1000.0, 0.05);
+		}
+	},
+
+	/**
+	 * The libnoise "wood" texture example.
+	 */
+	WOOD(2.0) {
+		@Override
+		Module build() {
+			Cylinders rings = new Cylinders();
+			rings.setFrequency(16.0);
+			ScalePoint stretchedGrain = new ScalePoint();
+			stretchedGrain.setSourceModule(0, perlin(0, 48.0, 0.5, 2.20703125, 3));
+			stretchedGrain.setxScale(1.0);
+			stretchedGrain.setyScale(0.25);
+			stretchedGrain.setzScale(1.0);
+			Add wood = new Add();
+			wood.setSourceModule(0, rings);
+			wood.setSourceModule(1, scaleBias(stretchedGrain, 0.25, 0.125));
+			TranslatePoint translated = new TranslatePoint();
+			translated.setSourceModule(0, turbulence(wood, 1, 4.0, 1.0 / 256.0, 4));
+			translated.setZTranslation(1.48);
+			RotatePoint rotated = new RotatePoint();
+			rotated.setSourceModule(0, translated);
+			rotated.setAngles(84.0, 0.0, 0.0);
+			return turbulence(rotated, 2, 2.0, 1.0 / 64.0, 4);
+		}
+	},
+
+	/**
+	 * The libnoise "granite" texture example.
+	 */
+	GRANITE(2.0) {
+		@Override
+		Module build() {
+			Billow primary = new Billow();
+			primary.setFrequency(8.0);
+			primary.setPersistence(0.625);
+			primary.setLacunarity(2.18359375);
+			primary.setOctaveCount(6);
+			Voronoi grains = new Voronoi();
+			grains.setSeed(1);
+			grains.setFrequency(16.0);
+			grains.setEnableDistance(true);
+			Add granite = new Add();
+			granite.setSourceModule(0, primary);
+			granite.setSourceModule(1, scaleBias(grains, -0.5, 0.0));
+			return turbulence(granite, 2, 4.0, 1.0 / 8.0, 6);
+		}
+	};
+
+	/// Width of the square region that the planar and 3D-chunk outputs
+	/// cover.
+	final double extent;
+
+	Scenario(double extent) {
+		this.extent = extent;
+	}
+
+	/**
+	 * Builds the module graph of this scenario.
+	 * 
+	 * @return The module at the root of the graph.
+	 */
+	abstract Module build();
+
+	static Perlin perlin(int seed, double frequency, double persistence, double lacunarity, int octaves) {
+		Perlin perlin = new Perlin();
+		perlin.setSeed(seed);
+		perlin.setFrequency(frequency);
+		perlin.setPersistence(persistence);
+		perlin.setLacunarity(lacunarity);
+		perlin.setOctaveCount(octaves);
+		perlin.setNoiseQuality(NoiseQuality.STANDARD);
+		return perlin;
+	}
+
+	static ScaleBias scaleBias(Module source, double scale, double bias) {
+		ScaleBias scaleBias = new ScaleBias();
+		scaleBias.setSourceModule(0, source);
+		scaleBias.setScale(scale);
+		scaleBias.setBias(bias);
+		return scaleBias;
+	}
+
+	static Turbulence turbulence(Module source, int seed, double frequency, double power, int roughness) {
+		Turbulence turbulence = new Turbulence();
+		turbulence.setSourceModule(0, source);
+		turbulence.setSeed(seed);
+		turbulence.setFrequency(frequency);
+		turbulence.setPower(power);
+		turbulence.setRoughness(roughness);
+		return turbulence;
+	}
+
+	// Select.setBounds() takes the upper bound first.
+	static Select select(Module source0, Module source1, Module control, double lowerBound, double upperBound, double edgeFalloff) {
+		Select select = new Select();
+		select.setSourceModule(0, source0);
+		select.setSourceModule(1, source1);
+		select.setControlModule(control);
+		select.setBounds(upperBound, lowerBound);
+		select.setEdgeFalloff(edgeFalloff);
+		return select;
+	}
+}
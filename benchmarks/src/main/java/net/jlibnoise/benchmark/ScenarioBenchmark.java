@@ -0,0 +1,127 @@
+package net.jlibnoise.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.model.PlaneSampler;
+import net.jlibnoise.model.SphereSampler;
+import net.jlibnoise.util.Parallel;
+
+/**
+ * Benchmarks complete {@link Scenario} graphs end to end: a planar map and
+ * a spherical map through the grid samplers, and a cubic 3D chunk through
+ * getValues(), each spread over the given number of threads.  All report
+ * samples per second.
+ *
+ * Running every scenario at "-p threads=1,2,4,8" gives the thread-scaling
+ * curve of each output; "-prof gc" adds the allocation rate per sample.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScenarioBenchmark {
+	/// Width, in samples, of the planar and spherical maps.
+	static final int MAP_WIDTH = 512;
+
+	/// Height, in samples, of the planar and spherical maps.
+	static final int MAP_HEIGHT = 256;
+
+	/// Number of samples in each map.
+	static final int MAP_SAMPLES = MAP_WIDTH * MAP_HEIGHT;
+
+	/// Edge length, in samples, of the 3D chunk.
+	static final int CHUNK_SIZE = 32;
+
+	/// Number of samples in the 3D chunk.
+	static final int CHUNK_SAMPLES = CHUNK_SIZE * CHUNK_SIZE * CHUNK_SIZE;
+
+	@Param({ "PLANET", "CAVES", "WOOD", "GRANITE" })
+	Scenario scenario;
+
+	@Param({ "1", "2", "4", "8" })
+	int threads;
+
+	final double[] map = new double[MAP_SAMPLES];
+
+	final double[] chunkX = new double[CHUNK_SAMPLES];
+	final double[] chunkY = new double[CHUNK_SAMPLES];
+	final double[] chunkZ = new double[CHUNK_SAMPLES];
+	final double[] chunk = new double[CHUNK_SAMPLES];
+
+	Module root;
+	PlaneSampler plane;
+	SphereSampler sphere;
+	Parallel.BandTask chunkTask;
+
+	@Setup
+	public void setUp() {
+		root = scenario.build();
+		double half = scenario.extent * 0.5;
+
+		plane = new PlaneSampler(root);
+		plane.setBounds(-half, half, -half * 0.5, half * 0.5);
+		plane.setSize(MAP_WIDTH, MAP_HEIGHT);
+		plane.setThreadCount(threads);
+
+		sphere = new SphereSampler(root);
+		sphere.setBounds(-90.0, 90.0, -180.0, 180.0);
+		sphere.setSize(MAP_WIDTH, MAP_HEIGHT);
+		sphere.setThreadCount(threads);
+
+		double spacing = scenario.extent / CHUNK_SIZE;
+		int i = 0;
+		for (int y = 0; y < CHUNK_SIZE; y++) {
+			for (int z = 0; z < CHUNK_SIZE; z++) {
+				for (int x = 0; x < CHUNK_SIZE; x++) {
+					chunkX[i] = x * spacing - half;
+					chunkY[i] = y * spacing - half;
+					chunkZ[i] = z * spacing - half;
+					i++;
+				}
+			}
+		}
+		chunkTask = new Parallel.BandTask() {
+			@Override
+			public void run(int start, int end) {
+				root.getValues(chunkX, chunkY, chunkZ, start, chunk, start, end - start);
+			}
+		};
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MAP_SAMPLES)
+	public double[] planar() {
+		plane.getValues(map);
+		return map;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MAP_SAMPLES)
+	public double[] spherical() {
+		sphere.getValues(map);
+		return map;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CHUNK_SAMPLES)
+	public double[] chunk() {
+		Parallel.forBands(0, CHUNK_SAMPLES, Coordinates.BATCH_SIZE, threads, chunkTask);
+		return chunk;
+	}
+}
@@ -0,0 +1,266 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+
+import net.jlibnoise.exception.NoModuleException;
+
+/**
+ * Precision policy for the transcendental functions used by the noise
+ * modules and models.
+ *
+ * RotatePoint, Cylinders, Spheres, Voronoi, Exponent, Power and the model
+ * classes evaluate sin(), cos(), sqrt() and pow() through the policy of the
+ * object, so an application can trade accuracy for speed consistently
+ * across a whole graph.
+ *
+ * New modules and models take the policy returned by getDefault() at
+ * construction.  setMathPrecision() on a module changes that module only;
+ * applyTo() changes every module of a graph.
+ *
+ * The error bounds below were measured against java.lang.Math over the
+ * documented ranges:
+ *
+ * <table>
+ * <tr><th></th><th>sin/cos (absolute)</th><th>sqrt (relative)</th><th>pow (relative)</th></tr>
+ * <tr><td>EXACT</td><td>1 ulp</td><td>exact</td><td>1 ulp</td></tr>
+ * <tr><td>FAST</td><td>1.1e-3</td><td>1.8e-3</td><td>1 ulp</td></tr>
+ * <tr><td>FASTEST</td><td>5.6e-2</td><td>3.5e-2</td><td>3e-7 for |y log2(x)| &lt;= 64</td></tr>
+ * </table>
+ *
+ * Math.sqrt() compiles to a single instruction on current JVMs, so the
+ * square root approximations mainly matter for older or interpreted
+ * runtimes; the sine approximations are about twice as fast as Math.sin().
+ *
+ * FAST is the default and produces the same output values as earlier
+ * versions of this library for angles within [-PI, PI]; it reduces larger
+ * angles into that range instead of returning meaningless values.
+ */
+public enum MathPrecision {
+	/**
+	 * Uses java.lang.Math throughout.
+	 */
+	EXACT {
+		@Override
+		public double sin(double x) {
+			return Math.sin(x);
+		}
+
+		@Override
+		public double cos(double x) {
+			return Math.cos(x);
+		}
+
+		@Override
+		public double sqrt(double x) {
+			return Math.sqrt(x);
+		}
+
+		@Override
+		public double pow(double x, double y) {
+			return Math.pow(x, y);
+		}
+	},
+
+	/**
+	 * Uses the parabolic sine approximation and the inverse square root
+	 * approximation of MathHelper, and java.lang.Math for pow().
+	 */
+	FAST {
+		@Override
+		public double sin(double x) {
+			if (x < -MathHelper.PI || x > MathHelper.PI) {
+				x = MathHelper.wrapRadian(x);
+			}
+			return MathHelper.sin(x);
+		}
+
+		@Override
+		public double cos(double x) {
+			return sin(x + (x > MathHelper.HALF_PI ? -MathHelper.THREE_PI_HALVES : MathHelper.HALF_PI));
+		}
+
+		@Override
+		public double sqrt(double x) {
+			return MathHelper.sqrt(x);
+		}
+
+		@Override
+		public double pow(double x, double y) {
+			return Math.pow(x, y);
+		}
+	},
+
+	/**
+	 * Uses the parabolic sine approximation without its refinement step, the
+	 * inverse square root approximation without its Newton iteration, and a
+	 * polynomial approximation of pow().
+	 */
+	FASTEST {
+		@Override
+		public double sin(double x) {
+			if (x < -MathHelper.PI || x > MathHelper.PI) {
+				x = MathHelper.wrapRadian(x);
+			}
+			return SIN_A * x * Math.abs(x) + SIN_B * x;
+		}
+
+		@Override
+		public double cos(double x) {
+			return sin(x + (x > MathHelper.HALF_PI ? -MathHelper.THREE_PI_HALVES : MathHelper.HALF_PI));
+		}
+
+		@Override
+		public double sqrt(double x) {
+			return x * Double.longBitsToDouble(0x5FE6EB50C7B537AAL - (Double.doubleToRawLongBits(x) >> 1));
+		}
+
+		@Override
+		public double pow(double x, double y) {
+			if (!(x >= Double.MIN_NORMAL && x < Double.POSITIVE_INFINITY)) {
+				// Zero, negative, subnormal, infinite and NaN bases.
+				return Math.pow(x, y);
+			}
+			return exp2(y * log2(x));
+		}
+	};
+
+	private static final double SIN_A = -4.0 / MathHelper.SQUARED_PI;
+
+	private static final double SIN_B = 4.0 / MathHelper.PI;
+
+	private static final double LN_2 = Math.log(2.0);
+
+	private static final double TWO_OVER_LN_2 = 2.0 / LN_2;
+
+	private static final long SQRT_HALF_BITS = Double.doubleToRawLongBits(Math.sqrt(0.5));
+
+	private static volatile MathPrecision defaultPrecision = FAST;
+
+	/**
+	 * Returns the sine of an angle.
+	 * 
+	 * @param x The angle, in radians.
+	 * @return The sine of the angle.
+	 */
+	public abstract double sin(double x);
+
+	/**
+	 * Returns the cosine of an angle.
+	 * 
+	 * @param x The angle, in radians.
+	 * @return The cosine of the angle.
+	 */
+	public abstract double cos(double x);
+
+	/**
+	 * Returns the square root of a non-negative value.
+	 * 
+	 * @param x The value.
+	 * @return The square root of the value.
+	 */
+	public abstract double sqrt(double x);
+
+	/**
+	 * Returns a value raised to a power, with the same special cases as
+	 * Math.pow().
+	 * 
+	 * @param x The base.
+	 * @param y The exponent.
+	 * @return @a x raised to the power of @a y.
+	 */
+	public abstract double pow(double x, double y);
+
+	/**
+	 * Returns the policy that new modules and models use.
+	 */
+	public static MathPrecision getDefault() {
+		return defaultPrecision;
+	}
+
+	/**
+	 * Sets the policy that new modules and models use.  Existing objects
+	 * keep their policy.
+	 * 
+	 * @param precision The new default policy.
+	 */
+	public static void setDefault(MathPrecision precision) {
+		if (precision == null)
+			throw new IllegalArgumentException("precision cannot be null");
+		defaultPrecision = precision;
+	}
+
+	/**
+	 * Sets this policy on a module and on every module connected to it,
+	 * directly or indirectly, as a source module.
+	 * 
+	 * @param root The module at the root of the graph.
+	 */
+	public void applyTo(Module root) {
+		IdentityHashMap<Module, Boolean> visited = new IdentityHashMap<Module, Boolean>();
+		ArrayDeque<Module> pending = new ArrayDeque<Module>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			Module module = pending.pop();
+			if (visited.put(module, Boolean.TRUE) != null) {
+				continue;
+			}
+			module.setMathPrecision(this);
+			for (int i = 0; i < module.getSourceModuleCount(); i++) {
+				try {
+					pending.push(module.getSourceModule(i));
+				} catch (NoModuleException e) {
+					// Unconnected source modules are skipped.
+				}
+			}
+		}
+	}
+
+	// Approximates the base-2 logarithm of a positive normal value.  The
+	// value is split without branches into 2^exponent * m with m in
+	// [sqrt(0.5), sqrt(2)), and log2(m) is evaluated with the atanh series of
+	// (m - 1) / (m + 1).
+	static double log2(double x) {
+		long bits = Double.doubleToRawLongBits(x);
+		long exponent = (bits - SQRT_HALF_BITS) >> 52;
+		double m = Double.longBitsToDouble(bits - (exponent << 52));
+		double t = (m - 1.0) / (m + 1.0);
+		double t2 = t * t;
+		return exponent + TWO_OVER_LN_2 * t * (1.0 + t2 * (1.0 / 3.0 + t2 * (1.0 / 5.0 + t2 * (1.0 / 7.0))));
+	}
+
+	// Approximates 2 raised to a power.  The integer part goes into the
+	// exponent bits; the fractional part is evaluated with the Taylor series
+	// of exp() around the middle of [0, 1).
+	static double exp2(double x) {
+		if (!(x > -1022.0)) {
+			return x != x ? x : 0.0;
+		} else if (x >= 1024.0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double floor = Math.floor(x);
+		double g = (x - floor - 0.5) * LN_2;
+		double e = 1.0 + g * (1.0 + g * (1.0 / 2.0 + g * (1.0 / 6.0 + g * (1.0 / 24.0 + g * (1.0 / 120.0 + g * (1.0 / 720.0))))));
+		return e * MathHelper.SQRTOFTWO * Double.longBitsToDouble((long) ((int) floor + 1023) << 52);
+	}
+}
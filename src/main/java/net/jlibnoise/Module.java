@@ -195,6 +195,12 @@ import net.jlibnoise.exception.NoModuleException;
  * attempts to call the getValue() method, your module will raise an
  * assertion.
  *
+ * Once a graph is built, getValue() and getValues() must not allocate
+ * memory, so that evaluating a graph never triggers a garbage collection.
+ * Scratch buffers belong in a ThreadLocal that is filled on first use, as
+ * in {@link Cache}.  Every noise module of this library meets this
+ * requirement.
+ *
  * It shouldn't be too difficult to create your own noise module.  If you
  * still have some problems, take a look at the source code for
  * {@link Add}, which is a very simple noise module.
@@ -202,6 +208,10 @@ import net.jlibnoise.exception.NoModuleException;
 public abstract class Module {
 	protected Module[] sourceModule;
 
+	/// The precision policy for the transcendental functions this module
+	/// evaluates.
+	protected MathPrecision mathPrecision = MathPrecision.getDefault();
+
 	public Module(int sourceModuleCount) {
 		sourceModule = null;
 
@@ -279,6 +289,55 @@ public abstract class Module {
 		this.sourceModule[index] = sourceModule;
 	}
 
+    /**
+     * Generates the output values at a batch of input values.
+     * <p/>
+     * The input value i has the coordinates ( @a x[srcOffset + i], @a
+     * y[srcOffset + i], @a z[srcOffset + i] ), and its output value is
+     * written to @a dest[destOffset + i].  The results are the same as
+     * calling getValue() for each input value.
+     * <p/>
+     * The default implementation calls getValue() for each input value.
+     * Modules that can share work between nearby input values, such as
+     * {@link net.jlibnoise.filter.Voronoi}, override this method.
+     *
+     * @param x The @a x coordinates of the input values.
+     * @param y The @a y coordinates of the input values.
+     * @param z The @a z coordinates of the input values.
+     * @param srcOffset The index of the first input value.
+     * @param dest The array that receives the output values.
+     * @param destOffset The index of the first output value.
+     * @param count The number of input values.
+     */
+	public void getValues(double[] x, double[] y, double[] z, int srcOffset, double[] dest, int destOffset, int count) {
+		for (int i = 0; i < count; i++) {
+			dest[destOffset + i] = getValue(x[srcOffset + i], y[srcOffset + i], z[srcOffset + i]);
+		}
+	}
+
+    /**
+     * Returns the precision policy for the transcendental functions this
+     * noise module evaluates.
+     *
+     * @return The precision policy.
+     */
+	public MathPrecision getMathPrecision() {
+		return mathPrecision;
+	}
+
+    /**
+     * Sets the precision policy for the transcendental functions this
+     * noise module evaluates.  The source modules keep their own policy;
+     * use MathPrecision.applyTo() to change a whole graph.
+     *
+     * @param mathPrecision The precision policy.
+     */
+	public void setMathPrecision(MathPrecision mathPrecision) {
+		if (mathPrecision == null)
+			throw new IllegalArgumentException("mathPrecision cannot be null");
+		this.mathPrecision = mathPrecision;
+	}
+
     /**
      * Returns the number of source modules required by this noise
      * module.
@@ -90,11 +90,25 @@ public class Utils {
 	 * @return array of x,y,z
 	 */
 	public static double[] latLonToXYZ(double lat, double lon) {
+		double[] xyz = new double[3];
+		latLonToXYZ(lat, lon, xyz, 0);
+		return xyz;
+	}
+
+	/**
+	 * Converts latitude/longitude coordinates on a unit sphere into 3D
+	 * Cartesian coordinates, without allocating.
+	 * 
+	 * @param lat The latitude, in degrees.
+	 * @param lon The longitude, in degrees.
+	 * @param dest The array that receives x, y and z.
+	 * @param offset The index in @a dest of x.
+	 */
+	public static void latLonToXYZ(double lat, double lon, double[] dest, int offset) {
 		double r = MathHelper.cos(Math.toRadians(lat));
-		double x = r * MathHelper.cos(Math.toRadians(lon));
-		double y = MathHelper.sin(Math.toRadians(lat));
-		double z = r * MathHelper.sin(Math.toRadians(lon));
-		return new double[] {x, y, z};
+		dest[offset] = r * MathHelper.cos(Math.toRadians(lon));
+		dest[offset + 1] = MathHelper.sin(Math.toRadians(lat));
+		dest[offset + 2] = r * MathHelper.sin(Math.toRadians(lon));
 	}
 
 	public static int clampValue(int value, int lowerBound, int upperBound) {
@@ -0,0 +1,286 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.combiner;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.exception.NoModuleException;
+import net.jlibnoise.util.FlightRecorderEvents;
+
+/**
+ * Base class for combiner modules that combine the output values from any
+ * number of source modules.
+ *
+ * The output value from each source module is multiplied by the weight of
+ * that source module, 1.0 by default, and the weighted values are combined
+ * from left to right in a flat loop.  This replaces a deep tree of binary
+ * combiner modules, which adds a nested call per level.  getValues()
+ * evaluates each source module as a batch and combines the batches into
+ * one buffer.
+ *
+ * flatten() replaces the chains of binary {@link Add}, {@link Multiply},
+ * {@link Min} and {@link Max} modules of a graph with the corresponding
+ * n-ary modules.
+ */
+public abstract class NaryCombiner extends Module {
+	// Number of input values that getValues() combines at a time.
+	static final int BLOCK_SIZE = 256;
+
+	// Weight of each source module.
+	final double[] weights;
+
+	// Each thread that evaluates batches keeps its own buffer for the
+	// output values of one source module.
+	final ThreadLocal<double[]> buffers = new ThreadLocal<double[]>() {
+		@Override
+		protected double[] initialValue() {
+			return new double[BLOCK_SIZE];
+		}
+	};
+
+	/**
+	 * @param sourceCount The number of source modules.
+	 * @throws IllegalArgumentException if the number of source modules is
+	 *             less than one.
+	 */
+	protected NaryCombiner(int sourceCount) {
+		super(checkSourceCount(sourceCount));
+		weights = new double[sourceCount];
+		for (int i = 0; i < sourceCount; i++) {
+			weights[i] = 1.0;
+		}
+	}
+
+	private static int checkSourceCount(int sourceCount) {
+		if (sourceCount < 1)
+			throw new IllegalArgumentException("sourceCount must be at least 1");
+		return sourceCount;
+	}
+
+	public double getWeight(int index) {
+		return weights[index];
+	}
+
+	/**
+	 * Sets the weight that the output value from a source module is
+	 * multiplied by.
+	 * 
+	 * @param index The index value of the source module.
+	 * @param weight The weight.
+	 */
+	public void setWeight(int index, double weight) {
+		weights[index] = weight;
+	}
+
+	@Override
+	public int getSourceModuleCount() {
+		return weights.length;
+	}
+
+	@Override
+	public double getValue(double x, double y, double z) {
+		double value = sourceValue(0, x, y, z);
+		for (int i = 1; i < weights.length; i++) {
+			value = combine(value, sourceValue(i, x, y, z));
+		}
+		return value;
+	}
+
+    /**
+     * Generates the output values at a batch of input values.
+     *
+     * The first source module writes its output values into @a dest, and
+     * the output values from each further source module are combined into
+     * it in blocks.  The output values are identical to those returned by
+     * getValue().
+     */
+	@Override
+	public void getValues(double[] x, double[] y, double[] z, int srcOffset, double[] dest, int destOffset, int count) {
+		for (int i = 0; i < weights.length; i++) {
+			if (sourceModule[i] == null)
+				throw new NoModuleException();
+		}
+
+		sourceModule[0].getValues(x, y, z, srcOffset, dest, destOffset, count);
+		double weight = weights[0];
+		for (int i = 0; i < count; i++) {
+			dest[destOffset + i] *= weight;
+		}
+
+		double[] buffer = buffers.get();
+		for (int start = 0; start < count; start += BLOCK_SIZE) {
+			int n = Math.min(BLOCK_SIZE, count - start);
+			for (int source = 1; source < weights.length; source++) {
+				sourceModule[source].getValues(x, y, z, srcOffset + start, buffer, 0, n);
+				combine(dest, destOffset + start, buffer, weights[source], n);
+			}
+		}
+	}
+
+	// Returns the weighted output value from a source module.
+	final double sourceValue(int index, double x, double y, double z) {
+		if (sourceModule[index] == null)
+			throw new NoModuleException();
+		return sourceModule[index].getValue(x, y, z) * weights[index];
+	}
+
+	/**
+	 * Combines the accumulated value with the weighted output value from
+	 * the next source module.
+	 * 
+	 * @param accumulated The combination of the previous source modules.
+	 * @param value The weighted output value.
+	 * @return The combined value.
+	 */
+	protected abstract double combine(double accumulated, double value);
+
+	/**
+	 * Combines a block of accumulated values with a block of output values
+	 * from the next source module.
+	 * 
+	 * @param accumulated The accumulated values, which receive the result.
+	 * @param offset The index of the first accumulated value.
+	 * @param values The unweighted output values.
+	 * @param weight The weight of the source module.
+	 * @param count The number of values.
+	 */
+	protected abstract void combine(double[] accumulated, int offset, double[] values, double weight, int count);
+
+	/**
+	 * Replaces the chains of binary Add, Multiply, Min and Max modules of a
+	 * graph with NaryAdd, NaryMultiply, NaryMin and NaryMax modules.
+	 * 
+	 * A chain is a binary combiner module together with all source modules
+	 * of the same class that are connected to it directly or through other
+	 * modules of the chain, and that have no other parent in the graph.
+	 * Its remaining source modules, in left-to-right order, become the
+	 * source modules of the n-ary module.  For chains that lean to the
+	 * left, such as those built by adding one source module at a time, the
+	 * output values are identical; otherwise they are equal to within
+	 * rounding.
+	 * 
+	 * Other modules of the graph are rewired in place to the replacements
+	 * of their source modules; modules shared by several parents stay
+	 * shared.  In particular, a combiner inside a chain that has another
+	 * parent ends the chain and becomes an n-ary module of its own.  The replaced binary modules are not modified.
+	 * 
+	 * @param root The module at the root of the graph.
+	 * @return The module that replaces the root, or the root itself.
+	 */
+	public static Module flatten(Module root) {
+		Object compilation = FlightRecorderEvents.beginCompilation();
+		IdentityHashMap<Module, Integer> parents = new IdentityHashMap<Module, Integer>();
+		countParents(root, parents);
+		IdentityHashMap<Module, Module> replacements = new IdentityHashMap<Module, Module>();
+		Module flattened = flatten(root, parents, replacements);
+		if (compilation != null) {
+			int replaced = 0;
+			for (Map.Entry<Module, Module> entry : replacements.entrySet()) {
+				if (entry.getKey() != entry.getValue()) {
+					replaced++;
+				}
+			}
+			FlightRecorderEvents.endCompilation(compilation, "flatten", root, replaced);
+		}
+		return flattened;
+	}
+
+	// Counts, for every module below the given one, the source module slots
+	// of the graph that refer to it.
+	private static void countParents(Module module, IdentityHashMap<Module, Integer> parents) {
+		for (int i = 0; i < module.getSourceModuleCount(); i++) {
+			Module source;
+			try {
+				source = module.getSourceModule(i);
+			} catch (NoModuleException e) {
+				continue;
+			}
+			Integer count = parents.get(source);
+			parents.put(source, count == null ? 1 : count + 1);
+			if (count == null) {
+				countParents(source, parents);
+			}
+		}
+	}
+
+	private static Module flatten(Module module, IdentityHashMap<Module, Integer> parents, IdentityHashMap<Module, Module> replacements) {
+		Module replacement = replacements.get(module);
+		if (replacement != null) {
+			return replacement;
+		}
+
+		Class<?> type = module.getClass();
+		if (type == Add.class || type == Multiply.class || type == Min.class || type == Max.class) {
+			List<Module> operands = new ArrayList<Module>();
+			collectOperands(module, type, parents, operands);
+			NaryCombiner combiner;
+			if (type == Add.class) {
+				combiner = new NaryAdd(operands.size());
+			} else if (type == Multiply.class) {
+				combiner = new NaryMultiply(operands.size());
+			} else if (type == Min.class) {
+				combiner = new NaryMin(operands.size());
+			} else {
+				combiner = new NaryMax(operands.size());
+			}
+			combiner.setMathPrecision(module.getMathPrecision());
+			for (int i = 0; i < operands.size(); i++) {
+				combiner.setSourceModule(i, flatten(operands.get(i), parents, replacements));
+			}
+			replacement = combiner;
+		} else {
+			for (int i = 0; i < module.getSourceModuleCount(); i++) {
+				Module source;
+				try {
+					source = module.getSourceModule(i);
+				} catch (NoModuleException e) {
+					// Unconnected source modules are skipped.
+					continue;
+				}
+				Module flattened = flatten(source, parents, replacements);
+				if (flattened != source) {
+					module.setSourceModule(i, flattened);
+				}
+			}
+			replacement = module;
+		}
+		replacements.put(module, replacement);
+		return replacement;
+	}
+
+	// Adds the source modules of a chain of binary combiner modules of the
+	// given class to the list, in left-to-right order.  A module of the
+	// class with several parents is an operand, not part of the chain.
+	private static void collectOperands(Module module, Class<?> type, IdentityHashMap<Module, Integer> parents, List<Module> operands) {
+		for (int i = 0; i < 2; i++) {
+			Module source = module.getSourceModule(i);
+			if (source.getClass() == type && parents.get(source) == 1) {
+				collectOperands(source, type, parents, operands);
+			} else {
+				operands.add(source);
+			}
+		}
+	}
+}
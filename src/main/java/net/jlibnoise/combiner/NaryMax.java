@@ -0,0 +1,52 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.combiner;
+
+import net.jlibnoise.Utils;
+
+/**
+ * Noise module that outputs the largest of the weighted output values from
+ * any number of source modules; the n-ary form of {@link Max}.
+ *
+ * @see NaryCombiner
+ */
+public class NaryMax extends NaryCombiner {
+
+	/**
+	 * @param sourceCount The number of source modules.
+	 */
+	public NaryMax(int sourceCount) {
+		super(sourceCount);
+	}
+
+	@Override
+	protected double combine(double accumulated, double value) {
+		return Utils.getMax(accumulated, value);
+	}
+
+	@Override
+	protected void combine(double[] accumulated, int offset, double[] values, double weight, int count) {
+		for (int i = 0; i < count; i++) {
+			accumulated[offset + i] = Utils.getMax(accumulated[offset + i], values[i] * weight);
+		}
+	}
+
+}
@@ -41,7 +41,7 @@ public class Power extends Module {
 		if (sourceModule[1] == null)
 			throw new NoModuleException();
 
-		return Math.pow(sourceModule[0].getValue(x, y, z), sourceModule[1].getValue(x, y, z));
+		return mathPrecision.pow(sourceModule[0].getValue(x, y, z), sourceModule[1].getValue(x, y, z));
 
 	}
 
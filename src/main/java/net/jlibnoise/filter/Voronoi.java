@@ -82,6 +82,77 @@ public class Voronoi extends Module {
 	// Seed value used by the coherent-noise function to determine the positions of the seed points.
 	int seed = DEFAULT_VORONOI_SEED;
 
+	// Relative margin by which the distance bounds are reduced to cover
+	// rounding in the seed point positions.
+	static final double SEARCH_MARGIN = 1e-9;
+
+	// Cube offsets along one axis, in order of increasing distance bound,
+	// for an input value in the lower half of its cube.
+	static final int[] SEARCH_ORDER_LOW = { 0, 1, -1, 2, -2 };
+
+	// Cube offsets along one axis, in order of increasing distance bound,
+	// for an input value in the upper half of its cube.
+	static final int[] SEARCH_ORDER_HIGH = { 1, 0, 2, -1, -2 };
+
+	/**
+	 * The features of the Voronoi diagram at an input value, as found by
+	 * getFeatures().
+	 *
+	 * Distances and positions are measured in the scaled space in which
+	 * the seed points are one unit apart on average, that is, in input
+	 * coordinates multiplied by the frequency.
+	 */
+	public static final class Result {
+		/// Distance to the nearest seed point.
+		public double f1;
+
+		/// Distance to the second-nearest seed point.  F2 - F1 is zero on
+		/// the borders between cells.
+		public double f2;
+
+		/// Position of the nearest seed point.
+		public double x, y, z;
+
+		/// Cube that contains the nearest seed point; together with the
+		/// seed, it identifies the cell.
+		public int xCube, yCube, zCube;
+
+		/// A non-negative pseudo-random identifier of the cell.
+		public int cellId;
+
+		/// The random value, in -1.0 to +1.0, that the cell is assigned
+		/// before it is scaled by the displacement.
+		public double cellValue;
+
+		/// The output value that getValue() returns for the input value.
+		public double value;
+	}
+
+	// Offset added to the seed to derive the cell identifiers, so that they
+	// differ from the seed point coordinates.
+	static final int CELL_ID_SEED_OFFSET = 3;
+
+	// Largest absolute scaled coordinate for which batches use the
+	// candidate lists of the seed point cache.
+	static final double BATCH_LIMIT = 1e9;
+
+	// Largest average distance between consecutive input values of a batch,
+	// in cubes, for which the candidate lists are used: eight input values
+	// per box.
+	static final double MAX_DENSE_STEP = 1.0 / (VoronoiCache.BOX_DIVISIONS * 8);
+
+	// Largest average distance between consecutive input values of a batch,
+	// in cubes, for which the seed point window is used.
+	static final double MAX_WINDOW_STEP = 0.5;
+
+	// Each thread that evaluates batches keeps its own seed point cache.
+	final ThreadLocal<VoronoiCache> featureCache = new ThreadLocal<VoronoiCache>() {
+		@Override
+		protected VoronoiCache initialValue() {
+			return new VoronoiCache(seed);
+		}
+	};
+
 	public Voronoi() {
 		super(0);
 	}
@@ -139,10 +210,164 @@ public class Voronoi extends Module {
 
     @Override
     public double getValue(double x, double y, double z) {
+        return evaluate(x, y, z, null, null);
+    }
+
+    /**
+     * Finds the nearest and the second-nearest seed points of an input
+     * value in one search, and stores them with the output value into a
+     * result.
+     *
+     * @param x The @a x coordinate of the input value.
+     * @param y The @a y coordinate of the input value.
+     * @param z The @a z coordinate of the input value.
+     * @param result The result that receives the features.
+     */
+    public void getFeatures(double x, double y, double z, Result result) {
+        evaluate(x, y, z, null, result);
+    }
+
+    /**
+     * Finds the features of a batch of input values, with one search per
+     * input value.
+     *
+     * The input value i has the coordinates ( @a x[srcOffset + i], @a
+     * y[srcOffset + i], @a z[srcOffset + i] ).  Its features are written
+     * at index destOffset + i of each output array that is not null; see
+     * {@link Result} for their meaning.
+     *
+     * @param x The @a x coordinates of the input values.
+     * @param y The @a y coordinates of the input values.
+     * @param z The @a z coordinates of the input values.
+     * @param srcOffset The index of the first input value.
+     * @param values Receives the output values, or null.
+     * @param f1 Receives the distances to the nearest seed points, or null.
+     * @param f2 Receives the distances to the second-nearest seed points, or
+     *            null.
+     * @param cellIds Receives the cell identifiers, or null.
+     * @param destOffset The index of the first output value.
+     * @param count The number of input values.
+     */
+    public void getFeatures(double[] x, double[] y, double[] z, int srcOffset, double[] values, double[] f1, double[] f2, int[] cellIds, int destOffset, int count) {
+        VoronoiCache cache = featureCache.get();
+        if (cache.seed != seed) {
+            cache.reset(seed);
+        }
+        Result result = cache.result;
+        for (int i = 0; i < count; i++) {
+            double value = evaluate(x[srcOffset + i], y[srcOffset + i], z[srcOffset + i], cache, result);
+            int d = destOffset + i;
+            if (values != null) {
+                values[d] = value;
+            }
+            if (f1 != null) {
+                f1[d] = result.f1;
+            }
+            if (f2 != null) {
+                f2[d] = result.f2;
+            }
+            if (cellIds != null) {
+                cellIds[d] = result.cellId;
+            }
+        }
+    }
+
+    /**
+     * Generates the output values at a batch of input values.
+     *
+     * The seed points are kept in a per-thread cache and reused for the
+     * following input values.  If the input values are closely spaced, as
+     * in a row of a grid whose cells are much smaller than the Voronoi
+     * cells, the cache also keeps the few seed points that can be nearest
+     * to each small box of space, and each input value is compared with
+     * those only.  The output values are identical to those returned by
+     * getValue().
+     */
+    @Override
+    public void getValues(double[] x, double[] y, double[] z, int srcOffset, double[] dest, int destOffset, int count) {
+        VoronoiCache cache = featureCache.get();
+        if (cache.seed != seed) {
+            cache.reset(seed);
+        }
+
+        // Candidate lists pay off once several consecutive input values fall
+        // into each box, and the window once several fall into each cube;
+        // estimate the spacing from the ends of the batch.
+        double step = Double.POSITIVE_INFINITY;
+        if (count > 1) {
+            int last = srcOffset + count - 1;
+            double span = Math.max(Math.abs(x[last] - x[srcOffset]), Math.max(Math.abs(y[last] - y[srcOffset]), Math.abs(z[last] - z[srcOffset])));
+            step = span * Math.abs(frequency) / (count - 1);
+        }
+        if (!(step <= MAX_WINDOW_STEP)) {
+            cache = null;
+        }
+
+        for (int i = 0; i < count; i++) {
+            double xi = x[srcOffset + i], yi = y[srcOffset + i], zi = z[srcOffset + i];
+            dest[destOffset + i] = step <= MAX_DENSE_STEP ? evaluateBatched(xi, yi, zi, cache) : evaluate(xi, yi, zi, cache, null);
+        }
+    }
+
+    // Returns the output value at the input value, searching the candidate
+    // list of the box of the cache that contains it.
+    private double evaluateBatched(double x, double y, double z, VoronoiCache cache) {
+        double x1 = x * frequency;
+        double y1 = y * frequency;
+        double z1 = z * frequency;
+        if (!(Math.abs(x1) < BATCH_LIMIT && Math.abs(y1) < BATCH_LIMIT && Math.abs(z1) < BATCH_LIMIT)) {
+            return evaluate(x, y, z, null, null);
+        }
+
+        int xInt = (x1 > 0.0 ? (int) x1 : (int) x1 - 1);
+        int yInt = (y1 > 0.0 ? (int) y1 : (int) y1 - 1);
+        int zInt = (z1 > 0.0 ? (int) z1 : (int) z1 - 1);
+        int xBox = Math.min((int) ((x1 - xInt) * VoronoiCache.BOX_DIVISIONS), VoronoiCache.BOX_DIVISIONS - 1);
+        int yBox = Math.min((int) ((y1 - yInt) * VoronoiCache.BOX_DIVISIONS), VoronoiCache.BOX_DIVISIONS - 1);
+        int zBox = Math.min((int) ((z1 - zInt) * VoronoiCache.BOX_DIVISIONS), VoronoiCache.BOX_DIVISIONS - 1);
+        int slot = cache.findBox(xInt, yInt, zInt, xBox, yBox, zBox);
+        int count = cache.boxCounts[slot];
+        if (count < 0) {
+            return evaluate(x, y, z, cache, null);
+        }
+
+        // The candidates are in scan order, so keeping the first of equally
+        // distant seed points matches the exhaustive search.
+        double[] candidates = cache.candidates;
+        int first = slot * VoronoiCache.MAX_CANDIDATES;
+        double minDist = 2147483647.0;
+        int nearest = first;
+        for (int c = first; c < first + count; c++) {
+            double xDist = candidates[c * 3] - x1;
+            double yDist = candidates[c * 3 + 1] - y1;
+            double zDist = candidates[c * 3 + 2] - z1;
+            double dist = xDist * xDist + yDist * yDist + zDist * zDist;
+            if (dist < minDist) {
+                minDist = dist;
+                nearest = c;
+            }
+        }
+
+        double value;
+        if (enableDistance) {
+            double xDist = candidates[nearest * 3] - x1;
+            double yDist = candidates[nearest * 3 + 1] - y1;
+            double zDist = candidates[nearest * 3 + 2] - z1;
+            value = (mathPrecision.sqrt(xDist * xDist + yDist * yDist + zDist * zDist)) * Utils.SQRT_3 - 1.0;
+        } else {
+            value = 0.0;
+        }
+        return value + (displacement * cache.cellValues[nearest]);
+    }
+
+    // Returns the output value at the input value.  The seed points are
+    // taken from the cache if one is given.  If a result is given, the
+    // search also finds the second-nearest seed point and stores the
+    // features into the result.
+    private double evaluate(double x, double y, double z, VoronoiCache cache, Result result) {
         double x1 = x;
         double y1 = y;
         double z1 = z;
-        // This method could be more efficient by caching the seed values.  Fix later.
 
         x1 *= frequency;
         y1 *= frequency;
@@ -152,35 +377,89 @@ public class Voronoi extends Module {
         int yInt = (y1 > 0.0 ? (int) y1 : (int) y1 - 1);
         int zInt = (z1 > 0.0 ? (int) z1 : (int) z1 - 1);
 
+        if (cache != null) {
+            cache.moveWindow(xInt, yInt, zInt);
+        }
+
         double minDist = 2147483647.0;
+        int minIndex = Integer.MAX_VALUE;
+        double secondDist = 2147483647.0;
+        boolean findSecond = result != null;
+        // Cubes whose bound exceeds this distance are skipped.
+        double limit = minDist;
         double xCandidate = 0;
         double yCandidate = 0;
         double zCandidate = 0;
 
-        // Inside each unit cube, there is a seed point at a random position.  Go
-        // through each of the nearby cubes until we find a cube with a seed point
-        // that is closest to the specified position.
-        for (int zCur = zInt - 2; zCur <= zInt + 2; zCur++) {
-            for (int yCur = yInt - 2; yCur <= yInt + 2; yCur++) {
-                for (int xCur = xInt - 2; xCur <= xInt + 2; xCur++) {
+        // Inside each unit cube, there is a seed point at a random position.  The
+        // seed point of the cube at c lies within (c - 1, c + 1] on each axis,
+        // which gives a lower bound on its distance from the input value.  Visit
+        // the cubes of the 5x5x5 neighborhood with the offsets along each axis
+        // in order of increasing bound, and stop along an axis as soon as the
+        // bound exceeds the closest distance found so far; usually only the
+        // inner 3x3x3 cubes remain.  The bounds are reduced by a margin that
+        // covers rounding, and ties are resolved by the position of the cube in
+        // a z, y, x scan, so the result is the same as visiting every cube.
+        double xFrac = x1 - xInt;
+        double yFrac = y1 - yInt;
+        double zFrac = z1 - zInt;
+        double margin = SEARCH_MARGIN * (1.0 + Math.abs(x1) + Math.abs(y1) + Math.abs(z1));
+        int[] xOrder = xFrac < 0.5 ? SEARCH_ORDER_LOW : SEARCH_ORDER_HIGH;
+        int[] yOrder = yFrac < 0.5 ? SEARCH_ORDER_LOW : SEARCH_ORDER_HIGH;
+        int[] zOrder = zFrac < 0.5 ? SEARCH_ORDER_LOW : SEARCH_ORDER_HIGH;
+        for (int k = 0; k < 5; k++) {
+            int zOffset = zOrder[k];
+            double zBound = axisBound(zOffset, zFrac, margin);
+            if (zBound > limit) {
+                break;
+            }
+            for (int j = 0; j < 5; j++) {
+                int yOffset = yOrder[j];
+                double yzBound = zBound + axisBound(yOffset, yFrac, margin);
+                if (yzBound > limit) {
+                    break;
+                }
+                for (int i = 0; i < 5; i++) {
+                    int xOffset = xOrder[i];
+                    if (yzBound + axisBound(xOffset, xFrac, margin) > limit) {
+                        break;
+                    }
 
                     // Calculate the position and distance to the seed point inside of
                     // this unit cube.
-                    double xPos = xCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed);
-                    double yPos = yCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed + 1);
-                    double zPos = zCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed + 2);
+                    int xCur = xInt + xOffset;
+                    int yCur = yInt + yOffset;
+                    int zCur = zInt + zOffset;
+                    int index = (zOffset + 2) * 25 + (yOffset + 2) * 5 + xOffset + 2;
+                    double xPos, yPos, zPos;
+                    if (cache == null) {
+                        xPos = xCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed);
+                        yPos = yCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed + 1);
+                        zPos = zCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed + 2);
+                    } else {
+                        int w = cache.fetch(index, xCur, yCur, zCur);
+                        xPos = cache.window[w];
+                        yPos = cache.window[w + 1];
+                        zPos = cache.window[w + 2];
+                    }
                     double xDist = xPos - x1;
                     double yDist = yPos - y1;
                     double zDist = zPos - z1;
                     double dist = xDist * xDist + yDist * yDist + zDist * zDist;
 
-                    if (dist < minDist) {
+                    if (dist < minDist || (dist == minDist && index < minIndex)) {
                         // This seed point is closer to any others found so far, so record
                         // this seed point.
+                        secondDist = minDist;
                         minDist = dist;
+                        minIndex = index;
                         xCandidate = xPos;
                         yCandidate = yPos;
                         zCandidate = zPos;
+                        limit = findSecond ? secondDist : minDist;
+                    } else if (dist < secondDist) {
+                        secondDist = dist;
+                        limit = findSecond ? secondDist : minDist;
                     }
                 }
             }
@@ -192,14 +471,47 @@ public class Voronoi extends Module {
             double xDist = xCandidate - x1;
             double yDist = yCandidate - y1;
             double zDist = zCandidate - z1;
-            value = (MathHelper.sqrt(xDist * xDist + yDist * yDist + zDist * zDist)) * Utils.SQRT_3 - 1.0;
+            value = (mathPrecision.sqrt(xDist * xDist + yDist * yDist + zDist * zDist)) * Utils.SQRT_3 - 1.0;
         } else {
             value = 0.0;
         }
 
         // Return the calculated distance with the displacement value applied.
-        return value + (displacement * NoiseGen.valueNoise3D((int) (MathHelper.floor(xCandidate)), (int) (MathHelper.floor(yCandidate)), (int) (MathHelper.floor(zCandidate)), seed));
+        double cellValue = NoiseGen.valueNoise3D((int) (MathHelper.floor(xCandidate)), (int) (MathHelper.floor(yCandidate)), (int) (MathHelper.floor(zCandidate)), seed);
+        value += displacement * cellValue;
+
+        if (findSecond) {
+            int xCube = xInt + minIndex % 5 - 2;
+            int yCube = yInt + minIndex / 5 % 5 - 2;
+            int zCube = zInt + minIndex / 25 - 2;
+            result.f1 = mathPrecision.sqrt(minDist);
+            result.f2 = mathPrecision.sqrt(secondDist);
+            result.x = xCandidate;
+            result.y = yCandidate;
+            result.z = zCandidate;
+            result.xCube = xCube;
+            result.yCube = yCube;
+            result.zCube = zCube;
+            result.cellId = NoiseGen.intValueNoise3D(xCube, yCube, zCube, seed + CELL_ID_SEED_OFFSET);
+            result.cellValue = cellValue;
+            result.value = value;
+        }
+        return value;
 
     }
 
+    // Returns a lower bound on the squared distance, along one axis, from an
+    // input value at the fraction f of its cube to the seed point of the cube
+    // at the given offset.
+    static double axisBound(int offset, double f, double margin) {
+        double bound;
+        if (offset <= 0) {
+            bound = offset == 0 ? 0.0 : (offset == -1 ? f : 1.0 + f);
+        } else {
+            bound = offset == 1 ? 0.0 : 1.0 - f;
+        }
+        bound -= margin;
+        return bound > 0.0 ? bound * bound : 0.0;
+    }
+
 }
@@ -0,0 +1,268 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.filter;
+
+import java.util.Arrays;
+
+import net.jlibnoise.MathHelper;
+import net.jlibnoise.NoiseGen;
+
+/**
+ * Per-thread seed point cache used by {@link Voronoi} to evaluate batches.
+ * 
+ * The cache has three levels:
+ * 
+ * - A direct-mapped table of seed point positions keyed by cube.  The
+ *   positions depend only on the cube and the seed, so the entries stay
+ *   valid until the seed changes.
+ * - A window that holds the positions of the 5x5x5 neighborhood of one
+ *   cube, indexed like the z, y, x scan of the exhaustive search.  Moving
+ *   the window by one cube reuses most positions from the table.
+ * - A direct-mapped table of candidate lists for boxes of a quarter cube
+ *   along each axis.  A seed point can only be the nearest one for some
+ *   input value inside a box if its smallest distance to the box does not
+ *   exceed the largest distance from the box to some other seed point.
+ *   This leaves about four candidates per box, which are kept in scan
+ *   order so that ties are resolved like the exhaustive search.
+ */
+final class VoronoiCache {
+	/// Number of entries of the seed point table; a power of two.
+	static final int FEATURE_SLOTS = 2048;
+
+	/// Number of boxes along each axis of a cube.
+	static final int BOX_DIVISIONS = 4;
+
+	/// Number of entries of the candidate list table.
+	static final int BOX_SLOT_BITS = 9;
+	static final int BOX_SLOTS = 1 << BOX_SLOT_BITS;
+
+	/// Largest number of candidates stored for a box.  Boxes with more
+	/// candidates are marked as overflowed.
+	static final int MAX_CANDIDATES = 16;
+
+	/// Relative margin by which the box distance bounds are widened to cover
+	/// rounding.
+	static final double BOX_MARGIN = 1e-9;
+
+	// Seed of the cached positions.
+	int seed;
+
+	// Whether each seed point table entry holds a position.
+	final boolean[] filled = new boolean[FEATURE_SLOTS];
+
+	// Coordinates of the cube of each seed point table entry, three per
+	// entry.
+	final int[] cubes = new int[FEATURE_SLOTS * 3];
+
+	// Position of the seed point of each table entry, three per entry.
+	final double[] positions = new double[FEATURE_SLOTS * 3];
+
+	// The cube at the center of the window.
+	int windowX, windowY, windowZ;
+
+	// The window entries whose stamp equals the current stamp hold the
+	// positions of the window's cubes.
+	int stamp = 1;
+
+	final int[] windowStamps = new int[125];
+
+	// Position of the seed point of each window entry, three per entry.
+	final double[] window = new double[125 * 3];
+
+	// Window offsets of the seed points that can be nearest to some input
+	// value inside the window's cube, valid if cubeListStamp equals stamp.
+	final int[] cubeCandidates = new int[125];
+
+	int cubeCandidateCount;
+
+	int cubeListStamp;
+
+	// Whether each candidate list table entry holds a list.
+	final boolean[] boxFilled = new boolean[BOX_SLOTS];
+
+	// Cube and box index of each candidate list, four per entry.
+	final int[] boxKeys = new int[BOX_SLOTS * 4];
+
+	// Number of candidates of each list, or -1 if the box has more than
+	// MAX_CANDIDATES candidates.
+	final int[] boxCounts = new int[BOX_SLOTS];
+
+	// Positions of the candidates, MAX_CANDIDATES * 3 per entry.
+	final double[] candidates = new double[BOX_SLOTS * MAX_CANDIDATES * 3];
+
+	// Value assigned to the Voronoi cell of each candidate, MAX_CANDIDATES
+	// per entry.
+	final double[] cellValues = new double[BOX_SLOTS * MAX_CANDIDATES];
+
+	// Window offsets selected for the box being built.
+	private final int[] boxScratch = new int[125];
+
+	// Scratch result for the batch feature search.
+	final Voronoi.Result result = new Voronoi.Result();
+
+	VoronoiCache(int seed) {
+		this.seed = seed;
+	}
+
+	void reset(int seed) {
+		this.seed = seed;
+		Arrays.fill(filled, false);
+		Arrays.fill(boxFilled, false);
+		invalidateWindow();
+	}
+
+	// Centers the window on a cube.
+	void moveWindow(int x, int y, int z) {
+		if (x != windowX || y != windowY || z != windowZ) {
+			windowX = x;
+			windowY = y;
+			windowZ = z;
+			invalidateWindow();
+		}
+	}
+
+	private void invalidateWindow() {
+		if (++stamp == 0) {
+			Arrays.fill(windowStamps, 0);
+			stamp = 1;
+		}
+	}
+
+	// Returns the offset in the window array of the seed point of the cube at
+	// the given scan index of the window, fetching the position from the
+	// seed point table if needed.
+	int fetch(int index, int x, int y, int z) {
+		int w = index * 3;
+		if (windowStamps[index] != stamp) {
+			int c = lookup(x, y, z) * 3;
+			window[w] = positions[c];
+			window[w + 1] = positions[c + 1];
+			window[w + 2] = positions[c + 2];
+			windowStamps[index] = stamp;
+		}
+		return w;
+	}
+
+	// Returns the seed point table entry that holds the seed point of the
+	// cube, computing the seed point if the entry holds a different cube.
+	int lookup(int x, int y, int z) {
+		int slot = ((x * 73856093) ^ (y * 19349663) ^ (z * 83492791)) & (FEATURE_SLOTS - 1);
+		int c = slot * 3;
+		if (!filled[slot] || cubes[c] != x || cubes[c + 1] != y || cubes[c + 2] != z) {
+			cubes[c] = x;
+			cubes[c + 1] = y;
+			cubes[c + 2] = z;
+			positions[c] = x + NoiseGen.valueNoise3D(x, y, z, seed);
+			positions[c + 1] = y + NoiseGen.valueNoise3D(x, y, z, seed + 1);
+			positions[c + 2] = z + NoiseGen.valueNoise3D(x, y, z, seed + 2);
+			filled[slot] = true;
+		}
+		return slot;
+	}
+
+	// Returns the candidate list table entry of a box of a cube, building the
+	// list if the entry holds a different box.
+	int findBox(int xInt, int yInt, int zInt, int xBox, int yBox, int zBox) {
+		int box = (zBox * BOX_DIVISIONS + yBox) * BOX_DIVISIONS + xBox;
+		int hash = ((xInt * 73856093) ^ (yInt * 19349663) ^ (zInt * 83492791)) * 64 + box;
+		int slot = (hash * 0x9E3779B1) >>> (32 - BOX_SLOT_BITS);
+		int k = slot * 4;
+		if (!boxFilled[slot] || boxKeys[k] != xInt || boxKeys[k + 1] != yInt || boxKeys[k + 2] != zInt || boxKeys[k + 3] != box) {
+			boxKeys[k] = xInt;
+			boxKeys[k + 1] = yInt;
+			boxKeys[k + 2] = zInt;
+			boxKeys[k + 3] = box;
+			buildBox(slot, xInt, yInt, zInt, xBox, yBox, zBox);
+			boxFilled[slot] = true;
+		}
+		return slot;
+	}
+
+	private void buildBox(int slot, int xInt, int yInt, int zInt, int xBox, int yBox, int zBox) {
+		moveWindow(xInt, yInt, zInt);
+		double margin = BOX_MARGIN * (4.0 + Math.abs((double) xInt) + Math.abs((double) yInt) + Math.abs((double) zInt));
+		if (cubeListStamp != stamp) {
+			// Every seed point that can be nearest inside a box can be nearest
+			// inside its cube, so the boxes of a cube only test the seed points
+			// of the cube's list.
+			for (int index = 0; index < 125; index++) {
+				fetch(index, xInt + index % 5 - 2, yInt + index / 5 % 5 - 2, zInt + index / 25 - 2);
+				cubeCandidates[index] = index * 3;
+			}
+			cubeCandidateCount = select(cubeCandidates, 125, xInt, yInt, zInt, 1.0, margin, cubeCandidates);
+			cubeListStamp = stamp;
+		}
+
+		double size = 1.0 / BOX_DIVISIONS;
+		int[] selected = boxScratch;
+		int count = select(cubeCandidates, cubeCandidateCount, xInt + xBox * size, yInt + yBox * size, zInt + zBox * size, size, margin, selected);
+		if (count > MAX_CANDIDATES) {
+			boxCounts[slot] = -1;
+			return;
+		}
+		int c = slot * MAX_CANDIDATES;
+		for (int i = 0; i < count; i++) {
+			int w = selected[i];
+			candidates[(c + i) * 3] = window[w];
+			candidates[(c + i) * 3 + 1] = window[w + 1];
+			candidates[(c + i) * 3 + 2] = window[w + 2];
+			cellValues[c + i] = NoiseGen.valueNoise3D(MathHelper.floor(window[w]), MathHelper.floor(window[w + 1]), MathHelper.floor(window[w + 2]), seed);
+		}
+		boxCounts[slot] = count;
+	}
+
+	// Copies to dest, in order, the window offsets among the first count of
+	// source whose seed point can be the nearest one for some input value in
+	// the cube of the given size at (xLow, yLow, zLow), and returns their
+	// number.  dest may be source.
+	private int select(int[] source, int count, double xLow, double yLow, double zLow, double size, double margin, int[] dest) {
+		double xHigh = xLow + size, yHigh = yLow + size, zHigh = zLow + size;
+
+		// The smallest largest distance from the box to a seed point.
+		double limit = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			int w = source[i];
+			double xFar = Math.max(Math.abs(window[w] - xLow), Math.abs(window[w] - xHigh)) + margin;
+			double yFar = Math.max(Math.abs(window[w + 1] - yLow), Math.abs(window[w + 1] - yHigh)) + margin;
+			double zFar = Math.max(Math.abs(window[w + 2] - zLow), Math.abs(window[w + 2] - zHigh)) + margin;
+			limit = Math.min(limit, xFar * xFar + yFar * yFar + zFar * zFar);
+		}
+
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			int w = source[i];
+			double xNear = nearDistance(window[w], xLow, xHigh, margin);
+			double yNear = nearDistance(window[w + 1], yLow, yHigh, margin);
+			double zNear = nearDistance(window[w + 2], zLow, zHigh, margin);
+			if (xNear * xNear + yNear * yNear + zNear * zNear <= limit) {
+				dest[selected++] = w;
+			}
+		}
+		return selected;
+	}
+
+	// Returns the distance along one axis from a position to an interval,
+	// reduced by the margin.
+	private static double nearDistance(double position, double low, double high, double margin) {
+		double distance = Math.max(low - position, position - high) - margin;
+		return distance > 0.0 ? distance : 0.0;
+	}
+}
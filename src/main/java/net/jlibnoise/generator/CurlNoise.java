@@ -0,0 +1,218 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.generator;
+
+import static net.jlibnoise.RandomVectors.RANDOM_VECTORS;
+
+import net.jlibnoise.NoiseGen;
+import net.jlibnoise.NoiseQuality;
+import net.jlibnoise.Utils;
+
+/**
+ * Generates curl noise: a divergence-free vector field for advecting
+ * particles, smoke or foliage.
+ *
+ * The field is the curl of a vector potential whose three components are
+ * the channels of the {@link VectorPerlin} this class extends; getValue()
+ * returns the potential and getCurl() its curl.  The partial derivatives
+ * of the potential are computed analytically in the octave loop, from the
+ * same gradient lookups that produce the noise, so a curl costs about
+ * twice as much as one evaluation of the potential, where central
+ * differences would evaluate each component six times.
+ *
+ * The curl is continuous for the STANDARD and BEST noise qualities.  With
+ * FAST quality the potential is not smooth across the lattice cells, and
+ * the curl jumps at cell boundaries.
+ *
+ * Input values whose scaled coordinates exceed the range of a 32-bit
+ * integer are wrapped by Utils.makeInt32Range() as for Perlin noise; the
+ * curl there is computed as if no wrapping had occurred.
+ */
+public class CurlNoise extends VectorPerlin {
+
+    /**
+     * Generates the curl of the potential at an input value.
+     *
+     * @param x The @a x coordinate of the input value.
+     * @param y The @a y coordinate of the input value.
+     * @param z The @a z coordinate of the input value.
+     * @param dest The array that receives the @a x, @a y and @a z
+     *            components of the curl.
+     * @param destOffset The index that receives the @a x component; the
+     *            others follow it.
+     */
+	public void getCurl(double x, double y, double z, double[] dest, int destOffset) {
+		evaluateCurl(x, y, z, dest, destOffset, dest, destOffset + 1, dest, destOffset + 2);
+	}
+
+    /**
+     * Generates the curl of the potential at a batch of input values.
+     *
+     * The input value i has the coordinates ( @a x[srcOffset + i], @a
+     * y[srcOffset + i], @a z[srcOffset + i] ), and the components of its
+     * curl are written to @a destX, @a destY and @a destZ at the index
+     * destOffset + i.
+     *
+     * @param x The @a x coordinates of the input values.
+     * @param y The @a y coordinates of the input values.
+     * @param z The @a z coordinates of the input values.
+     * @param srcOffset The index of the first input value.
+     * @param destX The array that receives the @a x components.
+     * @param destY The array that receives the @a y components.
+     * @param destZ The array that receives the @a z components.
+     * @param destOffset The index of the first output value.
+     * @param count The number of input values.
+     */
+	public void getCurls(double[] x, double[] y, double[] z, int srcOffset, double[] destX, double[] destY, double[] destZ, int destOffset, int count) {
+		for (int i = 0; i < count; i++) {
+			int d = destOffset + i;
+			evaluateCurl(x[srcOffset + i], y[srcOffset + i], z[srcOffset + i], destX, d, destY, d, destZ, d);
+		}
+	}
+
+	private void evaluateCurl(double x, double y, double z, double[] destX, int indexX, double[] destY, int indexY, double[] destZ, int indexZ) {
+		destX[indexX] = 0.0;
+		destY[indexY] = 0.0;
+		destZ[indexZ] = 0.0;
+
+		double curFrequency = frequency;
+		double curPersistence = 1.0;
+
+		x *= frequency;
+		y *= frequency;
+		z *= frequency;
+
+		for (int curOctave = 0; curOctave < octaveCount; curOctave++) {
+			double nx = Utils.makeInt32Range(x);
+			double ny = Utils.makeInt32Range(y);
+			double nz = Utils.makeInt32Range(z);
+
+			int x0 = (nx > 0.0 ? (int) nx : (int) nx - 1);
+			int y0 = (ny > 0.0 ? (int) ny : (int) ny - 1);
+			int z0 = (nz > 0.0 ? (int) nz : (int) nz - 1);
+			double xv = nx - x0, yv = ny - y0, zv = nz - z0;
+
+			// The S-curve weights and their derivatives.
+			double xs, ys, zs, xd, yd, zd;
+			if (noiseQuality == NoiseQuality.FAST) {
+				xs = xv;
+				ys = yv;
+				zs = zv;
+				xd = yd = zd = 1.0;
+			} else if (noiseQuality == NoiseQuality.STANDARD) {
+				xs = Utils.sCurve3(xv);
+				ys = Utils.sCurve3(yv);
+				zs = Utils.sCurve3(zv);
+				xd = 6.0 * xv * (1.0 - xv);
+				yd = 6.0 * yv * (1.0 - yv);
+				zd = 6.0 * zv * (1.0 - zv);
+			} else {
+				xs = Utils.sCurve5(xv);
+				ys = Utils.sCurve5(yv);
+				zs = Utils.sCurve5(zv);
+				xd = 30.0 * xv * xv * (xv - 1.0) * (xv - 1.0);
+				yd = 30.0 * yv * yv * (yv - 1.0) * (yv - 1.0);
+				zd = 30.0 * zv * zv * (zv - 1.0) * (zv - 1.0);
+			}
+
+			// The octave is evaluated at the scaled input value, so its
+			// derivatives are scaled by the octave frequency.
+			double scale = curPersistence * curFrequency;
+			int hash = NoiseGen.X_NOISE_GEN * x0 + NoiseGen.Y_NOISE_GEN * y0 + NoiseGen.Z_NOISE_GEN * z0 + NoiseGen.SEED_NOISE_GEN * (seed + curOctave);
+			for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+				addCurl(hash, channel, xv, yv, zv, xs, ys, zs, xd, yd, zd, scale, destX, indexX, destY, indexY, destZ, indexZ);
+				hash += NoiseGen.SEED_NOISE_GEN;
+			}
+
+			x *= lacunarity;
+			y *= lacunarity;
+			z *= lacunarity;
+			curFrequency *= lacunarity;
+			curPersistence *= persistence;
+		}
+	}
+
+	// Adds the curl of one component of the potential, (gradient x e), to
+	// the output, where e is the unit vector of the component's axis.  The
+	// derivative of the trilinearly interpolated gradient noise along an
+	// axis is the interpolated derivative of the corner values, which is
+	// the corner gradient component, plus the derivative of the S-curve
+	// times the bilinearly interpolated difference between the corner
+	// values along that axis.
+	private static void addCurl(int hash, int channel, double xv, double yv, double zv, double xs, double ys, double zs, double xd, double yd, double zd, double scale, double[] destX, int indexX, double[] destY, int indexY, double[] destZ, int indexZ) {
+		final int dx = NoiseGen.X_NOISE_GEN, dy = NoiseGen.Y_NOISE_GEN, dz = NoiseGen.Z_NOISE_GEN;
+		int v000 = vectorIndex(hash), v100 = vectorIndex(hash + dx);
+		int v010 = vectorIndex(hash + dy), v110 = vectorIndex(hash + dx + dy);
+		int v001 = vectorIndex(hash + dz), v101 = vectorIndex(hash + dx + dz);
+		int v011 = vectorIndex(hash + dy + dz), v111 = vectorIndex(hash + dx + dy + dz);
+		double xv1 = xv - 1.0, yv1 = yv - 1.0, zv1 = zv - 1.0;
+
+		// The noise value at each corner.
+		double n000 = dot(v000, xv, yv, zv), n100 = dot(v100, xv1, yv, zv);
+		double n010 = dot(v010, xv, yv1, zv), n110 = dot(v110, xv1, yv1, zv);
+		double n001 = dot(v001, xv, yv, zv1), n101 = dot(v101, xv1, yv, zv1);
+		double n011 = dot(v011, xv, yv1, zv1), n111 = dot(v111, xv1, yv1, zv1);
+
+		double derivativeX = lerp3(v000, v100, v010, v110, v001, v101, v011, v111, 0, xs, ys, zs)
+				+ xd * lerp2(n100 - n000, n110 - n010, n101 - n001, n111 - n011, ys, zs);
+		double derivativeY = lerp3(v000, v100, v010, v110, v001, v101, v011, v111, 1, xs, ys, zs)
+				+ yd * lerp2(n010 - n000, n110 - n100, n011 - n001, n111 - n101, xs, zs);
+		double derivativeZ = lerp3(v000, v100, v010, v110, v001, v101, v011, v111, 2, xs, ys, zs)
+				+ zd * lerp2(n001 - n000, n101 - n100, n011 - n010, n111 - n110, xs, ys);
+
+		if (channel == 0) {
+			destY[indexY] += derivativeZ * scale;
+			destZ[indexZ] -= derivativeY * scale;
+		} else if (channel == 1) {
+			destX[indexX] -= derivativeZ * scale;
+			destZ[indexZ] += derivativeX * scale;
+		} else {
+			destX[indexX] += derivativeY * scale;
+			destY[indexY] -= derivativeX * scale;
+		}
+	}
+
+	// Same hash as NoiseGen.gradientNoise3D(), as an index into
+	// RANDOM_VECTORS.
+	private static int vectorIndex(int hash) {
+		return ((hash ^ (hash >> NoiseGen.SHIFT_NOISE_GEN)) & 0xff) << 2;
+	}
+
+	// The gradient noise value of a corner at a distance vector.
+	private static double dot(int vectorIndex, double xv, double yv, double zv) {
+		return ((RANDOM_VECTORS[vectorIndex] * xv) + (RANDOM_VECTORS[vectorIndex + 1] * yv) + (RANDOM_VECTORS[vectorIndex + 2] * zv)) * 2.12;
+	}
+
+	// Trilinearly interpolates one component of the corner gradients.
+	private static double lerp3(int v000, int v100, int v010, int v110, int v001, int v101, int v011, int v111, int component, double xs, double ys, double zs) {
+		double iy0 = Utils.linearInterp(Utils.linearInterp(RANDOM_VECTORS[v000 + component], RANDOM_VECTORS[v100 + component], xs),
+				Utils.linearInterp(RANDOM_VECTORS[v010 + component], RANDOM_VECTORS[v110 + component], xs), ys);
+		double iy1 = Utils.linearInterp(Utils.linearInterp(RANDOM_VECTORS[v001 + component], RANDOM_VECTORS[v101 + component], xs),
+				Utils.linearInterp(RANDOM_VECTORS[v011 + component], RANDOM_VECTORS[v111 + component], xs), ys);
+		return Utils.linearInterp(iy0, iy1, zs) * 2.12;
+	}
+
+	// Bilinearly interpolates four values; the first two differ along the
+	// first weight and the first and third along the second.
+	private static double lerp2(double n00, double n10, double n01, double n11, double s, double t) {
+		return Utils.linearInterp(Utils.linearInterp(n00, n10, s), Utils.linearInterp(n01, n11, s), t);
+	}
+}
@@ -53,7 +53,7 @@ public class Cylinders extends Module {
         x1 *= frequency;
         z1 *= frequency;
 
-        double distFromCenter = MathHelper.sqrt(x1 * x1 + z1 * z1);
+        double distFromCenter = mathPrecision.sqrt(x1 * x1 + z1 * z1);
         double distFromSmallerSphere = distFromCenter - MathHelper.floor(distFromCenter);
         double distFromLargerSphere = 1.0 - distFromSmallerSphere;
         double nearestDist = Utils.getMin(distFromSmallerSphere, distFromLargerSphere);
@@ -56,7 +56,7 @@ public class Spheres extends Module {
         y1 *= frequency;
         z1 *= frequency;
 
-        double distFromCenter = MathHelper.sqrt(x1 * x1 + y1 * y1 + z1 * z1);
+        double distFromCenter = mathPrecision.sqrt(x1 * x1 + y1 * y1 + z1 * z1);
         double distFromSmallerSphere = distFromCenter - MathHelper.floor(distFromCenter);
         double distFromLargerSphere = 1.0 - distFromSmallerSphere;
         double nearestDist = Utils.getMin(distFromSmallerSphere, distFromLargerSphere);
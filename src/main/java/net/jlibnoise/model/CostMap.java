@@ -0,0 +1,164 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.model;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.util.GridSource;
+import net.jlibnoise.util.Profiler;
+
+/**
+ * A grid of the cost of evaluating a module graph at each sample of a
+ * {@link GridSampler}, rather than of the output value.
+ * 
+ * Graph cost varies across space: a Select module evaluates both source
+ * modules within its falloff zones, and Voronoi cells cost more near their
+ * borders. Rendering a cost map, for example with {@link net.jlibnoise.util.ImageRenderer}
+ * and {@link net.jlibnoise.util.GradientColor#heat(double, double)}, shows which regions of a
+ * map are expensive. Two measures are available:
+ * 
+ * - VISITS counts the input values that the modules of the graph are
+ *   evaluated at, root included, for each sample. The count is exact and
+ *   reproducible; it treats every module as equally expensive.
+ * - NANOS times the evaluation of each sample, taking the fastest of
+ *   getRepeatCount() runs after one warm-up pass over the region. It
+ *   includes a small, constant overhead per sample.
+ * 
+ * Each sample is requested from the sampler on its own, so a cost map is
+ * far slower to compute than the map it describes, and an installed
+ * {@link net.jlibnoise.util.MetricsRecorder} sees every sample as a region. While VISITS are
+ * counted, the graph is instrumented by a {@link Profiler} and must not be
+ * evaluated by other threads. This class is not safe for concurrent use.
+ */
+public class CostMap implements GridSource {
+	/**
+	 * The cost reported for each sample.
+	 */
+	public enum Measure {
+		/// Module evaluations per sample.
+		VISITS,
+
+		/// Nanoseconds per sample.
+		NANOS
+	}
+
+	/// Default number of timed runs per sample in NANOS mode.
+	public static final int DEFAULT_REPEAT_COUNT = 3;
+
+	// The sampler whose cost is measured.
+	final GridSampler sampler;
+
+	// The cost reported for each sample.
+	Measure measure = Measure.VISITS;
+
+	// Number of timed runs per sample in NANOS mode.
+	int repeatCount = DEFAULT_REPEAT_COUNT;
+
+	// Receives the output value of a single sample.
+	private final double[] sample = new double[1];
+
+	/**
+	 * @param sampler The sampler whose cost is measured.
+	 */
+	public CostMap(GridSampler sampler) {
+		if (sampler == null)
+			throw new IllegalArgumentException("sampler cannot be null");
+		this.sampler = sampler;
+	}
+
+	public Measure getMeasure() {
+		return measure;
+	}
+
+	public void setMeasure(Measure measure) {
+		if (measure == null)
+			throw new IllegalArgumentException("measure cannot be null");
+		this.measure = measure;
+	}
+
+	public int getRepeatCount() {
+		return repeatCount;
+	}
+
+	/**
+	 * Sets the number of timed runs per sample in NANOS mode; the fastest
+	 * is reported.
+	 * 
+	 * @param repeatCount The repeat count.
+	 */
+	public void setRepeatCount(int repeatCount) {
+		if (repeatCount < 1)
+			throw new IllegalArgumentException("repeatCount must be at least 1");
+		this.repeatCount = repeatCount;
+	}
+
+	public int getWidth() {
+		return sampler.getWidth();
+	}
+
+	public int getHeight() {
+		return sampler.getHeight();
+	}
+
+	public void getValues(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride) {
+		if (measure == Measure.VISITS) {
+			countVisits(x, y, regionWidth, regionHeight, dest, offset, stride);
+		} else {
+			sampler.getValues(x, y, regionWidth, regionHeight, dest, offset, stride);
+			timeSamples(x, y, regionWidth, regionHeight, dest, offset, stride);
+		}
+	}
+
+	private void countVisits(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride) {
+		Module module = sampler.getModule();
+		Profiler profiler = new Profiler();
+		// Only the call counts are needed.
+		profiler.setSampleInterval(Integer.MAX_VALUE);
+		sampler.setModule(profiler.attach(module));
+		try {
+			long calls = 0;
+			for (int row = 0; row < regionHeight; row++) {
+				for (int col = 0; col < regionWidth; col++) {
+					sampler.getValues(x + col, y + row, 1, 1, sample, 0, 1);
+					long total = profiler.getTotalCalls();
+					dest[offset + row * stride + col] = total - calls;
+					calls = total;
+				}
+			}
+		} finally {
+			sampler.setModule(module);
+			profiler.detach();
+		}
+	}
+
+	private void timeSamples(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride) {
+		for (int row = 0; row < regionHeight; row++) {
+			for (int col = 0; col < regionWidth; col++) {
+				long fastest = Long.MAX_VALUE;
+				for (int i = 0; i < repeatCount; i++) {
+					long start = System.nanoTime();
+					sampler.getValues(x + col, y + row, 1, 1, sample, 0, 1);
+					fastest = Math.min(fastest, System.nanoTime() - start);
+				}
+				dest[offset + row * stride + col] = fastest;
+			}
+		}
+	}
+}
@@ -20,7 +20,7 @@
 
 package net.jlibnoise.model;
 
-import net.jlibnoise.MathHelper;
+import net.jlibnoise.MathPrecision;
 import net.jlibnoise.Module;
 import net.jlibnoise.Utils;
 import net.jlibnoise.exception.NoModuleException;
@@ -44,6 +44,9 @@ import net.jlibnoise.exception.NoModuleException;
 public class Cylinder {
     Module module;
 
+    // Precision policy for the trigonometry of the model.
+    MathPrecision mathPrecision = MathPrecision.getDefault();
+
     /**
      * @param module The noise module that is used to generate the output
      *            values.
@@ -77,6 +80,27 @@ public class Cylinder {
         this.module = mod;
     }
 
+    /**
+     * Returns the precision policy for the trigonometry of the model.
+     * 
+     * @return The precision policy.
+     */
+    public MathPrecision getMathPrecision() {
+        return mathPrecision;
+    }
+
+    /**
+     * Sets the precision policy for the trigonometry of the model.  The
+     * noise module keeps its own policy.
+     * 
+     * @param mathPrecision The precision policy.
+     */
+    public void setMathPrecision(MathPrecision mathPrecision) {
+        if (mathPrecision == null)
+            throw new IllegalArgumentException("mathPrecision cannot be null");
+        this.mathPrecision = mathPrecision;
+    }
+
     /**
      * Returns the output value from the noise module given the (angle, height)
      * coordinates of the specified input value located on the surface of the
@@ -94,14 +118,14 @@ public class Cylinder {
      *      is oriented along the @a y axis. Its center is located at the
      *      origin.
      */
-    double getValue(double angle, double height) {
+    public double getValue(double angle, double height) {
         if (module == null)
             throw new NoModuleException();
 
         double x, y, z;
-        x = MathHelper.cos(angle * Utils.DEG_TO_RAD);
+        x = mathPrecision.cos(angle * Utils.DEG_TO_RAD);
         y = height;
-        z = MathHelper.sin(angle * Utils.DEG_TO_RAD);
+        z = mathPrecision.sin(angle * Utils.DEG_TO_RAD);
         return module.getValue(x, y, z);
 
     }
@@ -0,0 +1,166 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.model;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.Utils;
+
+/**
+ * Samples a rectangular (angle, height) grid on the surface of a cylinder.
+ * 
+ * This is the grid counterpart of {@link Cylinder}. Every column of the
+ * grid shares one angle, so the cosine and sine of each column angle are
+ * computed once, when the bounds or the size change, instead of once per
+ * sample. The output values are identical to those returned by
+ * {@link Cylinder#getValue(double, double)} for the same coordinates.
+ * 
+ * Column @a x samples the angle <code>lowerAngle + x * (upperAngle -
+ * lowerAngle) / width</code> and row @a y samples the height
+ * <code>lowerHeight + y * (upperHeight - lowerHeight) / height</code>.
+ * 
+ * This cylinder has a radius of 1.0 unit and has infinite height. It is
+ * oriented along the @a y axis. Its center is located at the origin.
+ */
+public class CylinderSampler extends GridSampler {
+	// Lower angle boundary of the grid, in degrees.
+	double lowerAngle = -180.0;
+
+	// Upper angle boundary of the grid, in degrees.
+	double upperAngle = 180.0;
+
+	// Lower height boundary of the grid.
+	double lowerHeight = -1.0;
+
+	// Upper height boundary of the grid.
+	double upperHeight = 1.0;
+
+	// Cosine and sine of the angle of each column.
+	double[] angleCos = new double[0];
+	double[] angleSin = new double[0];
+
+	/**
+	 * @param module The noise module that is used to generate the output
+	 *            values.
+	 */
+	public CylinderSampler(Module module) {
+		super(module);
+	}
+
+	/**
+	 * Sets the coordinate boundaries of the grid.
+	 * 
+	 * @param lowerAngle The lower angle boundary, in degrees.
+	 * @param upperAngle The upper angle boundary, in degrees.
+	 * @param lowerHeight The lower height boundary.
+	 * @param upperHeight The upper height boundary.
+	 * @throws IllegalArgumentException if a lower boundary is not less than
+	 *             the corresponding upper boundary.
+	 */
+	public void setBounds(double lowerAngle, double upperAngle, double lowerHeight, double upperHeight) {
+		if (lowerAngle >= upperAngle)
+			throw new IllegalArgumentException("lowerAngle must be less than upperAngle");
+		if (lowerHeight >= upperHeight)
+			throw new IllegalArgumentException("lowerHeight must be less than upperHeight");
+		this.lowerAngle = lowerAngle;
+		this.upperAngle = upperAngle;
+		this.lowerHeight = lowerHeight;
+		this.upperHeight = upperHeight;
+		gridChanged();
+	}
+
+	public double getLowerAngle() {
+		return lowerAngle;
+	}
+
+	public double getUpperAngle() {
+		return upperAngle;
+	}
+
+	public double getLowerHeight() {
+		return lowerHeight;
+	}
+
+	public double getUpperHeight() {
+		return upperHeight;
+	}
+
+	/**
+	 * Returns the angle sampled by the given column, in degrees.
+	 * 
+	 * @param x The column.
+	 * @return The angle of the column.
+	 */
+	public double getAngle(int x) {
+		return lowerAngle + x * ((upperAngle - lowerAngle) / width);
+	}
+
+	/**
+	 * Returns the height sampled by the given row.
+	 * 
+	 * @param y The row.
+	 * @return The height of the row.
+	 */
+	public double getHeightAt(int y) {
+		return lowerHeight + y * ((upperHeight - lowerHeight) / height);
+	}
+
+	// Recomputes the per-column trigonometric tables.  The expressions match
+	// Cylinder.getValue() so that the output is identical.
+	@Override
+	protected void gridChanged() {
+		if (angleCos.length != width) {
+			angleCos = new double[width];
+			angleSin = new double[width];
+		}
+		for (int x = 0; x < width; x++) {
+			double angle = getAngle(x);
+			angleCos[x] = mathPrecision.cos(angle * Utils.DEG_TO_RAD);
+			angleSin[x] = mathPrecision.sin(angle * Utils.DEG_TO_RAD);
+		}
+	}
+
+	@Override
+	protected void sampleRegion(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride) {
+		boolean insideColumns = x >= 0 && x + regionWidth <= width;
+		for (int row = 0; row < regionHeight; row++) {
+			double h = getHeightAt(y + row);
+			int index = offset + row * stride;
+			if (insideColumns) {
+				for (int cx = x; cx < x + regionWidth; cx++) {
+					dest[index++] = module.getValue(angleCos[cx], h, angleSin[cx]);
+				}
+			} else {
+				for (int cx = x; cx < x + regionWidth; cx++) {
+					double c, s;
+					if (cx >= 0 && cx < width) {
+						c = angleCos[cx];
+						s = angleSin[cx];
+					} else {
+						double angle = getAngle(cx);
+						c = mathPrecision.cos(angle * Utils.DEG_TO_RAD);
+						s = mathPrecision.sin(angle * Utils.DEG_TO_RAD);
+					}
+					dest[index++] = module.getValue(c, h, s);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.model;
+
+import net.jlibnoise.MathPrecision;
+import net.jlibnoise.Module;
+import net.jlibnoise.exception.NoModuleException;
+import net.jlibnoise.util.FlightRecorderEvents;
+import net.jlibnoise.util.GridSource;
+import net.jlibnoise.util.Metrics;
+import net.jlibnoise.util.Parallel;
+
+/**
+ * Abstract base class for samplers that evaluate a noise module over a
+ * regular two-dimensional grid.
+ * 
+ * A grid sampler maps each (column, row) cell of a grid of
+ * <code>width * height</code> cells onto a point of a model surface, such
+ * as a plane, a cylinder or a sphere, and writes the output value of the
+ * noise module at that point into a caller-supplied array. The values are
+ * laid out in row-major order.
+ * 
+ * Cells outside the grid are also defined: they continue the grid's
+ * spacing past its edges. This lets consumers that need neighbouring
+ * values, such as lighting or slope calculations, sample a border around a
+ * region without special cases.
+ * 
+ * Large requests are split into bands of rows and evaluated concurrently;
+ * see {@link #setThreadCount(int)}. The noise module must therefore be
+ * safe for concurrent calls to getValue(), which holds for every module in
+ * this library as long as its parameters are not changed while sampling.
+ * 
+ * Subclasses implement {@link #sampleRegion}, which is always called from
+ * a single thread for a given region.
+ */
+public abstract class GridSampler implements GridSource {
+	/// Requests with fewer samples than this are evaluated on the calling
+	/// thread.
+	public static final int MIN_PARALLEL_SAMPLES = 1 << 14;
+
+	// The noise module used to generate the output values.
+	Module module;
+
+	// Number of columns in the grid.
+	int width;
+
+	// Number of rows in the grid.
+	int height;
+
+	// Maximum number of threads used by a single request.
+	int threadCount = Parallel.getDefaultThreadCount();
+
+	// Precision policy for the trigonometry of the model surface.
+	MathPrecision mathPrecision = MathPrecision.getDefault();
+
+	/**
+	 * @param module The noise module that is used to generate the output
+	 *            values.
+	 */
+	protected GridSampler(Module module) {
+		if (module == null)
+			throw new IllegalArgumentException("module cannot be null");
+		this.module = module;
+	}
+
+	/**
+	 * Returns the noise module that is used to generate the output values.
+	 * 
+	 * @return A reference to the noise module.
+	 */
+	public Module getModule() {
+		return module;
+	}
+
+	/**
+	 * Sets the noise module that is used to generate the output values.
+	 * 
+	 * @param module The noise module that is used to generate the output
+	 *            values.
+	 */
+	public void setModule(Module module) {
+		if (module == null)
+			throw new IllegalArgumentException("module cannot be null");
+		this.module = module;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Sets the number of columns and rows of the grid.
+	 * 
+	 * @param width The number of columns.
+	 * @param height The number of rows.
+	 * @throws IllegalArgumentException if either dimension is negative.
+	 */
+	public void setSize(int width, int height) {
+		if (width < 0 || height < 0)
+			throw new IllegalArgumentException("width and height must not be negative");
+		this.width = width;
+		this.height = height;
+		gridChanged();
+	}
+
+	/**
+	 * Returns the maximum number of threads used by a single request.
+	 * 
+	 * @return The thread count.
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the maximum number of threads used by a single request.
+	 * 
+	 * @param threadCount The thread count; 1 evaluates every request on the
+	 *            calling thread.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("threadCount must be at least 1");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Returns the precision policy for the trigonometry of the model
+	 * surface.
+	 * 
+	 * @return The precision policy.
+	 */
+	public MathPrecision getMathPrecision() {
+		return mathPrecision;
+	}
+
+	/**
+	 * Sets the precision policy for the trigonometry of the model surface.
+	 * The noise module keeps its own policy.
+	 * 
+	 * @param mathPrecision The precision policy.
+	 */
+	public void setMathPrecision(MathPrecision mathPrecision) {
+		if (mathPrecision == null)
+			throw new IllegalArgumentException("mathPrecision cannot be null");
+		this.mathPrecision = mathPrecision;
+		gridChanged();
+	}
+
+	/**
+	 * Fills the destination array with the whole grid.
+	 * 
+	 * @param dest The destination array; it must hold at least
+	 *            <code>width * height</code> values.
+	 */
+	public void getValues(double[] dest) {
+		getValues(0, 0, width, height, dest, 0, width);
+	}
+
+	/**
+	 * Fills the destination array with a band of consecutive rows of the
+	 * grid.
+	 * 
+	 * @param startRow The first row to sample.
+	 * @param rowCount The number of rows to sample.
+	 * @param dest The destination array.
+	 * @param offset The index in the destination array that receives the
+	 *            first value of the first row.
+	 * @throws IllegalArgumentException if the rows are outside the grid or
+	 *             the destination array is too small.
+	 */
+	public void getValues(int startRow, int rowCount, double[] dest, int offset) {
+		if (startRow < 0 || rowCount < 0 || startRow + rowCount > height)
+			throw new IllegalArgumentException("rows must lie within the grid");
+		getValues(0, startRow, width, rowCount, dest, offset, width);
+	}
+
+	/**
+	 * Fills the destination array with a rectangular region of the grid.
+	 * The region may extend past the edges of the grid.
+	 * 
+	 * @param x The first column of the region.
+	 * @param y The first row of the region.
+	 * @param regionWidth The number of columns in the region.
+	 * @param regionHeight The number of rows in the region.
+	 * @param dest The destination array.
+	 * @param offset The index in the destination array that receives the
+	 *            first value of the first row.
+	 * @param stride The distance in the destination array between the
+	 *            starts of two consecutive rows.
+	 * @throws IllegalArgumentException if the destination array is too
+	 *             small.
+	 */
+	public void getValues(final int x, int y, final int regionWidth, int regionHeight, final double[] dest, final int offset, final int stride) {
+		if (module == null)
+			throw new NoModuleException();
+		if (regionWidth < 0 || regionHeight < 0 || stride < regionWidth)
+			throw new IllegalArgumentException("invalid region");
+		if (regionWidth == 0 || regionHeight == 0)
+			return;
+		if (offset < 0 || offset + (long) (regionHeight - 1) * stride + regionWidth > dest.length)
+			throw new IllegalArgumentException("dest is too small");
+
+		Object tile = FlightRecorderEvents.beginTile(module);
+		Object region = Metrics.beginRegion(module);
+		int minRows = Math.max(1, MIN_PARALLEL_SAMPLES / regionWidth);
+		int bands = Math.max(1, Math.min(threadCount, regionHeight / minRows));
+		if (threadCount == 1 || regionHeight < 2 * minRows) {
+			bands = 1;
+			sampleRegion(x, y, regionWidth, regionHeight, dest, offset, stride);
+		} else {
+			final int firstRow = y;
+			Parallel.forBands(y, y + regionHeight, minRows, threadCount, new Parallel.BandTask() {
+				public void run(int start, int end) {
+					sampleRegion(x, start, regionWidth, end - start, dest, offset + (start - firstRow) * stride, stride);
+				}
+			});
+		}
+		FlightRecorderEvents.endTile(tile, this, x, y, regionWidth, regionHeight, bands);
+		Metrics.endRegion(region, this, (long) regionWidth * regionHeight, bands);
+	}
+
+	/**
+	 * Called when the size of the grid changes, so that subclasses can
+	 * rebuild any per-row or per-column tables.
+	 */
+	protected void gridChanged() {
+	}
+
+	/**
+	 * Evaluates the noise module over a rectangular region of the grid. The
+	 * region may extend past the edges of the grid.
+	 * 
+	 * @param x The first column of the region.
+	 * @param y The first row of the region.
+	 * @param regionWidth The number of columns in the region.
+	 * @param regionHeight The number of rows in the region.
+	 * @param dest The destination array.
+	 * @param offset The index in the destination array that receives the
+	 *            first value of the first row.
+	 * @param stride The distance in the destination array between the
+	 *            starts of two consecutive rows.
+	 */
+	protected abstract void sampleRegion(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride);
+}
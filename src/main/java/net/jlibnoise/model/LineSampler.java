@@ -0,0 +1,128 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.model;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.exception.NoModuleException;
+import net.jlibnoise.util.Parallel;
+
+/**
+ * A {@link Line} that can evaluate many evenly spaced points along the line
+ * segment in one call.
+ * 
+ * The per-axis extents of the line segment are computed once per call
+ * instead of once per point, and large requests are split into bands that
+ * are evaluated concurrently; see {@link #setThreadCount(int)}. The output
+ * values are identical to those returned by {@link #getValue(double)} for
+ * the same positions, including attenuation.
+ */
+public class LineSampler extends Line {
+	// Maximum number of threads used by a single request.
+	int threadCount = Parallel.getDefaultThreadCount();
+
+	/**
+	 * @param module The noise module that is used to generate the output
+	 *            values.
+	 */
+	public LineSampler(Module module) {
+		super(module);
+	}
+
+	/**
+	 * Returns the maximum number of threads used by a single request.
+	 * 
+	 * @return The thread count.
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the maximum number of threads used by a single request.
+	 * 
+	 * @param threadCount The thread count; 1 evaluates every request on the
+	 *            calling thread.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("threadCount must be at least 1");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Evaluates @a count evenly spaced points from the start to the end of
+	 * the line segment, both inclusive.
+	 * 
+	 * @param dest The destination array.
+	 * @param offset The index in the destination array that receives the
+	 *            first value.
+	 * @param count The number of points.
+	 */
+	public void getValues(double[] dest, int offset, int count) {
+		getValues(0.0, 1.0, count, dest, offset);
+	}
+
+	/**
+	 * Evaluates @a count evenly spaced points between two distances along
+	 * the line segment, both inclusive.
+	 * 
+	 * @param startP The distance of the first point (0.0 is the start of the
+	 *            line segment, 1.0 is its end).
+	 * @param endP The distance of the last point.
+	 * @param count The number of points.
+	 * @param dest The destination array.
+	 * @param offset The index in the destination array that receives the
+	 *            first value.
+	 * @throws IllegalArgumentException if the destination array is too
+	 *             small.
+	 */
+	public void getValues(final double startP, double endP, int count, final double[] dest, final int offset) {
+		if (module == null)
+			throw new NoModuleException();
+		if (count < 0 || offset < 0 || offset + count > dest.length)
+			throw new IllegalArgumentException("dest is too small");
+		if (count == 0)
+			return;
+
+		final double step = count > 1 ? (endP - startP) / (count - 1) : 0.0;
+		if (threadCount == 1 || count < 2 * GridSampler.MIN_PARALLEL_SAMPLES) {
+			sampleRange(startP, step, 0, count, dest, offset);
+			return;
+		}
+		Parallel.forBands(0, count, GridSampler.MIN_PARALLEL_SAMPLES, threadCount, new Parallel.BandTask() {
+			public void run(int start, int end) {
+				sampleRange(startP, step, start, end, dest, offset);
+			}
+		});
+	}
+
+	// Evaluates the points with indices [start, end).
+	void sampleRange(double startP, double step, int start, int end, double[] dest, int offset) {
+		double dx = x1 - x0;
+		double dy = y1 - y0;
+		double dz = z1 - z0;
+		for (int i = start; i < end; i++) {
+			double p = startP + i * step;
+			double value = module.getValue(dx * p + x0, dy * p + y0, dz * p + z0);
+			dest[offset + i] = attenuate ? p * (1.0 - p) * 4 * value : value;
+		}
+	}
+}
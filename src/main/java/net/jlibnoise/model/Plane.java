@@ -92,7 +92,7 @@ public class Plane {
 	 *      This output value is generated by the noise module passed to the
 	 *      SetModule() method.
 	 */
-	double getValue(double x, double z) {
+	public double getValue(double x, double z) {
 		if (module == null)
 			throw new NoModuleException();
 		return module.getValue(x, 0, z);
@@ -0,0 +1,131 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.model;
+
+import net.jlibnoise.Module;
+
+/**
+ * Samples a rectangular grid on the surface of an ( @a x, @a z ) plane.
+ * 
+ * This is the grid counterpart of {@link Plane}. Column @a c samples the
+ * @a x coordinate <code>lowerX + c * (upperX - lowerX) / width</code> and
+ * row @a r samples the @a z coordinate <code>lowerZ + r * (upperZ - lowerZ)
+ * / height</code>, the same spacing libnoise's planar noise map builder
+ * uses. The output values are identical to those returned by
+ * {@link Plane#getValue(double, double)} for the same coordinates.
+ */
+public class PlaneSampler extends GridSampler {
+	// Lower x boundary of the grid.
+	double lowerX = -1.0;
+
+	// Upper x boundary of the grid.
+	double upperX = 1.0;
+
+	// Lower z boundary of the grid.
+	double lowerZ = -1.0;
+
+	// Upper z boundary of the grid.
+	double upperZ = 1.0;
+
+	/**
+	 * @param module The noise module that is used to generate the output
+	 *            values.
+	 */
+	public PlaneSampler(Module module) {
+		super(module);
+	}
+
+	/**
+	 * Sets the coordinate boundaries of the grid.
+	 * 
+	 * @param lowerX The lower @a x boundary.
+	 * @param upperX The upper @a x boundary.
+	 * @param lowerZ The lower @a z boundary.
+	 * @param upperZ The upper @a z boundary.
+	 * @throws IllegalArgumentException if a lower boundary is not less than
+	 *             the corresponding upper boundary.
+	 */
+	public void setBounds(double lowerX, double upperX, double lowerZ, double upperZ) {
+		if (lowerX >= upperX)
+			throw new IllegalArgumentException("lowerX must be less than upperX");
+		if (lowerZ >= upperZ)
+			throw new IllegalArgumentException("lowerZ must be less than upperZ");
+		this.lowerX = lowerX;
+		this.upperX = upperX;
+		this.lowerZ = lowerZ;
+		this.upperZ = upperZ;
+	}
+
+	public double getLowerX() {
+		return lowerX;
+	}
+
+	public double getUpperX() {
+		return upperX;
+	}
+
+	public double getLowerZ() {
+		return lowerZ;
+	}
+
+	public double getUpperZ() {
+		return upperZ;
+	}
+
+	/**
+	 * Returns the @a x coordinate sampled by the given column.
+	 * 
+	 * @param column The column.
+	 * @return The @a x coordinate.
+	 */
+	public double getX(int column) {
+		return lowerX + column * ((upperX - lowerX) / width);
+	}
+
+	/**
+	 * Returns the @a z coordinate sampled by the given row.
+	 * 
+	 * @param row The row.
+	 * @return The @a z coordinate.
+	 */
+	public double getZ(int row) {
+		return lowerZ + row * ((upperZ - lowerZ) / height);
+	}
+
+	@Override
+	protected void sampleRegion(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride) {
+		// Each row is passed to the module as one batch, so that modules such
+		// as Voronoi can share work between neighbouring samples.
+		double[] xs = new double[regionWidth];
+		double[] ys = new double[regionWidth];
+		double[] zs = new double[regionWidth];
+		for (int i = 0; i < regionWidth; i++) {
+			xs[i] = getX(x + i);
+		}
+		for (int row = 0; row < regionHeight; row++) {
+			double z = getZ(y + row);
+			for (int i = 0; i < regionWidth; i++) {
+				zs[i] = z;
+			}
+			module.getValues(xs, ys, zs, 0, dest, offset + row * stride, regionWidth);
+		}
+	}
+}
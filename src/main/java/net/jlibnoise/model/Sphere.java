@@ -20,8 +20,8 @@
 
 package net.jlibnoise.model;
 
+import net.jlibnoise.MathPrecision;
 import net.jlibnoise.Module;
-import net.jlibnoise.Utils;
 import net.jlibnoise.exception.NoModuleException;
 
 /**
@@ -40,10 +40,17 @@ import net.jlibnoise.exception.NoModuleException;
  * 
  *        This sphere has a radius of 1.0 unit and its center is located at the
  *        origin.
+ *
+ *        To sample a whole (latitude, longitude) grid, use
+ *        {@link SphereSampler}, which shares the trigonometry between the
+ *        samples of each row and column.
  */
 public class Sphere {
 	Module module;
 
+	// Precision policy for the trigonometry of the model.
+	MathPrecision mathPrecision = MathPrecision.getDefault();
+
 	/**
 	 * Constructor
 	 * 
@@ -81,6 +88,27 @@ public class Sphere {
 		this.module = module;
 	}
 
+	/**
+	 * Returns the precision policy for the trigonometry of the model.
+	 * 
+	 * @return The precision policy.
+	 */
+	public MathPrecision getMathPrecision() {
+		return mathPrecision;
+	}
+
+	/**
+	 * Sets the precision policy for the trigonometry of the model.  The
+	 * noise module keeps its own policy.
+	 * 
+	 * @param mathPrecision The precision policy.
+	 */
+	public void setMathPrecision(MathPrecision mathPrecision) {
+		if (mathPrecision == null)
+			throw new IllegalArgumentException("mathPrecision cannot be null");
+		this.mathPrecision = mathPrecision;
+	}
+
 	/**
 	 * Returns the output value from the noise module given the (latitude,
 	 * longitude) coordinates of the specified input value located on the
@@ -103,7 +131,12 @@ public class Sphere {
 	public double getValue(double lat, double log) {
 		if (module == null)
 			throw new NoModuleException();
-		double[] vec = Utils.latLonToXYZ(lat, log);
-		return module.getValue(vec[0], vec[1], vec[2]);
+		// Same conversion as Utils.latLonToXYZ(), without allocating the
+		// result array for every sample.
+		double r = mathPrecision.cos(Math.toRadians(lat));
+		double x = r * mathPrecision.cos(Math.toRadians(log));
+		double y = mathPrecision.sin(Math.toRadians(lat));
+		double z = r * mathPrecision.sin(Math.toRadians(log));
+		return module.getValue(x, y, z);
 	}
 }
@@ -0,0 +1,197 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.model;
+
+import net.jlibnoise.Module;
+
+/**
+ * Samples a rectangular (latitude, longitude) grid on the surface of a
+ * sphere.
+ * 
+ * This is the grid counterpart of {@link Sphere}. Sampling a planet map one
+ * point at a time repeats the same trigonometry for every sample: each row
+ * shares one latitude and each column shares one longitude. This sampler
+ * computes the cosine and sine of every row latitude and every column
+ * longitude once, when the bounds or the size change, so evaluating the
+ * grid costs two multiplications per sample on top of the noise module
+ * itself and performs no allocation.
+ * 
+ * The output values are identical to those returned by
+ * {@link Sphere#getValue(double, double)} for the same coordinates.
+ * 
+ * Row @a y samples the latitude <code>south + y * (north - south) /
+ * height</code> and column @a x samples the longitude <code>west + x *
+ * (east - west) / width</code>, the same spacing libnoise's spherical noise
+ * map builder uses. Values are written in row-major order, southernmost row
+ * first.
+ */
+public class SphereSampler extends GridSampler {
+	// Southern boundary of the grid, in degrees.
+	double southLat = -90.0;
+
+	// Northern boundary of the grid, in degrees.
+	double northLat = 90.0;
+
+	// Western boundary of the grid, in degrees.
+	double westLon = -180.0;
+
+	// Eastern boundary of the grid, in degrees.
+	double eastLon = 180.0;
+
+	// Cosine and sine of the latitude of each row.
+	double[] latCos = new double[0];
+	double[] latSin = new double[0];
+
+	// Cosine and sine of the longitude of each column.
+	double[] lonCos = new double[0];
+	double[] lonSin = new double[0];
+
+	/**
+	 * @param module The noise module that is used to generate the output
+	 *            values.
+	 */
+	public SphereSampler(Module module) {
+		super(module);
+	}
+
+	/**
+	 * Sets the coordinate boundaries of the grid.
+	 * 
+	 * @param southLat The southern boundary, in degrees.
+	 * @param northLat The northern boundary, in degrees.
+	 * @param westLon The western boundary, in degrees.
+	 * @param eastLon The eastern boundary, in degrees.
+	 * @throws IllegalArgumentException if the southern boundary is not less
+	 *             than the northern boundary, or the western boundary is not
+	 *             less than the eastern boundary.
+	 */
+	public void setBounds(double southLat, double northLat, double westLon, double eastLon) {
+		if (southLat >= northLat)
+			throw new IllegalArgumentException("southLat must be less than northLat");
+		if (westLon >= eastLon)
+			throw new IllegalArgumentException("westLon must be less than eastLon");
+		this.southLat = southLat;
+		this.northLat = northLat;
+		this.westLon = westLon;
+		this.eastLon = eastLon;
+		gridChanged();
+	}
+
+	public double getSouthLat() {
+		return southLat;
+	}
+
+	public double getNorthLat() {
+		return northLat;
+	}
+
+	public double getWestLon() {
+		return westLon;
+	}
+
+	public double getEastLon() {
+		return eastLon;
+	}
+
+	/**
+	 * Returns the latitude sampled by the given row, in degrees.
+	 * 
+	 * @param y The row.
+	 * @return The latitude of the row.
+	 */
+	public double getLatitude(int y) {
+		return southLat + y * ((northLat - southLat) / height);
+	}
+
+	/**
+	 * Returns the longitude sampled by the given column, in degrees.
+	 * 
+	 * @param x The column.
+	 * @return The longitude of the column.
+	 */
+	public double getLongitude(int x) {
+		return westLon + x * ((eastLon - westLon) / width);
+	}
+
+	// Recomputes the per-row and per-column trigonometric tables.  The
+	// expressions match Utils.latLonToXYZ() so that the output is identical
+	// to Sphere.getValue().
+	@Override
+	protected void gridChanged() {
+		if (latCos.length != height) {
+			latCos = new double[height];
+			latSin = new double[height];
+		}
+		if (lonCos.length != width) {
+			lonCos = new double[width];
+			lonSin = new double[width];
+		}
+		for (int y = 0; y < height; y++) {
+			double lat = Math.toRadians(getLatitude(y));
+			latCos[y] = mathPrecision.cos(lat);
+			latSin[y] = mathPrecision.sin(lat);
+		}
+		for (int x = 0; x < width; x++) {
+			double lon = Math.toRadians(getLongitude(x));
+			lonCos[x] = mathPrecision.cos(lon);
+			lonSin[x] = mathPrecision.sin(lon);
+		}
+	}
+
+	@Override
+	protected void sampleRegion(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride) {
+		boolean insideColumns = x >= 0 && x + regionWidth <= width;
+		for (int row = 0; row < regionHeight; row++) {
+			int cy = y + row;
+			double r, ny;
+			if (cy >= 0 && cy < height) {
+				r = latCos[cy];
+				ny = latSin[cy];
+			} else {
+				double lat = Math.toRadians(getLatitude(cy));
+				r = mathPrecision.cos(lat);
+				ny = mathPrecision.sin(lat);
+			}
+
+			int index = offset + row * stride;
+			if (insideColumns) {
+				for (int cx = x; cx < x + regionWidth; cx++) {
+					dest[index++] = module.getValue(r * lonCos[cx], ny, r * lonSin[cx]);
+				}
+			} else {
+				// The region extends past the east or west edge; compute the
+				// columns outside the tables on the fly.
+				for (int cx = x; cx < x + regionWidth; cx++) {
+					double c, s;
+					if (cx >= 0 && cx < width) {
+						c = lonCos[cx];
+						s = lonSin[cx];
+					} else {
+						double lon = Math.toRadians(getLongitude(cx));
+						c = mathPrecision.cos(lon);
+						s = mathPrecision.sin(lon);
+					}
+					dest[index++] = module.getValue(r * c, ny, r * s);
+				}
+			}
+		}
+	}
+}
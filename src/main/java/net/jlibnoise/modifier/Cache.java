@@ -20,6 +20,11 @@
 
 package net.jlibnoise.modifier;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 import net.jlibnoise.Module;
 import net.jlibnoise.exception.NoModuleException;
 
@@ -46,29 +51,130 @@ import net.jlibnoise.exception.NoModuleException;
  * module will redundantly calculate the same output value once for each
  * noise module in which it is included.
  *
+ * The cache is kept per thread: each thread that evaluates this noise
+ * module remembers its own last input value, so a graph containing a
+ * cache can be sampled from several threads at once.
+ *
  * This noise module requires one source module.
  */
 public class Cache extends Module {
-	// The cached output value at the cached input value.
-	double cachedValue;
+	// The cached input and output values of one thread.
+	static final class Entry {
+		// The cached output value at the cached input value.
+		double cachedValue;
+
+		// The generation of the source module that produced the cached
+		// value.  The entry is stale if it differs from the module's current
+		// generation.
+		int generation = -1;
+
+		// x coordinate of the cached input value.
+		double xCache;
+
+		// y coordinate of the cached input value.
+		double yCache;
+
+		// z coordinate of the cached input value.
+		double zCache;
+
+		// Number of calls answered from the cache.
+		long hits;
+
+		// Number of calls passed on to the source module.
+		long misses;
+
+		// The thread that owns the entry.  It is weakly referenced, so that
+		// the registry of entries does not keep dead threads alive.
+		final WeakReference<Thread> thread = new WeakReference<Thread>(Thread.currentThread());
+
+		boolean isDead() {
+			Thread owner = thread.get();
+			return owner == null || !owner.isAlive();
+		}
+	}
 
-	// Determines if a cached output value is stored in this noise
-	// module.
-	boolean isCached = false;
+	// Each thread caches its own input value, so that a graph containing
+	// this module can be sampled from several threads at once.
+	final ThreadLocal<Entry> entries = new ThreadLocal<Entry>() {
+		@Override
+		protected Entry initialValue() {
+			Entry entry = new Entry();
+			synchronized (liveEntries) {
+				pruneDeadEntries();
+				liveEntries.add(entry);
+			}
+			return entry;
+		}
+	};
 
-	// x coordinate of the cached input value.
-	double xCache;
+	// The entries of the threads that may still be using this module, for
+	// the hit and miss counts.  Entries of dead threads are removed when a
+	// thread registers or the counts are read, so the list stays as long as
+	// the number of live threads that have used the module.
+	final List<Entry> liveEntries = new ArrayList<Entry>();
 
-	// y coordinate of the cached input value.
-	double yCache;
+	// Hit and miss counts of the removed entries.
+	long deadHits;
+	long deadMisses;
 
-	// z coordinate of the cached input value.
-	double zCache;
+	// Incremented whenever the source module changes, which invalidates the
+	// cached values of every thread.
+	volatile int generation = 0;
 
 	public Cache() {
 		super(1);
 	}
 
+	/**
+	 * Returns the number of calls to getValue(), from all threads, that
+	 * were answered from the cache.  The count is updated without
+	 * synchronization and may lag behind calls on other threads.
+	 * 
+	 * @return The hit count.
+	 */
+	public long getHitCount() {
+		synchronized (liveEntries) {
+			pruneDeadEntries();
+			long hits = deadHits;
+			for (Entry entry : liveEntries) {
+				hits += entry.hits;
+			}
+			return hits;
+		}
+	}
+
+	/**
+	 * Returns the number of calls to getValue(), from all threads, that
+	 * were passed on to the source module.  The count is updated without
+	 * synchronization and may lag behind calls on other threads.
+	 * 
+	 * @return The miss count.
+	 */
+	public long getMissCount() {
+		synchronized (liveEntries) {
+			pruneDeadEntries();
+			long misses = deadMisses;
+			for (Entry entry : liveEntries) {
+				misses += entry.misses;
+			}
+			return misses;
+		}
+	}
+
+	// Adds the counts of the entries of dead threads to the totals and
+	// removes the entries.  A dead thread's counts no longer change.  The
+	// caller holds the lock on liveEntries.
+	private void pruneDeadEntries() {
+		for (Iterator<Entry> i = liveEntries.iterator(); i.hasNext();) {
+			Entry entry = i.next();
+			if (entry.isDead()) {
+				deadHits += entry.hits;
+				deadMisses += entry.misses;
+				i.remove();
+			}
+		}
+	}
+
 	@Override
 	public int getSourceModuleCount() {
 		return 1;
@@ -77,7 +183,7 @@ public class Cache extends Module {
 	@Override
 	public void setSourceModule(int index, Module sourceModule) {
 		super.setSourceModule(index, sourceModule);
-		isCached = false;
+		generation++;
 	}
 
 	@Override
@@ -85,14 +191,19 @@ public class Cache extends Module {
 		if (sourceModule[0] == null)
 			throw new NoModuleException();
 
-		if (!(isCached && x == xCache && y == yCache && z == zCache)) {
-			cachedValue = sourceModule[0].getValue(x, y, z);
-			xCache = x;
-			yCache = y;
-			zCache = z;
+		Entry entry = entries.get();
+		int current = generation;
+		if (!(entry.generation == current && x == entry.xCache && y == entry.yCache && z == entry.zCache)) {
+			entry.cachedValue = sourceModule[0].getValue(x, y, z);
+			entry.xCache = x;
+			entry.yCache = y;
+			entry.zCache = z;
+			entry.generation = current;
+			entry.misses++;
+		} else {
+			entry.hits++;
 		}
-		isCached = true;
-		return cachedValue;
+		return entry.cachedValue;
 	}
 
 }
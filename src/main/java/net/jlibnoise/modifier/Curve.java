@@ -20,8 +20,6 @@
 
 package net.jlibnoise.modifier;
 
-import java.util.ArrayList;
-
 import net.jlibnoise.Module;
 import net.jlibnoise.Utils;
 import net.jlibnoise.exception.NoModuleException;
@@ -33,7 +31,25 @@ public class Curve extends Module {
 		public double outputValue;
 	}
 
-	ArrayList<ControlPoint> controlPoints = new ArrayList<ControlPoint>();
+	/// Input values of the control points, sorted in ascending order.
+	double[] inputValues = new double[0];
+
+	/// Output values of the control points, in the same order as the input
+	/// values.
+	double[] outputValues = new double[0];
+
+	/// Number of control points stored in this noise module.
+	int controlPointCount = 0;
+
+	/// Cubic coefficients of each interval between two adjacent control
+	/// points, four per interval.  The curve within interval i evaluates to
+	/// ((p * a + q) * a + r) * a + s, where a = (value - inputValues[i]) *
+	/// inverseWidths[i].
+	double[] coefficients = new double[0];
+
+	/// Reciprocal of the width of each interval between two adjacent control
+	/// points.
+	double[] inverseWidths = new double[0];
 
 	public Curve() {
 		super(1);
@@ -45,36 +61,108 @@ public class Curve extends Module {
 		InsertAtPos(index, inputValue, outputValue);
 	}
 
+	/**
+	 * Returns a copy of the control points.  Use getControlPointCount(),
+	 * getInputValue() and getOutputValue() to read them without allocating.
+	 * 
+	 * @return The control points, sorted by input value.
+	 */
 	public ControlPoint[] getControlPoints() {
-		return (ControlPoint[]) controlPoints.toArray();
+		ControlPoint[] points = new ControlPoint[controlPointCount];
+		for (int i = 0; i < controlPointCount; i++) {
+			points[i] = new ControlPoint();
+			points[i].inputValue = inputValues[i];
+			points[i].outputValue = outputValues[i];
+		}
+		return points;
+	}
+
+	public int getControlPointCount() {
+		return controlPointCount;
+	}
+
+	/**
+	 * @param index The index of a control point, sorted by input value.
+	 * @return The input value of the control point.
+	 */
+	public double getInputValue(int index) {
+		if (index < 0 || index >= controlPointCount)
+			throw new IndexOutOfBoundsException("index must be between 0 and getControlPointCount()");
+		return inputValues[index];
+	}
+
+	/**
+	 * @param index The index of a control point, sorted by input value.
+	 * @return The output value of the control point.
+	 */
+	public double getOutputValue(int index) {
+		if (index < 0 || index >= controlPointCount)
+			throw new IndexOutOfBoundsException("index must be between 0 and getControlPointCount()");
+		return outputValues[index];
 	}
 
 	public void ClearAllControlPoints() {
-		controlPoints.clear();
+		inputValues = new double[0];
+		outputValues = new double[0];
+		coefficients = new double[0];
+		inverseWidths = new double[0];
+		controlPointCount = 0;
 	}
 
 	protected int findInsertionPos(double inputValue) {
-		int insertionPos;
-		for (insertionPos = 0; insertionPos < controlPoints.size(); insertionPos++) {
-			if (inputValue < controlPoints.get(insertionPos).inputValue) {
-				// We found the array index in which to insert the new control point.
-				// Exit now.
-				break;
-			} else if (inputValue == controlPoints.get(insertionPos).inputValue) {
-				// Each control point is required to contain a unique input value, so
-				// throw an exception.
-				throw new IllegalArgumentException("inputValue must be unique");
-			}
+		int insertionPos = Terrace.upperBound(inputValues, controlPointCount, inputValue);
+		if (insertionPos > 0 && inputValues[insertionPos - 1] == inputValue) {
+			// Each control point is required to contain a unique input value, so
+			// throw an exception.
+			throw new IllegalArgumentException("inputValue must be unique");
 		}
 		return insertionPos;
 
 	}
 
 	protected void InsertAtPos(int insertionPos, double inputValue, double outputValue) {
-		ControlPoint newPoint = new ControlPoint();
-		newPoint.inputValue = inputValue;
-		newPoint.outputValue = outputValue;
-		controlPoints.add(insertionPos, newPoint);
+		// Make room for the new control point at the specified position within
+		// the control point arrays.
+		double[] newInputValues = new double[controlPointCount + 1];
+		double[] newOutputValues = new double[controlPointCount + 1];
+		System.arraycopy(inputValues, 0, newInputValues, 0, insertionPos);
+		System.arraycopy(outputValues, 0, newOutputValues, 0, insertionPos);
+		System.arraycopy(inputValues, insertionPos, newInputValues, insertionPos + 1, controlPointCount - insertionPos);
+		System.arraycopy(outputValues, insertionPos, newOutputValues, insertionPos + 1, controlPointCount - insertionPos);
+		newInputValues[insertionPos] = inputValue;
+		newOutputValues[insertionPos] = outputValue;
+		inputValues = newInputValues;
+		outputValues = newOutputValues;
+		controlPointCount++;
+
+		buildSegments();
+	}
+
+	/**
+	 * Precomputes the cubic coefficients of every interval between two
+	 * adjacent control points, so that getValue() only has to locate the
+	 * interval and evaluate a polynomial.
+	 */
+	private void buildSegments() {
+		int segmentCount = Utils.getMax(controlPointCount - 1, 0);
+		coefficients = new double[segmentCount * 4];
+		inverseWidths = new double[segmentCount];
+		int last = controlPointCount - 1;
+		for (int i = 0; i < segmentCount; i++) {
+			// The four nearest control points of the interval, clamped at the
+			// ends of the curve.
+			double n0 = outputValues[Utils.clampValue(i - 1, 0, last)];
+			double n1 = outputValues[i];
+			double n2 = outputValues[i + 1];
+			double n3 = outputValues[Utils.clampValue(i + 2, 0, last)];
+
+			double p = (n3 - n2) - (n0 - n1);
+			coefficients[i * 4] = p;
+			coefficients[i * 4 + 1] = (n0 - n1) - p;
+			coefficients[i * 4 + 2] = n2 - n0;
+			coefficients[i * 4 + 3] = n1;
+			inverseWidths[i] = 1.0 / (inputValues[i + 1] - inputValues[i]);
+		}
 	}
 
 	@Override
@@ -86,43 +174,32 @@ public class Curve extends Module {
 	public double getValue(double x, double y, double z) {
 		if (sourceModule[0] == null)
 			throw new NoModuleException();
-		if (controlPoints.size() >= 4)
-			throw new RuntimeException("must have 4 or less control points");
+		if (controlPointCount < 4)
+			throw new IllegalStateException("must have 4 or more control points");
 
 		// Get the output value from the source module.
 		double sourceModuleValue = sourceModule[0].getValue(x, y, z);
 
 		// Find the first element in the control point array that has an input value
 		// larger than the output value from the source module.
-		int indexPos;
-		for (indexPos = 0; indexPos < controlPoints.size(); indexPos++) {
-			if (sourceModuleValue < controlPoints.get(indexPos).inputValue) {
-				break;
-			}
-		}
-
-		// Find the four nearest control points so that we can perform cubic
-		// interpolation.
-		int index0 = Utils.clampValue(indexPos - 2, 0, controlPoints.size() - 1);
-		int index1 = Utils.clampValue(indexPos - 1, 0, controlPoints.size() - 1);
-		int index2 = Utils.clampValue(indexPos, 0, controlPoints.size() - 1);
-		int index3 = Utils.clampValue(indexPos + 1, 0, controlPoints.size() - 1);
-
-		// If some control points are missing (which occurs if the value from the
-		// source module is greater than the largest input value or less than the
-		// smallest input value of the control point array), get the corresponding
-		// output value of the nearest control point and exit now.
-		if (index1 == index2) {
-			return controlPoints.get(indexPos).outputValue;
+		int indexPos = Terrace.upperBound(inputValues, controlPointCount, sourceModuleValue);
+
+		// If the value from the source module is greater than the largest input
+		// value or less than the smallest input value of the control point array,
+		// get the corresponding output value of the nearest control point and
+		// exit now.
+		if (indexPos == 0) {
+			return outputValues[0];
+		} else if (indexPos == controlPointCount) {
+			return outputValues[controlPointCount - 1];
 		}
 
-		// Compute the alpha value used for cubic interpolation.
-		double input0 = controlPoints.get(indexPos).inputValue;
-		double input1 = controlPoints.get(indexPos).inputValue;
-		double alpha = (sourceModuleValue - input0) / (input1 - input0);
-
-		// Now perform the cubic interpolation given the alpha value.
-		return Utils.cubicInterp(controlPoints.get(index0).outputValue, controlPoints.get(index1).outputValue, controlPoints.get(index2).outputValue, controlPoints.get(index3).outputValue, alpha);
+		// Compute the alpha value used for cubic interpolation and evaluate the
+		// precomputed polynomial of the interval.
+		int segment = indexPos - 1;
+		double alpha = (sourceModuleValue - inputValues[segment]) * inverseWidths[segment];
+		int c = segment * 4;
+		return ((coefficients[c] * alpha + coefficients[c + 1]) * alpha + coefficients[c + 2]) * alpha + coefficients[c + 3];
 
 	}
 
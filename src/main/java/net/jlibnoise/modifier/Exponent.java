@@ -49,7 +49,7 @@ public class Exponent extends Module {
 		if (sourceModule[0] == null)
 			throw new NoModuleException();
 		double value = sourceModule[0].getValue(x, y, z);
-		return (Math.pow(Math.abs((value + 1.0) / 2.0), exponent) * 2.0 - 1.0);
+		return (mathPrecision.pow(Math.abs((value + 1.0) / 2.0), exponent) * 2.0 - 1.0);
 	}
 
 }
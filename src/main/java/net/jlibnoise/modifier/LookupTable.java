@@ -0,0 +1,344 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.modifier;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.exception.NoModuleException;
+import net.jlibnoise.generator.Constant;
+import net.jlibnoise.util.FlightRecorderEvents;
+
+/**
+ * Noise module that maps the output value from the source module through a
+ * precomputed table.
+ *
+ * The table samples a single-input transfer function at evenly spaced
+ * points over an input range.  getValue() then linearly interpolates
+ * between the two nearest entries, so the cost per sample does not depend
+ * on how expensive the transfer function is.  Source values outside the
+ * input range are clamped to the range.
+ *
+ * The transfer function is either a TransferFunction or an existing chain
+ * of single-source modifier modules (for example Exponent, Curve, Terrace,
+ * or ScaleBias followed by Clamp).  A chain is sampled by temporarily
+ * connecting a constant module to the source of its innermost module; the
+ * chain must therefore depend on its source value only, not on the input
+ * coordinates.
+ *
+ * The table has getResolution() intervals.  If a maximum error is set with
+ * setMaxError(), the table is built with the smallest power-of-two multiple
+ * of the resolution for which the interpolation error, estimated at the
+ * midpoint of each interval, does not exceed it (up to MAX_RESOLUTION).
+ *
+ * A table sampled from a TransferFunction is built on the first call to
+ * getValue() after the function, range or resolution changes.  A table
+ * sampled from a chain is built by setChain() and rebuilt by
+ * setInputRange(), setResolution() and setMaxError(), on the calling
+ * thread, so that evaluation never rewires modules the caller owns; call
+ * build() after changing a module of the chain.
+ *
+ * This noise module requires one source module.
+ */
+public class LookupTable extends Module {
+	/**
+	 * A pure function of one value.
+	 */
+	public interface TransferFunction {
+		double apply(double value);
+	}
+
+	/// Default lower bound of the input range.
+	public static final double DEFAULT_LOWER_BOUND = -1.0;
+
+	/// Default upper bound of the input range.
+	public static final double DEFAULT_UPPER_BOUND = 1.0;
+
+	/// Default number of intervals in the table.
+	public static final int DEFAULT_RESOLUTION = 1024;
+
+	/// Largest number of intervals a table built for an error bound may
+	/// have.
+	public static final int MAX_RESOLUTION = 1 << 20;
+
+	/// The function that is sampled, if it was given as a TransferFunction.
+	TransferFunction function;
+
+	/// The outermost and innermost modules of the chain that is sampled, if
+	/// the function was given as a modifier chain.
+	Module chainHead, chainTail;
+
+	double lowerBound = DEFAULT_LOWER_BOUND;
+
+	double upperBound = DEFAULT_UPPER_BOUND;
+
+	int resolution = DEFAULT_RESOLUTION;
+
+	/// Maximum interpolation error, or 0 to use the resolution as is.
+	double maxError = 0.0;
+
+	/// A built table.  It is replaced as a whole, so that threads that are
+	/// evaluating while the table is rebuilt always see a consistent one.
+	static final class Table {
+		/// The entries, interleaved as (value, difference to the next value)
+		/// so that one interpolation reads one pair.
+		final double[] entries;
+
+		/// Number of intervals.
+		final int resolution;
+
+		/// Lower bound of the input range.
+		final double lowerBound;
+
+		/// Multiplier that maps a source value onto a table position.
+		final double scale;
+
+		Table(double[] entries, int resolution, double lowerBound, double scale) {
+			this.entries = entries;
+			this.resolution = resolution;
+			this.lowerBound = lowerBound;
+			this.scale = scale;
+		}
+	}
+
+	/// The current table, or null if it needs to be rebuilt.
+	volatile Table table;
+
+	public LookupTable() {
+		super(1);
+	}
+
+	public TransferFunction getFunction() {
+		return function;
+	}
+
+	/**
+	 * Sets the transfer function to sample.
+	 * 
+	 * @param function The transfer function.
+	 */
+	public void setFunction(TransferFunction function) {
+		if (function == null)
+			throw new IllegalArgumentException("function cannot be null");
+		this.function = function;
+		this.chainHead = null;
+		this.chainTail = null;
+		table = null;
+	}
+
+	/**
+	 * Sets a chain of modifier modules to sample.
+	 * 
+	 * Every module from @a head down to @a tail must take its value from
+	 * source module 0 only.  The table is built before this method returns;
+	 * the source module of @a tail is replaced while it is built and
+	 * restored afterwards, so the chain must not be evaluated by another
+	 * thread meanwhile.  A single modifier is a chain whose head and tail
+	 * are the same module.
+	 * 
+	 * @param head The module whose output value the table stores.
+	 * @param tail The innermost module of the chain.
+	 */
+	public void setChain(Module head, Module tail) {
+		if (head == null || tail == null)
+			throw new IllegalArgumentException("head and tail cannot be null");
+		if (tail.getSourceModuleCount() != 1)
+			throw new IllegalArgumentException("tail must have exactly one source module");
+		this.chainHead = head;
+		this.chainTail = tail;
+		this.function = null;
+		invalidate();
+	}
+
+	public double getLowerBound() {
+		return lowerBound;
+	}
+
+	public double getUpperBound() {
+		return upperBound;
+	}
+
+	/**
+	 * Sets the range of source values covered by the table.
+	 * 
+	 * @param lowerBound The lower bound of the input range.
+	 * @param upperBound The upper bound of the input range.
+	 */
+	public void setInputRange(double lowerBound, double upperBound) {
+		if (!(lowerBound < upperBound))
+			throw new IllegalArgumentException("lowerBound must be less than upperBound");
+		this.lowerBound = lowerBound;
+		this.upperBound = upperBound;
+		invalidate();
+	}
+
+	/**
+	 * Returns the number of intervals in the table.  If a maximum error is
+	 * set and the table has been built, this is the resolution that was
+	 * actually used.
+	 */
+	public int getResolution() {
+		Table current = table;
+		return current != null ? current.resolution : resolution;
+	}
+
+	public void setResolution(int resolution) {
+		if (resolution < 1 || resolution > MAX_RESOLUTION)
+			throw new IllegalArgumentException("resolution must be between 1 and MAX_RESOLUTION");
+		this.resolution = resolution;
+		invalidate();
+	}
+
+	public double getMaxError() {
+		return maxError;
+	}
+
+	/**
+	 * Sets the largest acceptable interpolation error.  Zero disables the
+	 * error bound and builds the table at the configured resolution.
+	 * 
+	 * @param maxError The maximum error, or 0.
+	 */
+	public void setMaxError(double maxError) {
+		if (!(maxError >= 0.0))
+			throw new IllegalArgumentException("maxError cannot be negative");
+		this.maxError = maxError;
+		invalidate();
+	}
+
+	/**
+	 * Samples the transfer function into the table.
+	 */
+	public synchronized void build() {
+		if (function == null && chainHead == null)
+			throw new IllegalStateException("no transfer function set");
+
+		Object compilation = FlightRecorderEvents.beginCompilation();
+		Constant probe = null;
+		Module previousSource = null;
+		if (chainHead != null) {
+			try {
+				previousSource = chainTail.getSourceModule(0);
+			} catch (NoModuleException e) {
+				previousSource = null;
+			}
+			probe = new Constant();
+			chainTail.setSourceModule(0, probe);
+		}
+		try {
+			int size = resolution;
+			double[] values = sample(probe, size);
+			while (maxError > 0.0 && size < MAX_RESOLUTION && estimateError(probe, values, size) > maxError) {
+				size = Math.min(size * 2, MAX_RESOLUTION);
+				values = sample(probe, size);
+			}
+
+			double[] entries = new double[(size + 1) * 2];
+			for (int i = 0; i <= size; i++) {
+				entries[i * 2] = values[i];
+				entries[i * 2 + 1] = i < size ? values[i + 1] - values[i] : 0.0;
+			}
+			table = new Table(entries, size, lowerBound, size / (upperBound - lowerBound));
+			FlightRecorderEvents.endCompilation(compilation, "lookupTable", this, size + 1);
+		} finally {
+			if (chainHead != null) {
+				chainTail.setSourceModule(0, previousSource);
+			}
+		}
+	}
+
+	// Discards the table after a setting changed.  A chain table is rebuilt
+	// at once, since building it rewires the chain.
+	private void invalidate() {
+		table = null;
+		if (chainHead != null) {
+			build();
+		}
+	}
+
+	// Builds a TransferFunction table unless another thread already did.
+	private synchronized Table buildIfNeeded() {
+		if (table == null) {
+			if (chainHead != null)
+				throw new IllegalStateException("the table of the chain has not been built");
+			build();
+		}
+		return table;
+	}
+
+	// Samples the transfer function at size + 1 evenly spaced points.
+	private double[] sample(Constant probe, int size) {
+		double[] values = new double[size + 1];
+		double step = (upperBound - lowerBound) / size;
+		for (int i = 0; i <= size; i++) {
+			values[i] = evaluate(probe, i < size ? lowerBound + i * step : upperBound);
+		}
+		return values;
+	}
+
+	// Returns the largest difference between the transfer function and the
+	// interpolated table at the midpoints of the intervals.
+	private double estimateError(Constant probe, double[] values, int size) {
+		double step = (upperBound - lowerBound) / size;
+		double error = 0.0;
+		for (int i = 0; i < size; i++) {
+			double exact = evaluate(probe, lowerBound + (i + 0.5) * step);
+			error = Math.max(error, Math.abs(exact - (values[i] + values[i + 1]) * 0.5));
+		}
+		return error;
+	}
+
+	private double evaluate(Constant probe, double value) {
+		if (probe == null) {
+			return function.apply(value);
+		}
+		probe.setValue(value);
+		// The chain ignores the coordinates.  NaN never compares equal, so a
+		// cache inside the chain neither answers a probe from an earlier one
+		// nor answers a later evaluation of the chain from a probe.
+		return chainHead.getValue(Double.NaN, Double.NaN, Double.NaN);
+	}
+
+	@Override
+	public int getSourceModuleCount() {
+		return 1;
+	}
+
+	@Override
+	public double getValue(double x, double y, double z) {
+		if (sourceModule[0] == null)
+			throw new NoModuleException();
+		Table current = table;
+		if (current == null) {
+			current = buildIfNeeded();
+		}
+
+		double[] entries = current.entries;
+		double position = (sourceModule[0].getValue(x, y, z) - current.lowerBound) * current.scale;
+		if (position <= 0.0) {
+			return entries[0];
+		} else if (position >= current.resolution) {
+			return entries[current.resolution * 2];
+		}
+		int index = (int) position;
+		double alpha = position - index;
+		return entries[index * 2] + alpha * entries[index * 2 + 1];
+	}
+
+}
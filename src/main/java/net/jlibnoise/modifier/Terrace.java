@@ -34,6 +34,10 @@ public class Terrace extends Module {
 	/// Array that stores the control points.
 	double[] controlPoints = new double[0];
 
+	/// Reciprocal of the width of each interval between two adjacent
+	/// control points, so that evaluating does not need a division.
+	double[] inverseWidths = new double[0];
+
 	public Terrace() {
 		super(1);
 	}
@@ -60,7 +64,8 @@ public class Terrace extends Module {
 	}
 
 	public void clearAllControlPoints() {
-		controlPoints = null;
+		controlPoints = new double[0];
+		inverseWidths = new double[0];
 		controlPointCount = 0;
 
 	}
@@ -119,6 +124,12 @@ public class Terrace extends Module {
 		// add the new control point.
 		controlPoints[insertionPos] = value;
 
+		// Precompute the interval widths used by getValue().
+		inverseWidths = new double[Utils.getMax(controlPointCount - 1, 0)];
+		for (int i = 0; i < controlPointCount - 1; i++) {
+			inverseWidths[i] = 1.0 / (controlPoints[i + 1] - controlPoints[i]);
+		}
+
 	}
 
 	@Override
@@ -135,31 +146,23 @@ public class Terrace extends Module {
 		double sourceModuleValue = sourceModule[0].getValue(x, y, z);
 
 		// Find the first element in the control point array that has a value
-		// larger than the output value from the source module.
-		int indexPos;
-		for (indexPos = 0; indexPos < controlPointCount; indexPos++) {
-			if (sourceModuleValue < controlPoints[indexPos]) {
-				break;
-			}
-		}
-
-		// Find the two nearest control points so that we can map their values
-		// onto a quadratic curve.
-		int index0 = Utils.clampValue(indexPos - 1, 0, controlPointCount - 1);
-		int index1 = Utils.clampValue(indexPos, 0, controlPointCount - 1);
-
-		// If some control points are missing (which occurs if the output value from
-		// the source module is greater than the largest value or less than the
-		// smallest value of the control point array), get the value of the nearest
-		// control point and exit now.
-		if (index0 == index1) {
-			return controlPoints[index1];
+		// larger than the output value from the source module.  The control
+		// points are sorted, so a binary search finds it.
+		int indexPos = upperBound(controlPoints, controlPointCount, sourceModuleValue);
+
+		// If the output value from the source module is greater than the
+		// largest value or less than the smallest value of the control point
+		// array, get the value of the nearest control point and exit now.
+		if (indexPos == 0) {
+			return controlPoints[0];
+		} else if (indexPos == controlPointCount) {
+			return controlPoints[controlPointCount - 1];
 		}
 
 		// Compute the alpha value used for linear interpolation.
-		double value0 = controlPoints[index0];
-		double value1 = controlPoints[index1];
-		double alpha = (sourceModuleValue - value0) / (value1 - value0);
+		double value0 = controlPoints[indexPos - 1];
+		double value1 = controlPoints[indexPos];
+		double alpha = (sourceModuleValue - value0) * inverseWidths[indexPos - 1];
 		if (invertTerraces) {
 			alpha = 1.0 - alpha;
 			double temp = value0;
@@ -175,4 +178,29 @@ public class Terrace extends Module {
 
 	}
 
+	/**
+	 * Returns the number of elements in the first @a count elements of a
+	 * sorted array that are less than or equal to a value, which is the
+	 * index of the first element larger than the value.
+	 * 
+	 * @param values The sorted array.
+	 * @param count The number of elements to search.
+	 * @param value The value to look up.
+	 * @return The index of the first element larger than @a value, or @a
+	 *         count if there is none.
+	 */
+	static int upperBound(double[] values, int count, double value) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (value < values[mid]) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
 }
@@ -26,6 +26,14 @@ import net.jlibnoise.exception.NoModuleException;
 
 public class Blend extends Module {
 
+	// Each thread that evaluates batches keeps its own buffers.
+	final ThreadLocal<SelectorBuffers> buffers = new ThreadLocal<SelectorBuffers>() {
+		@Override
+		protected SelectorBuffers initialValue() {
+			return new SelectorBuffers();
+		}
+	};
+
 	public Blend() {
 		super(3);
 	}
@@ -63,4 +71,53 @@ public class Blend extends Module {
 
 	}
 
+    /**
+     * Generates the output values at a batch of input values.
+     *
+     * The control module is evaluated first.  A source module is then
+     * evaluated only for the input values where its weight is not zero,
+     * so where the control value is exactly -1.0 or +1.0, as behind a
+     * {@link net.jlibnoise.modifier.Clamp} module, only one source module
+     * is evaluated.  The output values are the same as those returned by
+     * getValue() for finite source values.
+     */
+	@Override
+	public void getValues(double[] x, double[] y, double[] z, int srcOffset, double[] dest, int destOffset, int count) {
+		if (sourceModule[0] == null)
+			throw new NoModuleException();
+		if (sourceModule[1] == null)
+			throw new NoModuleException();
+		if (sourceModule[2] == null)
+			throw new NoModuleException();
+
+		SelectorBuffers buffer = buffers.get();
+		double[] control = buffer.control;
+		for (int start = 0; start < count; start += SelectorBuffers.BLOCK_SIZE) {
+			int n = Math.min(SelectorBuffers.BLOCK_SIZE, count - start);
+			int src = srcOffset + start;
+			sourceModule[2].getValues(x, y, z, src, control, 0, n);
+
+			int count0 = 0, count1 = 0;
+			for (int i = 0; i < n; i++) {
+				double alpha = (control[i] + 1.0) / 2.0;
+				control[i] = alpha;
+				if (alpha != 1.0) {
+					buffer.indices0[count0++] = i;
+				}
+				if (alpha != 0.0) {
+					buffer.indices1[count1++] = i;
+				}
+			}
+			buffer.evaluate(sourceModule[0], x, y, z, src, buffer.indices0, count0, buffer.values0);
+			buffer.evaluate(sourceModule[1], x, y, z, src, buffer.indices1, count1, buffer.values1);
+
+			for (int i = 0; i < n; i++) {
+				double alpha = control[i];
+				double v0 = alpha != 1.0 ? buffer.values0[i] : 0.0;
+				double v1 = alpha != 0.0 ? buffer.values1[i] : 0.0;
+				dest[destOffset + start + i] = Utils.linearInterp(v0, v1, alpha);
+			}
+		}
+	}
+
 }
@@ -44,6 +44,20 @@ public class Select extends Module {
 	/// Upper bound of the selection range.
 	double upperBound = DEFAULT_SELECT_UPPER_BOUND;
 
+	// Bands of the control value, as returned by band().
+	static final int BAND_SOURCE0 = 0;
+	static final int BAND_LOWER_FALLOFF = 1;
+	static final int BAND_SOURCE1 = 2;
+	static final int BAND_UPPER_FALLOFF = 3;
+
+	// Each thread that evaluates batches keeps its own buffers.
+	final ThreadLocal<SelectorBuffers> buffers = new ThreadLocal<SelectorBuffers>() {
+		@Override
+		protected SelectorBuffers initialValue() {
+			return new SelectorBuffers();
+		}
+	};
+
 	public Select() {
 		super(3);
 	}
@@ -149,4 +163,97 @@ public class Select extends Module {
 
 	}
 
+    /**
+     * Generates the output values at a batch of input values.
+     *
+     * The control module is evaluated first, and the input values are
+     * partitioned by the band of their control value: outside the
+     * selection range, inside it, or in one of the two edge-falloff zones.
+     * Each source module is then evaluated as one compacted batch, for the
+     * input values that need it only.  The output values are identical to
+     * those returned by getValue().
+     */
+	@Override
+	public void getValues(double[] x, double[] y, double[] z, int srcOffset, double[] dest, int destOffset, int count) {
+		if (sourceModule[0] == null)
+			throw new NoModuleException();
+		if (sourceModule[1] == null)
+			throw new NoModuleException();
+		if (sourceModule[2] == null)
+			throw new NoModuleException();
+
+		SelectorBuffers buffer = buffers.get();
+		double[] control = buffer.control;
+		for (int start = 0; start < count; start += SelectorBuffers.BLOCK_SIZE) {
+			int n = Math.min(SelectorBuffers.BLOCK_SIZE, count - start);
+			int src = srcOffset + start;
+			sourceModule[2].getValues(x, y, z, src, control, 0, n);
+
+			int count0 = 0, count1 = 0;
+			for (int i = 0; i < n; i++) {
+				int band = band(control[i]);
+				if (band != BAND_SOURCE1) {
+					buffer.indices0[count0++] = i;
+				}
+				if (band != BAND_SOURCE0) {
+					buffer.indices1[count1++] = i;
+				}
+			}
+			buffer.evaluate(sourceModule[0], x, y, z, src, buffer.indices0, count0, buffer.values0);
+			buffer.evaluate(sourceModule[1], x, y, z, src, buffer.indices1, count1, buffer.values1);
+
+			for (int i = 0; i < n; i++) {
+				double controlValue = control[i];
+				double value;
+				switch (band(controlValue)) {
+				case BAND_SOURCE0:
+					value = buffer.values0[i];
+					break;
+				case BAND_SOURCE1:
+					value = buffer.values1[i];
+					break;
+				case BAND_LOWER_FALLOFF: {
+					double lowerCurve = (lowerBound - edgeFalloff);
+					double upperCurve = (lowerBound + edgeFalloff);
+					double alpha = Utils.sCurve3((controlValue - lowerCurve) / (upperCurve - lowerCurve));
+					value = Utils.linearInterp(buffer.values0[i], buffer.values1[i], alpha);
+					break;
+				}
+				default: {
+					double lowerCurve = (upperBound - edgeFalloff);
+					double upperCurve = (upperBound + edgeFalloff);
+					double alpha = Utils.sCurve3((controlValue - lowerCurve) / (upperCurve - lowerCurve));
+					value = Utils.linearInterp(buffer.values1[i], buffer.values0[i], alpha);
+					break;
+				}
+				}
+				dest[destOffset + start + i] = value;
+			}
+		}
+	}
+
+	// Returns the band of a control value, with the same comparisons as
+	// getValue().
+	int band(double controlValue) {
+		if (edgeFalloff > 0.0) {
+			if (controlValue < (lowerBound - edgeFalloff)) {
+				return BAND_SOURCE0;
+			} else if (controlValue < (lowerBound + edgeFalloff)) {
+				return BAND_LOWER_FALLOFF;
+			} else if (controlValue < (upperBound - edgeFalloff)) {
+				return BAND_SOURCE1;
+			} else if (controlValue < (upperBound + edgeFalloff)) {
+				return BAND_UPPER_FALLOFF;
+			} else {
+				return BAND_SOURCE0;
+			}
+		} else {
+			if (controlValue < lowerBound || controlValue > upperBound) {
+				return BAND_SOURCE0;
+			} else {
+				return BAND_SOURCE1;
+			}
+		}
+	}
+
 }
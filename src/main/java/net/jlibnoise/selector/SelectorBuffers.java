@@ -0,0 +1,98 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.selector;
+
+import net.jlibnoise.Module;
+
+/**
+ * Per-thread buffers used by the selector modules to evaluate batches.
+ *
+ * A selector evaluates its control module for a block of input values
+ * first, then lists for each source module the indices of the input
+ * values that need it, and evaluates each source module for those input
+ * values only, as one compacted batch.
+ */
+final class SelectorBuffers {
+	/// Number of input values that a selector evaluates at a time.
+	static final int BLOCK_SIZE = 256;
+
+	/// Output values of the control module.
+	final double[] control = new double[BLOCK_SIZE];
+
+	/// Output values of the first and second source module, by index in
+	/// the block; only the listed indices are valid.
+	final double[] values0 = new double[BLOCK_SIZE];
+	final double[] values1 = new double[BLOCK_SIZE];
+
+	/// Indices of the input values that need the first and second source
+	/// module, in increasing order.
+	final int[] indices0 = new int[BLOCK_SIZE];
+	final int[] indices1 = new int[BLOCK_SIZE];
+
+	/// Band and blend weight of each input value, for selectors with more
+	/// than two source modules.
+	final int[] bands = new int[BLOCK_SIZE];
+	final double[] weights = new double[BLOCK_SIZE];
+
+	/// Output values of any source module, by index in the block.
+	final double[] scratch = new double[BLOCK_SIZE];
+
+	// Compacted input and output values.
+	private final double[] x = new double[BLOCK_SIZE];
+	private final double[] y = new double[BLOCK_SIZE];
+	private final double[] z = new double[BLOCK_SIZE];
+	private final double[] values = new double[BLOCK_SIZE];
+
+	/**
+	 * Evaluates a module for the listed input values of a block.
+	 * 
+	 * @param module The module to evaluate.
+	 * @param x The @a x coordinates of the input values.
+	 * @param y The @a y coordinates of the input values.
+	 * @param z The @a z coordinates of the input values.
+	 * @param srcOffset The index of the first input value of the block.
+	 * @param indices The indices, relative to srcOffset and in increasing
+	 *            order, of the input values to evaluate.
+	 * @param count The number of indices.
+	 * @param dest The array that receives the output value of each listed
+	 *            input value at its index.
+	 */
+	void evaluate(Module module, double[] x, double[] y, double[] z, int srcOffset, int[] indices, int count, double[] dest) {
+		if (count == 0) {
+			return;
+		}
+		if (indices[count - 1] == count - 1) {
+			// The indices are 0 to count - 1; no compaction is needed.
+			module.getValues(x, y, z, srcOffset, dest, 0, count);
+			return;
+		}
+		for (int i = 0; i < count; i++) {
+			int src = srcOffset + indices[i];
+			this.x[i] = x[src];
+			this.y[i] = y[src];
+			this.z[i] = z[src];
+		}
+		module.getValues(this.x, this.y, this.z, 0, values, 0, count);
+		for (int i = 0; i < count; i++) {
+			dest[indices[i]] = values[i];
+		}
+	}
+}
@@ -0,0 +1,295 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.selector;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.Utils;
+import net.jlibnoise.exception.NoModuleException;
+
+/**
+ * Noise module that outputs the value selected from one of many source
+ * modules chosen by the output value from a control module.
+ *
+ * The control value range is divided by sorted thresholds into one band
+ * per source module: below the first threshold, source module 0 is
+ * selected; between thresholds i - 1 and i, source module i; above the
+ * last threshold, the last source module.  This replaces a chain of
+ * nested {@link Select} modules, which evaluates the control module once
+ * per level: this module evaluates it once, finds the band with a binary
+ * search, and evaluates at most the two source modules adjacent to a
+ * threshold.
+ *
+ * Each threshold has its own edge falloff.  Within the falloff of a
+ * threshold, the output value is interpolated between the source modules
+ * below and above it with an S-curve, as Select does.  Falloffs are
+ * limited so that the falloff zones of adjacent thresholds do not
+ * overlap.
+ *
+ * The source modules have the index values 0 to getThresholdCount(); the
+ * control module has the next index value and is set with
+ * setControlModule().
+ */
+public class ThresholdSelect extends Module {
+	// Number of source modules, not counting the control module.
+	final int sourceCount;
+
+	// The thresholds, in increasing order.
+	double[] thresholds;
+
+	// The edge falloff of each threshold after limiting.
+	double[] edgeFalloffs;
+
+	// Lower and upper end of the falloff zone of each threshold, and the
+	// reciprocal of its width, so that evaluating does not need a
+	// division.
+	double[] lowerEdges;
+	double[] upperEdges;
+	double[] inverseWidths;
+
+	// Each thread that evaluates batches keeps its own buffers.
+	final ThreadLocal<SelectorBuffers> buffers = new ThreadLocal<SelectorBuffers>() {
+		@Override
+		protected SelectorBuffers initialValue() {
+			return new SelectorBuffers();
+		}
+	};
+
+	/**
+	 * Creates a selector with evenly spaced thresholds in -1.0 to +1.0 and
+	 * no edge falloff.
+	 * 
+	 * @param sourceCount The number of source modules to select from, not
+	 *            counting the control module.
+	 * @throws IllegalArgumentException if the number of source modules is
+	 *             less than two.
+	 */
+	public ThresholdSelect(int sourceCount) {
+		super(checkSourceCount(sourceCount) + 1);
+		this.sourceCount = sourceCount;
+		double[] thresholds = new double[sourceCount - 1];
+		for (int i = 0; i < thresholds.length; i++) {
+			thresholds[i] = -1.0 + 2.0 * (i + 1) / sourceCount;
+		}
+		setThresholds(thresholds, new double[thresholds.length]);
+	}
+
+	private static int checkSourceCount(int sourceCount) {
+		if (sourceCount < 2)
+			throw new IllegalArgumentException("sourceCount must be at least 2");
+		return sourceCount;
+	}
+
+	public Module getControlModule() {
+		if (sourceModule[sourceCount] == null) {
+			throw new NoModuleException();
+		}
+		return sourceModule[sourceCount];
+	}
+
+	public void setControlModule(Module m) {
+		if (m == null)
+			throw new IllegalArgumentException("the module cannot be null");
+		sourceModule[sourceCount] = m;
+	}
+
+	public int getThresholdCount() {
+		return thresholds.length;
+	}
+
+	public double getThreshold(int index) {
+		return thresholds[index];
+	}
+
+	public double getEdgeFalloff(int index) {
+		return edgeFalloffs[index];
+	}
+
+	/**
+	 * Sets the thresholds and their edge falloffs.
+	 * 
+	 * Each falloff is limited to half the distance to the adjacent
+	 * thresholds, so that the falloff zones do not overlap.
+	 * 
+	 * @param thresholds The thresholds, one less than the number of source
+	 *            modules, in increasing order.
+	 * @param edgeFalloffs The non-negative edge falloff of each threshold.
+	 * @throws IllegalArgumentException if the arrays have the wrong length,
+	 *             the thresholds are not in increasing order, or a falloff
+	 *             is negative.
+	 */
+	public void setThresholds(double[] thresholds, double[] edgeFalloffs) {
+		int count = sourceCount - 1;
+		if (thresholds.length != count || edgeFalloffs.length != count)
+			throw new IllegalArgumentException("there must be " + count + " thresholds and edge falloffs");
+		for (int i = 0; i < count; i++) {
+			if (i > 0 && !(thresholds[i] > thresholds[i - 1]))
+				throw new IllegalArgumentException("thresholds must be in increasing order");
+			if (!(edgeFalloffs[i] >= 0.0))
+				throw new IllegalArgumentException("edge falloffs cannot be negative");
+		}
+
+		this.thresholds = thresholds.clone();
+		this.edgeFalloffs = new double[count];
+		lowerEdges = new double[count];
+		upperEdges = new double[count];
+		inverseWidths = new double[count];
+		for (int i = 0; i < count; i++) {
+			// Make sure that the edge falloff curves do not overlap.
+			double falloff = edgeFalloffs[i];
+			if (i > 0) {
+				falloff = Utils.getMin(falloff, (thresholds[i] - thresholds[i - 1]) / 2);
+			}
+			if (i < count - 1) {
+				falloff = Utils.getMin(falloff, (thresholds[i + 1] - thresholds[i]) / 2);
+			}
+			this.edgeFalloffs[i] = falloff;
+			lowerEdges[i] = thresholds[i] - falloff;
+			upperEdges[i] = thresholds[i] + falloff;
+			inverseWidths[i] = falloff > 0.0 ? 1.0 / (2.0 * falloff) : 0.0;
+		}
+	}
+
+	/**
+	 * Sets one threshold and its edge falloff.
+	 * 
+	 * @param index The index of the threshold, between the source modules
+	 *            @a index and @a index + 1.
+	 * @param threshold The threshold, between the adjacent thresholds.
+	 * @param edgeFalloff The non-negative edge falloff.
+	 */
+	public void setThreshold(int index, double threshold, double edgeFalloff) {
+		double[] newThresholds = thresholds.clone();
+		double[] newFalloffs = edgeFalloffs.clone();
+		newThresholds[index] = threshold;
+		newFalloffs[index] = edgeFalloff;
+		setThresholds(newThresholds, newFalloffs);
+	}
+
+	@Override
+	public int getSourceModuleCount() {
+		return sourceCount + 1;
+	}
+
+	@Override
+	public double getValue(double x, double y, double z) {
+		for (int i = 0; i <= sourceCount; i++) {
+			if (sourceModule[i] == null)
+				throw new NoModuleException();
+		}
+
+		double controlValue = sourceModule[sourceCount].getValue(x, y, z);
+		int band = findBand(controlValue);
+		if (band < thresholds.length && controlValue >= lowerEdges[band]) {
+			// The control value is within the falloff zone of the threshold
+			// above the band.  Interpolate between the output values from the
+			// source modules below and above it.
+			double alpha = Utils.sCurve3((controlValue - lowerEdges[band]) * inverseWidths[band]);
+			return Utils.linearInterp(sourceModule[band].getValue(x, y, z), sourceModule[band + 1].getValue(x, y, z), alpha);
+		}
+		return sourceModule[band].getValue(x, y, z);
+	}
+
+    /**
+     * Generates the output values at a batch of input values.
+     *
+     * The control module is evaluated first, and each source module is
+     * then evaluated as one compacted batch, for the input values whose
+     * band or falloff zone needs it only.  The output values are identical
+     * to those returned by getValue().
+     */
+	@Override
+	public void getValues(double[] x, double[] y, double[] z, int srcOffset, double[] dest, int destOffset, int count) {
+		for (int i = 0; i <= sourceCount; i++) {
+			if (sourceModule[i] == null)
+				throw new NoModuleException();
+		}
+
+		SelectorBuffers buffer = buffers.get();
+		double[] control = buffer.control;
+		int[] bands = buffer.bands;
+		double[] weights = buffer.weights;
+		int[] indices = buffer.indices0;
+		for (int start = 0; start < count; start += SelectorBuffers.BLOCK_SIZE) {
+			int n = Math.min(SelectorBuffers.BLOCK_SIZE, count - start);
+			int src = srcOffset + start;
+			sourceModule[sourceCount].getValues(x, y, z, src, control, 0, n);
+
+			// Find the band of each input value, and the blend weight of the
+			// source module above it, or -1.0 outside the falloff zones.
+			int lowest = sourceCount, highest = 0;
+			for (int i = 0; i < n; i++) {
+				double controlValue = control[i];
+				int band = findBand(controlValue);
+				bands[i] = band;
+				if (band < thresholds.length && controlValue >= lowerEdges[band]) {
+					weights[i] = Utils.sCurve3((controlValue - lowerEdges[band]) * inverseWidths[band]);
+					highest = Math.max(highest, band + 1);
+				} else {
+					weights[i] = -1.0;
+					highest = Math.max(highest, band);
+				}
+				lowest = Math.min(lowest, band);
+			}
+
+			// Evaluate each source module for the input values in its band,
+			// and for those in the falloff zones on either side of it.
+			for (int source = lowest; source <= highest; source++) {
+				int listed = 0;
+				for (int i = 0; i < n; i++) {
+					int band = bands[i];
+					if (band == source || (band == source - 1 && weights[i] >= 0.0)) {
+						indices[listed++] = i;
+					}
+				}
+				buffer.evaluate(sourceModule[source], x, y, z, src, indices, listed, buffer.scratch);
+				for (int k = 0; k < listed; k++) {
+					int i = indices[k];
+					if (bands[i] == source) {
+						buffer.values0[i] = buffer.scratch[i];
+					} else {
+						buffer.values1[i] = buffer.scratch[i];
+					}
+				}
+			}
+
+			for (int i = 0; i < n; i++) {
+				double weight = weights[i];
+				dest[destOffset + start + i] = weight < 0.0 ? buffer.values0[i] : Utils.linearInterp(buffer.values0[i], buffer.values1[i], weight);
+			}
+		}
+	}
+
+	// Returns the index of the band of a control value: the number of
+	// thresholds whose falloff zone lies entirely at or below it.  The
+	// zones do not overlap, so their upper ends are in increasing order.
+	int findBand(double controlValue) {
+		int low = 0, high = upperEdges.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (upperEdges[mid] <= controlValue) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,162 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+package net.jlibnoise.transformer;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.exception.NoModuleException;
+import net.jlibnoise.generator.VectorPerlin;
+
+/**
+ * Noise module that displaces the input value by a vector-valued Perlin
+ * noise before returning the output value from a source module.
+ *
+ * The three channels of a {@link VectorPerlin} displace the @a x, @a y
+ * and @a z coordinates; each channel is scaled by the power of its axis.
+ * The channels are evaluated in one pass that shares the lattice work
+ * between them.  To configure the displacement noise, call
+ * getWarpNoise().
+ *
+ * A constant offset is added to the input value before the displacement
+ * noise is evaluated, so that the displacement is not zero at integer
+ * coordinates, where gradient coherent noise is zero.
+ *
+ * getValues() displaces a whole batch of input values and passes it on to
+ * the source module as a batch, so source modules that evaluate batches
+ * faster, such as {@link net.jlibnoise.filter.Voronoi}, keep that
+ * advantage behind a domain warp.
+ *
+ * This noise module requires one source module.
+ */
+public class DomainWarp extends Module {
+	/// Default power applied to each channel of the displacement.
+	public static final double DEFAULT_WARP_POWER = 1.0;
+
+	// Offsets added to the input value before the displacement noise is
+	// evaluated.
+	static final double X_OFFSET = 12414.0 / 65536.0;
+	static final double Y_OFFSET = 65124.0 / 65536.0;
+	static final double Z_OFFSET = 31337.0 / 65536.0;
+
+	// Number of input values that getValues() displaces at a time.
+	static final int BLOCK_SIZE = 256;
+
+	// Noise that displaces the input value.
+	protected final VectorPerlin warpNoise = new VectorPerlin();
+
+	// The power (scale) of the displacement along each axis.
+	double xPower = DEFAULT_WARP_POWER;
+	double yPower = DEFAULT_WARP_POWER;
+	double zPower = DEFAULT_WARP_POWER;
+
+	// Each thread keeps its own buffers for the displaced input values.
+	final ThreadLocal<double[][]> buffers = new ThreadLocal<double[][]>() {
+		@Override
+		protected double[][] initialValue() {
+			return new double[3][BLOCK_SIZE];
+		}
+	};
+
+	public DomainWarp() {
+		super(1);
+	}
+
+    /**
+     * Returns the noise that displaces the input value.  Changes to the
+     * returned object change the displacement of this noise module.
+     *
+     * @return The displacement noise.
+     */
+	public VectorPerlin getWarpNoise() {
+		return warpNoise;
+	}
+
+	public double getXPower() {
+		return xPower;
+	}
+
+	public double getYPower() {
+		return yPower;
+	}
+
+	public double getZPower() {
+		return zPower;
+	}
+
+    /**
+     * Sets the power of the displacement along each axis.
+     *
+     * @param xPower The scaling factor applied to the @a x displacement.
+     * @param yPower The scaling factor applied to the @a y displacement.
+     * @param zPower The scaling factor applied to the @a z displacement.
+     */
+	public void setPowers(double xPower, double yPower, double zPower) {
+		this.xPower = xPower;
+		this.yPower = yPower;
+		this.zPower = zPower;
+	}
+
+	@Override
+	public int getSourceModuleCount() {
+		return 1;
+	}
+
+	@Override
+	public double getValue(double x, double y, double z) {
+		if (sourceModule[0] == null)
+			throw new NoModuleException();
+
+		double[] displacement = buffers.get()[0];
+		warpNoise.getValue(x + X_OFFSET, y + Y_OFFSET, z + Z_OFFSET, displacement, 0);
+		return sourceModule[0].getValue(x + displacement[0] * xPower, y + displacement[1] * yPower, z + displacement[2] * zPower);
+	}
+
+    /**
+     * Generates the output values at a batch of input values.
+     *
+     * The input values are displaced in blocks, and each block is passed to
+     * the getValues() method of the source module.  The output values are
+     * identical to those returned by getValue().
+     */
+	@Override
+	public void getValues(double[] x, double[] y, double[] z, int srcOffset, double[] dest, int destOffset, int count) {
+		if (sourceModule[0] == null)
+			throw new NoModuleException();
+
+		double[][] buffer = buffers.get();
+		double[] xd = buffer[0], yd = buffer[1], zd = buffer[2];
+		for (int start = 0; start < count; start += BLOCK_SIZE) {
+			int n = Math.min(BLOCK_SIZE, count - start);
+			int src = srcOffset + start;
+			for (int i = 0; i < n; i++) {
+				xd[i] = x[src + i] + X_OFFSET;
+				yd[i] = y[src + i] + Y_OFFSET;
+				zd[i] = z[src + i] + Z_OFFSET;
+			}
+			// The displacement overwrites the offset input values in place.
+			warpNoise.getValues(xd, yd, zd, 0, xd, yd, zd, 0, n);
+			for (int i = 0; i < n; i++) {
+				xd[i] = x[src + i] + xd[i] * xPower;
+				yd[i] = y[src + i] + yd[i] * yPower;
+				zd[i] = z[src + i] + zd[i] * zPower;
+			}
+			sourceModule[0].getValues(xd, yd, zd, 0, dest, destOffset + start, n);
+		}
+	}
+}
@@ -19,7 +19,7 @@
 */
 package net.jlibnoise.transformer;
 
-import net.jlibnoise.MathHelper;
+import net.jlibnoise.MathPrecision;
 import net.jlibnoise.Module;
 import net.jlibnoise.Utils;
 import net.jlibnoise.exception.NoModuleException;
@@ -85,12 +85,12 @@ public class RotatePoint extends Module {
 
 	public void setAngles(double x, double y, double z) {
 		double xCos, yCos, zCos, xSin, ySin, zSin;
-		xCos = MathHelper.cos(x * Utils.DEG_TO_RAD);
-		yCos = MathHelper.cos(y * Utils.DEG_TO_RAD);
-		zCos = MathHelper.cos(z * Utils.DEG_TO_RAD);
-		xSin = MathHelper.sin(x * Utils.DEG_TO_RAD);
-		ySin = MathHelper.sin(y * Utils.DEG_TO_RAD);
-		zSin = MathHelper.sin(z * Utils.DEG_TO_RAD);
+		xCos = mathPrecision.cos(x * Utils.DEG_TO_RAD);
+		yCos = mathPrecision.cos(y * Utils.DEG_TO_RAD);
+		zCos = mathPrecision.cos(z * Utils.DEG_TO_RAD);
+		xSin = mathPrecision.sin(x * Utils.DEG_TO_RAD);
+		ySin = mathPrecision.sin(y * Utils.DEG_TO_RAD);
+		zSin = mathPrecision.sin(z * Utils.DEG_TO_RAD);
 
 		x1Matrix = ySin * xSin * zSin + yCos * zCos;
 		y1Matrix = xCos * zSin;
@@ -108,6 +108,13 @@ public class RotatePoint extends Module {
 
 	}
 
+	@Override
+	public void setMathPrecision(MathPrecision mathPrecision) {
+		super.setMathPrecision(mathPrecision);
+		// Rebuild the rotation matrix with the new policy.
+		setAngles(xAngle, yAngle, zAngle);
+	}
+
 	public double getxAngle() {
 		return xAngle;
 	}
@@ -0,0 +1,107 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.exception.NoModuleException;
+import net.jlibnoise.modifier.Cache;
+
+/**
+ * The hit and miss counts of the {@link Cache} modules of a graph since a
+ * snapshot was taken.
+ */
+final class CacheCounts {
+	// The Cache modules of the graph.
+	private final Cache[] caches;
+
+	// The totals of the caches when the snapshot was taken.
+	private final long startHits;
+	private final long startMisses;
+
+	/**
+	 * Takes a snapshot of the Cache modules of a graph.
+	 * 
+	 * @param root The module at the root of the graph.
+	 */
+	CacheCounts(Module root) {
+		caches = find(root);
+		long hits = 0;
+		long misses = 0;
+		for (Cache cache : caches) {
+			hits += cache.getHitCount();
+			misses += cache.getMissCount();
+		}
+		startHits = hits;
+		startMisses = misses;
+	}
+
+	/**
+	 * Returns the hits of the caches, from all threads, since the snapshot.
+	 */
+	long getHits() {
+		long hits = 0;
+		for (Cache cache : caches) {
+			hits += cache.getHitCount();
+		}
+		return hits - startHits;
+	}
+
+	/**
+	 * Returns the misses of the caches, from all threads, since the
+	 * snapshot.
+	 */
+	long getMisses() {
+		long misses = 0;
+		for (Cache cache : caches) {
+			misses += cache.getMissCount();
+		}
+		return misses - startMisses;
+	}
+
+	private static Cache[] find(Module root) {
+		List<Cache> caches = new ArrayList<Cache>();
+		IdentityHashMap<Module, Boolean> visited = new IdentityHashMap<Module, Boolean>();
+		ArrayDeque<Module> pending = new ArrayDeque<Module>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			Module module = pending.pop();
+			if (visited.put(module, Boolean.TRUE) != null) {
+				continue;
+			}
+			if (module instanceof Cache) {
+				caches.add((Cache) module);
+			}
+			for (int i = 0; i < module.getSourceModuleCount(); i++) {
+				try {
+					pending.push(module.getSourceModule(i));
+				} catch (NoModuleException e) {
+					// Unconnected source modules are skipped.
+				}
+			}
+		}
+		return caches.toArray(new Cache[caches.size()]);
+	}
+}
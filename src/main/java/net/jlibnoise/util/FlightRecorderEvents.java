@@ -0,0 +1,116 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import net.jlibnoise.Module;
+
+/**
+ * Emits Java Flight Recorder events for the work done by this library, so
+ * that a normal JFR recording shows which tiles were sampled, how long
+ * graph transformations took and how well the caches worked.
+ * 
+ * The following event types are defined, all in the "jlibnoise" category:
+ * 
+ * - <i>net.jlibnoise.Tile</i>: one region request to a grid sampler, with
+ *   its position, size, thread count and the hits and misses of the
+ *   {@link net.jlibnoise.modifier.Cache} modules of the graph during the
+ *   request.
+ * - <i>net.jlibnoise.GraphCompilation</i>: one transformation of a graph
+ *   into a faster form, such as NaryCombiner.flatten() or the sampling of a
+ *   LookupTable.
+ * 
+ * Events are recorded only while a recording enables them. A disabled
+ * event costs two checks of a flag and allocates nothing; the event types
+ * are not even registered until the recorder has been started. On runtimes
+ * without the jdk.jfr module, such as older Java 8 releases, every method
+ * does nothing.
+ * 
+ * The begin methods return an opaque token, or null if the event is
+ * disabled; pass it unchanged to the matching end method.
+ */
+public final class FlightRecorderEvents {
+	// Whether jdk.jfr can be used.  FlightRecorderSupport, which refers to
+	// jdk.jfr, is loaded only if it can.
+	private static final boolean AVAILABLE = isAvailable();
+
+	private FlightRecorderEvents() {
+	}
+
+	private static boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.FlightRecorder");
+			return true;
+		} catch (Throwable t) {
+			return false;
+		}
+	}
+
+	/**
+	 * Starts a tile event for a region request.
+	 * 
+	 * @param module The module at the root of the sampled graph.
+	 * @return The token of the event, or null if it is disabled.
+	 */
+	public static Object beginTile(Module module) {
+		return AVAILABLE ? FlightRecorderSupport.beginTile(module) : null;
+	}
+
+	/**
+	 * Ends and records a tile event.
+	 * 
+	 * @param token The token returned by beginTile().
+	 * @param source The sampler that served the request.
+	 * @param x The first column of the region.
+	 * @param y The first row of the region.
+	 * @param width The number of columns in the region.
+	 * @param height The number of rows in the region.
+	 * @param threadCount The number of threads that sampled the region.
+	 */
+	public static void endTile(Object token, Object source, int x, int y, int width, int height, int threadCount) {
+		if (token != null) {
+			FlightRecorderSupport.endTile(token, source, x, y, width, height, threadCount);
+		}
+	}
+
+	/**
+	 * Starts a graph compilation event.
+	 * 
+	 * @return The token of the event, or null if it is disabled.
+	 */
+	public static Object beginCompilation() {
+		return AVAILABLE ? FlightRecorderSupport.beginCompilation() : null;
+	}
+
+	/**
+	 * Ends and records a graph compilation event.
+	 * 
+	 * @param token The token returned by beginCompilation().
+	 * @param operation The transformation, such as "flatten".
+	 * @param module The module that was transformed.
+	 * @param size The size of the result: the number of modules replaced,
+	 *            or the number of table entries.
+	 */
+	public static void endCompilation(Object token, String operation, Module module, int size) {
+		if (token != null) {
+			FlightRecorderSupport.endCompilation(token, operation, module, size);
+		}
+	}
+}
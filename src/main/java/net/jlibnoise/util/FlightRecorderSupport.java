@@ -0,0 +1,155 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.jlibnoise.Module;
+
+/**
+ * The part of {@link FlightRecorderEvents} that refers to jdk.jfr; it is
+ * loaded only on runtimes that provide it.
+ */
+final class FlightRecorderSupport {
+	@Name("net.jlibnoise.Tile")
+	@Label("Noise Tile")
+	@Description("A rectangular region sampled from a module graph")
+	@Category("jlibnoise")
+	@StackTrace(false)
+	static final class TileEvent extends Event {
+		@Label("Source")
+		String source;
+
+		@Label("Module")
+		String module;
+
+		@Label("X")
+		int x;
+
+		@Label("Y")
+		int y;
+
+		@Label("Width")
+		int width;
+
+		@Label("Height")
+		int height;
+
+		@Label("Samples")
+		long samples;
+
+		@Label("Threads")
+		int threads;
+
+		@Label("Cache Hits")
+		@Description("Hits of the Cache modules of the graph during the request, from all threads")
+		long cacheHits;
+
+		@Label("Cache Misses")
+		@Description("Misses of the Cache modules of the graph during the request, from all threads")
+		long cacheMisses;
+
+		// The Cache modules of the graph and their counts when the event
+		// began.
+		transient CacheCounts caches;
+	}
+
+	@Name("net.jlibnoise.GraphCompilation")
+	@Label("Graph Compilation")
+	@Description("A module graph transformed into a faster form")
+	@Category("jlibnoise")
+	@StackTrace(false)
+	static final class CompilationEvent extends Event {
+		@Label("Operation")
+		String operation;
+
+		@Label("Module")
+		String module;
+
+		@Label("Size")
+		@Description("Modules replaced, or table entries built")
+		int size;
+	}
+
+	// The event types, registered on first use.  Registering the first
+	// event class starts the recorder's infrastructure, which takes a
+	// noticeable time, so this is deferred until a recording could need it.
+	static final class Types {
+		static final EventType TILE = EventType.getEventType(TileEvent.class);
+
+		static final EventType COMPILATION = EventType.getEventType(CompilationEvent.class);
+	}
+
+	private FlightRecorderSupport() {
+	}
+
+	static Object beginTile(Module module) {
+		if (!FlightRecorder.isInitialized() || !Types.TILE.isEnabled())
+			return null;
+		TileEvent event = new TileEvent();
+		event.module = module.getClass().getName();
+		event.caches = new CacheCounts(module);
+		event.begin();
+		return event;
+	}
+
+	static void endTile(Object token, Object source, int x, int y, int width, int height, int threadCount) {
+		TileEvent event = (TileEvent) token;
+		event.end();
+		if (!event.shouldCommit())
+			return;
+		event.source = source.getClass().getName();
+		event.x = x;
+		event.y = y;
+		event.width = width;
+		event.height = height;
+		event.samples = (long) width * height;
+		event.threads = threadCount;
+		event.cacheHits = event.caches.getHits();
+		event.cacheMisses = event.caches.getMisses();
+		event.commit();
+	}
+
+	static Object beginCompilation() {
+		if (!FlightRecorder.isInitialized() || !Types.COMPILATION.isEnabled())
+			return null;
+		CompilationEvent event = new CompilationEvent();
+		event.begin();
+		return event;
+	}
+
+	static void endCompilation(Object token, String operation, Module module, int size) {
+		CompilationEvent event = (CompilationEvent) token;
+		event.end();
+		if (!event.shouldCommit())
+			return;
+		event.operation = operation;
+		event.module = module.getClass().getName();
+		event.size = size;
+		event.commit();
+	}
+}
@@ -0,0 +1,262 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import java.awt.Color;
+
+/**
+ * Defines a color gradient.
+ * 
+ * A color gradient is a list of gradually-changing colors. A color gradient
+ * is defined by a list of <i>gradient points</i>. Each gradient point has a
+ * position and a color. In a color gradient, the colors between two
+ * adjacent gradient points are linearly interpolated.
+ * 
+ * To add a gradient point to the color gradient, pass its position and
+ * color to the addGradientPoint() method.
+ * 
+ * Colors are packed ARGB integers (0xAARRGGBB), the same layout used by
+ * {@link java.awt.image.BufferedImage#TYPE_INT_ARGB}.
+ * 
+ * This class is a port of libnoise's noise::utils::GradientColor.
+ */
+public class GradientColor {
+	// Number of gradient points.
+	int pointCount = 0;
+
+	// Positions of the gradient points, in ascending order.
+	double[] positions = new double[0];
+
+	// Colors of the gradient points.
+	int[] colors = new int[0];
+
+	/**
+	 * Returns a gradient that maps -1.0 to black and +1.0 to white.
+	 * 
+	 * @return A grayscale gradient.
+	 */
+	public static GradientColor grayscale() {
+		GradientColor gradient = new GradientColor();
+		gradient.addGradientPoint(-1.0, 0xff000000);
+		gradient.addGradientPoint(1.0, 0xffffffff);
+		return gradient;
+	}
+
+	/**
+	 * Returns libnoise's terrain gradient: deep water at -1.0, sand just
+	 * below 0.0, then grass, dirt, rock and snow up to +1.0.
+	 * 
+	 * @return A terrain gradient.
+	 */
+	public static GradientColor terrain() {
+		GradientColor gradient = new GradientColor();
+		gradient.addGradientPoint(-1.00, new Color(0, 0, 128, 255));
+		gradient.addGradientPoint(-0.20, new Color(32, 64, 128, 255));
+		gradient.addGradientPoint(-0.04, new Color(64, 96, 192, 255));
+		gradient.addGradientPoint(-0.02, new Color(192, 192, 128, 255));
+		gradient.addGradientPoint(0.00, new Color(0, 192, 0, 255));
+		gradient.addGradientPoint(0.25, new Color(192, 192, 0, 255));
+		gradient.addGradientPoint(0.50, new Color(160, 96, 64, 255));
+		gradient.addGradientPoint(0.75, new Color(128, 255, 255, 255));
+		gradient.addGradientPoint(1.00, new Color(255, 255, 255, 255));
+		return gradient;
+	}
+
+	/**
+	 * Returns a heat map gradient that runs from black at @a low through
+	 * blue, red and yellow to white at @a high, for rendering maps of
+	 * magnitudes such as a {@link net.jlibnoise.model.CostMap}.
+	 * 
+	 * @param low The position of black.
+	 * @param high The position of white.
+	 * @return A heat map gradient.
+	 */
+	public static GradientColor heat(double low, double high) {
+		if (!(high > low))
+			throw new IllegalArgumentException("high must be greater than low");
+		double range = high - low;
+		GradientColor gradient = new GradientColor();
+		gradient.addGradientPoint(low, 0xff000000);
+		gradient.addGradientPoint(low + 0.25 * range, 0xff2020c0);
+		gradient.addGradientPoint(low + 0.5 * range, 0xffd02020);
+		gradient.addGradientPoint(low + 0.75 * range, 0xffffd000);
+		gradient.addGradientPoint(high, 0xffffffff);
+		return gradient;
+	}
+
+	/**
+	 * Adds a gradient point to this gradient object.
+	 * 
+	 * @param position The position of this gradient point.
+	 * @param color The color of this gradient point.
+	 */
+	public void addGradientPoint(double position, Color color) {
+		addGradientPoint(position, color.getRGB());
+	}
+
+	/**
+	 * Adds a gradient point to this gradient object.
+	 * 
+	 * @param position The position of this gradient point.
+	 * @param argb The color of this gradient point, as packed ARGB.
+	 * @throws IllegalArgumentException if a gradient point with the same
+	 *             position already exists.
+	 */
+	public void addGradientPoint(double position, int argb) {
+		int insertionPos;
+		for (insertionPos = 0; insertionPos < pointCount; insertionPos++) {
+			if (position < positions[insertionPos]) {
+				break;
+			} else if (position == positions[insertionPos]) {
+				throw new IllegalArgumentException("position must be unique");
+			}
+		}
+
+		double[] newPositions = new double[pointCount + 1];
+		int[] newColors = new int[pointCount + 1];
+		System.arraycopy(positions, 0, newPositions, 0, insertionPos);
+		System.arraycopy(colors, 0, newColors, 0, insertionPos);
+		System.arraycopy(positions, insertionPos, newPositions, insertionPos + 1, pointCount - insertionPos);
+		System.arraycopy(colors, insertionPos, newColors, insertionPos + 1, pointCount - insertionPos);
+		newPositions[insertionPos] = position;
+		newColors[insertionPos] = argb;
+		positions = newPositions;
+		colors = newColors;
+		pointCount++;
+	}
+
+	/**
+	 * Deletes all the gradient points from this gradient object.
+	 */
+	public void clear() {
+		positions = new double[0];
+		colors = new int[0];
+		pointCount = 0;
+	}
+
+	public int getGradientPointCount() {
+		return pointCount;
+	}
+
+	/**
+	 * Returns the position of the first gradient point.
+	 * 
+	 * @return The lowest position.
+	 */
+	public double getMinPosition() {
+		checkPoints();
+		return positions[0];
+	}
+
+	/**
+	 * Returns the position of the last gradient point.
+	 * 
+	 * @return The highest position.
+	 */
+	public double getMaxPosition() {
+		checkPoints();
+		return positions[pointCount - 1];
+	}
+
+	/**
+	 * Returns the color at the specified position in the color gradient.
+	 * Positions outside the gradient return the color of the nearest
+	 * gradient point.
+	 * 
+	 * @param position The specified position.
+	 * @return The color at that position, as packed ARGB.
+	 * @pre At least two gradient points exist in this gradient object.
+	 */
+	public int getColor(double position) {
+		checkPoints();
+
+		// Find the first element in the gradient point array that has a
+		// gradient position larger than the gradient position passed to this
+		// method.
+		int indexPos;
+		for (indexPos = 0; indexPos < pointCount; indexPos++) {
+			if (position < positions[indexPos]) {
+				break;
+			}
+		}
+
+		// Find the two nearest gradient points so that we can perform linear
+		// interpolation on the color.
+		int index0 = clamp(indexPos - 1, 0, pointCount - 1);
+		int index1 = clamp(indexPos, 0, pointCount - 1);
+
+		// If some gradient points are missing (which occurs if the gradient
+		// position passed to this method is greater than the largest gradient
+		// position or less than the smallest gradient position in the array),
+		// get the corresponding gradient color of the nearest gradient point
+		// and exit now.
+		if (index0 == index1) {
+			return colors[index1];
+		}
+
+		// Compute the alpha value used for linear interpolation.
+		double input0 = positions[index0];
+		double input1 = positions[index1];
+		double alpha = (position - input0) / (input1 - input0);
+
+		// Now perform the linear interpolation given the alpha value.
+		return lerpColor(colors[index0], colors[index1], alpha);
+	}
+
+	/**
+	 * Fills a lookup table with evenly spaced colors of this gradient, from
+	 * the first gradient point to the last one.
+	 * 
+	 * @param table The table to fill; its length determines the resolution.
+	 */
+	public void fillTable(int[] table) {
+		double min = getMinPosition();
+		double max = getMaxPosition();
+		int last = table.length - 1;
+		for (int i = 0; i <= last; i++) {
+			table[i] = getColor(last == 0 ? min : min + (max - min) * i / last);
+		}
+	}
+
+	private void checkPoints() {
+		if (pointCount < 2)
+			throw new IllegalStateException("the gradient needs at least two gradient points");
+	}
+
+	private static int clamp(int value, int low, int high) {
+		return value < low ? low : (value > high ? high : value);
+	}
+
+	// Linearly interpolates each channel of two packed ARGB colors.
+	static int lerpColor(int color0, int color1, double alpha) {
+		int a = blendChannel(color0 >>> 24, color1 >>> 24, alpha);
+		int r = blendChannel((color0 >> 16) & 0xff, (color1 >> 16) & 0xff, alpha);
+		int g = blendChannel((color0 >> 8) & 0xff, (color1 >> 8) & 0xff, alpha);
+		int b = blendChannel(color0 & 0xff, color1 & 0xff, alpha);
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+
+	private static int blendChannel(int channel0, int channel1, double alpha) {
+		double c0 = channel0 / 255.0;
+		double c1 = channel1 / 255.0;
+		return ((int) (((c1 * alpha) + (c0 * (1.0 - alpha))) * 255.0)) & 0xff;
+	}
+}
@@ -0,0 +1,65 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+/**
+ * A two-dimensional grid of noise values that can be read one rectangular
+ * region at a time.
+ * 
+ * Grid sources let consumers such as {@link ImageRenderer} stream through
+ * arbitrarily large maps: a source either computes the requested region on
+ * demand, like the samplers in the <code>model</code> package, or copies it
+ * out of memory, like {@link NoiseMap}.
+ * 
+ * Regions may extend past the edges of the grid. How the values outside
+ * the grid are defined is up to the source; samplers continue the grid's
+ * spacing, while a noise map repeats its edge values.
+ */
+public interface GridSource {
+	/**
+	 * Returns the number of columns in the grid.
+	 * 
+	 * @return The width of the grid.
+	 */
+	int getWidth();
+
+	/**
+	 * Returns the number of rows in the grid.
+	 * 
+	 * @return The height of the grid.
+	 */
+	int getHeight();
+
+	/**
+	 * Copies a rectangular region of the grid into the destination array.
+	 * 
+	 * @param x The first column of the region.
+	 * @param y The first row of the region.
+	 * @param regionWidth The number of columns in the region.
+	 * @param regionHeight The number of rows in the region.
+	 * @param dest The destination array.
+	 * @param offset The index in the destination array that receives the
+	 *            first value of the first row.
+	 * @param stride The distance in the destination array between the
+	 *            starts of two consecutive rows.
+	 */
+	void getValues(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride);
+}
@@ -0,0 +1,316 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a grid of noise values as a 16-bit height map.
+ * 
+ * The writer pulls the grid from a {@link GridSource} one strip of rows at
+ * a time, encodes the strip and writes it to a channel before pulling the
+ * next one. Memory use is therefore bounded by the strip height times the
+ * width of the grid, however large the output is; combined with a grid
+ * sampler, a 65536 x 65536 terrain can be exported without ever holding
+ * more than one strip.
+ * 
+ * Noise values are mapped linearly from the range set by setRange() onto
+ * 0 to 65535; values outside the range are clamped. The first grid row is
+ * the first row of the file.
+ * 
+ * Supported formats:
+ * 
+ * - {@link Format#RAW16}: headerless 16-bit samples, little-endian by
+ *   default; see {@link #setByteOrder(ByteOrder)}.
+ * - {@link Format#PNG16}: a 16-bit grayscale PNG, compressed in parallel
+ *   by {@link PngWriter}.
+ * - {@link Format#TIFF16}: an uncompressed 16-bit grayscale TIFF with one
+ *   strip per writer strip. Files of 4 GiB or more are written as BigTIFF,
+ *   since classic TIFF offsets are 32-bit.
+ * - {@link Format#BIGTIFF16}: the same, but always written as BigTIFF.
+ */
+public class HeightmapWriter {
+	/**
+	 * The file formats supported by the writer.
+	 */
+	public enum Format {
+		RAW16, PNG16, TIFF16, BIGTIFF16
+	}
+
+	/// Default number of rows pulled from the source at a time.
+	public static final int DEFAULT_STRIP_HEIGHT = 64;
+
+	// Noise value mapped to 0.
+	double lowValue = -1.0;
+
+	// Noise value mapped to 65535.
+	double highValue = 1.0;
+
+	// Number of rows pulled from the source at a time.
+	int stripHeight = DEFAULT_STRIP_HEIGHT;
+
+	// Byte order of RAW16 output.
+	ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+
+	// Compression level of PNG output.
+	int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	public double getLowValue() {
+		return lowValue;
+	}
+
+	public double getHighValue() {
+		return highValue;
+	}
+
+	/**
+	 * Sets the range of noise values that is mapped onto 0 to 65535.
+	 * 
+	 * @param lowValue The noise value mapped to 0.
+	 * @param highValue The noise value mapped to 65535.
+	 */
+	public void setRange(double lowValue, double highValue) {
+		if (lowValue >= highValue)
+			throw new IllegalArgumentException("lowValue must be less than highValue");
+		this.lowValue = lowValue;
+		this.highValue = highValue;
+	}
+
+	public int getStripHeight() {
+		return stripHeight;
+	}
+
+	/**
+	 * Sets the number of rows pulled from the source at a time. For TIFF
+	 * output this is also the RowsPerStrip of the file.
+	 * 
+	 * @param stripHeight The strip height.
+	 */
+	public void setStripHeight(int stripHeight) {
+		if (stripHeight < 1)
+			throw new IllegalArgumentException("stripHeight must be at least 1");
+		this.stripHeight = stripHeight;
+	}
+
+	public ByteOrder getByteOrder() {
+		return byteOrder;
+	}
+
+	/**
+	 * Sets the byte order of RAW16 output. PNG is always big-endian and
+	 * TIFF always little-endian.
+	 * 
+	 * @param byteOrder The byte order.
+	 */
+	public void setByteOrder(ByteOrder byteOrder) {
+		if (byteOrder == null)
+			throw new IllegalArgumentException("byteOrder cannot be null");
+		this.byteOrder = byteOrder;
+	}
+
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	/**
+	 * Sets the deflate compression level of PNG output.
+	 * 
+	 * @param compressionLevel A level from 0 to 9, or -1 for the default.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		if (compressionLevel < -1 || compressionLevel > 9)
+			throw new IllegalArgumentException("compressionLevel must be between -1 and 9");
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Writes a grid source to a channel. The channel is not closed.
+	 * 
+	 * @param source The grid source.
+	 * @param format The file format.
+	 * @param channel The destination channel.
+	 * @throws IOException if writing to the channel fails.
+	 */
+	public void write(GridSource source, Format format, WritableByteChannel channel) throws IOException {
+		int width = source.getWidth();
+		int height = source.getHeight();
+		if (width < 1 || height < 1)
+			throw new IllegalArgumentException("the grid is empty");
+		if (format == Format.PNG16 && (long) width * 2 + 1 > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("the grid is too wide for PNG");
+
+		// Read the settings once, so that changing them during the write
+		// cannot make the header disagree with the samples.
+		double low = lowValue;
+		double high = highValue;
+		int rows = Math.min(stripHeight, height);
+		switch (format) {
+		case RAW16:
+			writeRaw(source, channel, byteOrder, rows, low, high);
+			break;
+		case PNG16:
+			writePng(source, channel, low, high, compressionLevel);
+			break;
+		case TIFF16:
+			writeTiff(source, channel, false, rows, low, high);
+			break;
+		case BIGTIFF16:
+			writeTiff(source, channel, true, rows, low, high);
+			break;
+		}
+	}
+
+	void writeRaw(GridSource source, WritableByteChannel channel, ByteOrder order, int rows, double low, double high) throws IOException {
+		int width = source.getWidth();
+		int height = source.getHeight();
+		double[] values = new double[rows * width];
+		ByteBuffer buffer = ByteBuffer.allocate(rows * width * 2).order(order);
+		for (int y = 0; y < height; y += rows) {
+			int count = Math.min(rows, height - y);
+			source.getValues(0, y, width, count, values, 0, width);
+			buffer.clear();
+			for (int i = 0; i < count * width; i++) {
+				buffer.putShort(toSample(values[i], low, high));
+			}
+			buffer.flip();
+			writeFully(channel, buffer);
+		}
+	}
+
+	void writePng(GridSource source, WritableByteChannel channel, double low, double high, int level) throws IOException {
+		PngWriter png = new PngWriter();
+		png.setRange(low, high);
+		png.setCompressionLevel(level);
+		png.write(source, PngWriter.Format.GRAY16, channel);
+	}
+
+	void writeTiff(GridSource source, WritableByteChannel channel, boolean big, int rows, double low, double high) throws IOException {
+		int width = source.getWidth();
+		int height = source.getHeight();
+		int strips = (height + rows - 1) / rows;
+		long stripBytes = (long) rows * width * 2;
+		long imageBytes = (long) height * width * 2;
+
+		// Everything but the pixels fits in a few hundred bytes plus two
+		// values per strip; if the file can reach 4 GiB, use BigTIFF.
+		big |= imageBytes + 512 + strips * 16L >= 0xffffffffL;
+		int entries = 9;
+		int headerSize = big ? 16 : 8;
+		int ifdSize = big ? 8 + entries * 20 + 8 : 2 + entries * 12 + 4;
+		int offsetSize = big ? 8 : 4;
+		long offsetsPos = headerSize + ifdSize;
+		long countsPos = offsetsPos + (long) strips * offsetSize;
+		long dataPos = countsPos + (long) strips * offsetSize;
+
+		ByteBuffer header = ByteBuffer.allocate((int) (dataPos)).order(ByteOrder.LITTLE_ENDIAN);
+		header.put((byte) 'I').put((byte) 'I');
+		if (big) {
+			header.putShort((short) 43).putShort((short) 8).putShort((short) 0).putLong(headerSize);
+			header.putLong(entries);
+		} else {
+			header.putShort((short) 42).putInt(headerSize);
+			header.putShort((short) entries);
+		}
+		// Tags must be sorted in ascending order.
+		putTiffEntry(header, big, 256, TIFF_LONG, 1, width);
+		putTiffEntry(header, big, 257, TIFF_LONG, 1, height);
+		putTiffEntry(header, big, 258, TIFF_SHORT, 1, 16);
+		putTiffEntry(header, big, 259, TIFF_SHORT, 1, 1);
+		putTiffEntry(header, big, 262, TIFF_SHORT, 1, 1);
+		putTiffEntry(header, big, 273, big ? TIFF_LONG8 : TIFF_LONG, strips, strips == 1 ? dataPos : offsetsPos);
+		putTiffEntry(header, big, 277, TIFF_SHORT, 1, 1);
+		putTiffEntry(header, big, 278, TIFF_LONG, 1, rows);
+		putTiffEntry(header, big, 279, big ? TIFF_LONG8 : TIFF_LONG, strips, strips == 1 ? imageBytes : countsPos);
+		if (big) {
+			header.putLong(0);
+		} else {
+			header.putInt(0);
+		}
+
+		// The strip offset and byte count arrays.  When there is only one
+		// strip the values are stored in the entries themselves, but the
+		// space is still reserved to keep the layout simple.
+		for (int i = 0; i < strips; i++) {
+			putOffset(header, big, dataPos + i * stripBytes);
+		}
+		for (int i = 0; i < strips; i++) {
+			putOffset(header, big, Math.min(stripBytes, imageBytes - i * stripBytes));
+		}
+		header.flip();
+		writeFully(channel, header);
+
+		writeRaw(source, channel, ByteOrder.LITTLE_ENDIAN, rows, low, high);
+	}
+
+	static final short TIFF_SHORT = 3;
+	static final short TIFF_LONG = 4;
+	static final short TIFF_LONG8 = 16;
+
+	private static void putTiffEntry(ByteBuffer buffer, boolean big, int tag, short type, long count, long value) {
+		buffer.putShort((short) tag).putShort(type);
+		if (big) {
+			buffer.putLong(count);
+			if (type == TIFF_SHORT) {
+				buffer.putShort((short) value).putShort((short) 0).putInt(0);
+			} else if (type == TIFF_LONG) {
+				buffer.putInt((int) value).putInt(0);
+			} else {
+				buffer.putLong(value);
+			}
+		} else {
+			buffer.putInt((int) count);
+			if (type == TIFF_SHORT) {
+				buffer.putShort((short) value).putShort((short) 0);
+			} else {
+				buffer.putInt((int) value);
+			}
+		}
+	}
+
+	private static void putOffset(ByteBuffer buffer, boolean big, long value) {
+		if (big) {
+			buffer.putLong(value);
+		} else {
+			buffer.putInt((int) value);
+		}
+	}
+
+	// Maps a noise value in [low, high] onto an unsigned 16-bit sample.
+	static short toSample(double value, double low, double high) {
+		double scaled = (value - low) / (high - low) * 65535.0 + 0.5;
+		if (scaled <= 0.0) {
+			return 0;
+		} else if (scaled >= 65535.0) {
+			return (short) 65535;
+		}
+		return (short) (int) scaled;
+	}
+
+	static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
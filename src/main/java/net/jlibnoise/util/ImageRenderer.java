@@ -0,0 +1,434 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import net.jlibnoise.Utils;
+
+/**
+ * Renders a grid of noise values into an image.
+ * 
+ * Each noise value is mapped onto a color through a {@link GradientColor}.
+ * The renderer can optionally light the image from a directional light
+ * source, which gives it a three-dimensional "shaded relief" appearance.
+ * 
+ * The output is a packed ARGB image (0xAARRGGBB), either as an int array
+ * or as a {@link BufferedImage}. Image row @a y is grid row @a y, so the
+ * first row of the grid is the top row of the image.
+ * 
+ * <b>Streaming</b>
+ * 
+ * The renderer reads its {@link GridSource} one band of rows at a time and
+ * hands each finished band to a {@link BandConsumer}, so neither the noise
+ * values nor the image need to be held in memory as a whole. Only one band
+ * of noise values and one band of pixels are ever allocated. Rendering
+ * into an array or a {@link BufferedImage} is built on the same path.
+ * 
+ * The rows of a band are colored concurrently; see
+ * {@link #setThreadCount(int)}. Grid samplers additionally evaluate the
+ * noise of a band concurrently.
+ * 
+ * <b>Gradient lookup</b>
+ * 
+ * The gradient is sampled into a table of {@link #GRADIENT_TABLE_SIZE}
+ * colors at the start of each render, so coloring a pixel is a table read
+ * rather than a search through the gradient points.
+ * 
+ * <b>Lighting</b>
+ * 
+ * When lighting is enabled, the slope at each pixel is estimated from its
+ * four neighbours. For pixels on the edges of the grid the neighbours are
+ * read from outside the grid, unless wrapping is enabled, in which case
+ * they are read from the opposite edge.
+ * 
+ * This class is a port of libnoise's noise::utils::RendererImage, without
+ * the background image.
+ */
+public class ImageRenderer {
+	/**
+	 * Receives the rendered image one band of rows at a time, in order
+	 * from the first row to the last.
+	 */
+	public interface BandConsumer {
+		/**
+		 * @param startRow The first image row of the band.
+		 * @param rowCount The number of rows in the band.
+		 * @param argb The pixels of the band in row-major order, as packed
+		 *            ARGB. The array is reused for the next band, so it is
+		 *            only valid during this call.
+		 */
+		void consume(int startRow, int rowCount, int[] argb);
+	}
+
+	/// Default number of rows rendered per band.
+	public static final int DEFAULT_BAND_HEIGHT = 64;
+
+	/// Number of colors in the gradient lookup table.
+	public static final int GRADIENT_TABLE_SIZE = 4096;
+
+	// Bands with fewer pixels than this are colored on one thread.
+	static final int MIN_PARALLEL_PIXELS = 1 << 14;
+
+	// The color gradient used to specify the image colors.
+	GradientColor gradient = GradientColor.grayscale();
+
+	// A flag specifying whether lighting is enabled.
+	boolean lightEnabled = false;
+
+	// A flag specifying whether wrapping is enabled.
+	boolean wrapEnabled = false;
+
+	// The azimuth of the light source, in degrees.
+	double lightAzimuth = 45.0;
+
+	// The elevation of the light source, in degrees.
+	double lightElevation = 45.0;
+
+	// The brightness of the light source.
+	double lightBrightness = 1.0;
+
+	// The contrast between areas in light and areas in shadow.
+	double lightContrast = 1.0;
+
+	// The color of the light source, as packed ARGB.
+	int lightColor = 0xffffffff;
+
+	// Number of rows rendered per band.
+	int bandHeight = DEFAULT_BAND_HEIGHT;
+
+	// Maximum number of threads used to color a band.
+	int threadCount = Parallel.getDefaultThreadCount();
+
+	public GradientColor getGradient() {
+		return gradient;
+	}
+
+	/**
+	 * Sets the color gradient used to specify the image colors.
+	 * 
+	 * @param gradient The color gradient; it must have at least two
+	 *            gradient points when rendering.
+	 */
+	public void setGradient(GradientColor gradient) {
+		if (gradient == null)
+			throw new IllegalArgumentException("gradient cannot be null");
+		this.gradient = gradient;
+	}
+
+	public boolean isLightEnabled() {
+		return lightEnabled;
+	}
+
+	/**
+	 * Enables or disables the light source.
+	 * 
+	 * @param enable A flag that enables or disables the light source.
+	 */
+	public void setLightEnabled(boolean enable) {
+		this.lightEnabled = enable;
+	}
+
+	public boolean isWrapEnabled() {
+		return wrapEnabled;
+	}
+
+	/**
+	 * Enables or disables noise-map wrapping.
+	 * 
+	 * When wrapping is enabled, the lighting of the pixels on an edge uses
+	 * the values on the opposite edge as neighbours. This is useful for
+	 * seamless tiles.
+	 * 
+	 * @param enable A flag that enables or disables wrapping.
+	 */
+	public void setWrapEnabled(boolean enable) {
+		this.wrapEnabled = enable;
+	}
+
+	public double getLightAzimuth() {
+		return lightAzimuth;
+	}
+
+	/**
+	 * Sets the azimuth of the light source, in degrees.
+	 * 
+	 * The azimuth is the location of the light source around the horizon:
+	 * 0.0 is east, 90.0 is north, 180.0 is west and 270.0 is south.
+	 * 
+	 * @param lightAzimuth The azimuth of the light source.
+	 */
+	public void setLightAzimuth(double lightAzimuth) {
+		this.lightAzimuth = lightAzimuth;
+	}
+
+	public double getLightElevation() {
+		return lightElevation;
+	}
+
+	/**
+	 * Sets the elevation of the light source, in degrees.
+	 * 
+	 * The elevation is the angle above the horizon: 0.0 is on the horizon
+	 * and 90.0 is directly overhead.
+	 * 
+	 * @param lightElevation The elevation of the light source.
+	 */
+	public void setLightElevation(double lightElevation) {
+		this.lightElevation = lightElevation;
+	}
+
+	public double getLightBrightness() {
+		return lightBrightness;
+	}
+
+	public void setLightBrightness(double lightBrightness) {
+		this.lightBrightness = lightBrightness;
+	}
+
+	public double getLightContrast() {
+		return lightContrast;
+	}
+
+	/**
+	 * Sets the contrast of the light source.
+	 * 
+	 * The contrast specifies how sharp the boundary is between the
+	 * light-facing areas and the shadowed areas of the image.
+	 * 
+	 * @param lightContrast The contrast of the light source.
+	 * @throws IllegalArgumentException if the contrast is not positive.
+	 */
+	public void setLightContrast(double lightContrast) {
+		if (lightContrast <= 0.0)
+			throw new IllegalArgumentException("lightContrast must be positive");
+		this.lightContrast = lightContrast;
+	}
+
+	/**
+	 * Returns the color of the light source.
+	 * 
+	 * @return The color of the light source, as packed ARGB.
+	 */
+	public int getLightColor() {
+		return lightColor;
+	}
+
+	public void setLightColor(Color lightColor) {
+		this.lightColor = lightColor.getRGB();
+	}
+
+	public void setLightColor(int argb) {
+		this.lightColor = argb;
+	}
+
+	public int getBandHeight() {
+		return bandHeight;
+	}
+
+	/**
+	 * Sets the number of rows rendered per band. Larger bands give more
+	 * work to each thread but use more memory.
+	 * 
+	 * @param bandHeight The number of rows per band.
+	 */
+	public void setBandHeight(int bandHeight) {
+		if (bandHeight < 1)
+			throw new IllegalArgumentException("bandHeight must be at least 1");
+		this.bandHeight = bandHeight;
+	}
+
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the maximum number of threads used to color a band.
+	 * 
+	 * @param threadCount The thread count; 1 colors every band on the
+	 *            calling thread.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("threadCount must be at least 1");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Renders a grid source into a new packed ARGB array.
+	 * 
+	 * @param source The grid source.
+	 * @return The pixels in row-major order.
+	 */
+	public int[] render(GridSource source) {
+		final int width = source.getWidth();
+		final int[] dest = new int[checkSize(width, source.getHeight())];
+		render(source, new BandConsumer() {
+			public void consume(int startRow, int rowCount, int[] argb) {
+				System.arraycopy(argb, 0, dest, startRow * width, rowCount * width);
+			}
+		});
+		return dest;
+	}
+
+	/**
+	 * Renders a grid source into a new {@link BufferedImage} of type
+	 * {@link BufferedImage#TYPE_INT_ARGB}.
+	 * 
+	 * @param source The grid source.
+	 * @return The rendered image.
+	 */
+	public BufferedImage renderImage(GridSource source) {
+		final int width = source.getWidth();
+		checkSize(width, source.getHeight());
+		BufferedImage image = new BufferedImage(width, source.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		final int[] dest = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		render(source, new BandConsumer() {
+			public void consume(int startRow, int rowCount, int[] argb) {
+				System.arraycopy(argb, 0, dest, startRow * width, rowCount * width);
+			}
+		});
+		return image;
+	}
+
+	/**
+	 * Renders a grid source band by band.
+	 * 
+	 * @param source The grid source.
+	 * @param consumer Receives each band as soon as it is rendered.
+	 */
+	public void render(GridSource source, BandConsumer consumer) {
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		if (width == 0 || height == 0)
+			return;
+
+		// Sample the gradient and blend it onto the (white) background once.
+		final int[] table = new int[GRADIENT_TABLE_SIZE];
+		gradient.fillTable(table);
+		for (int i = 0; i < table.length; i++) {
+			table[i] = blendOntoBackground(table[i]);
+		}
+		final double tableMin = gradient.getMinPosition();
+		final double tableScale = (table.length - 1) / (gradient.getMaxPosition() - tableMin);
+
+		final boolean light = lightEnabled;
+		double cosAzimuth = Math.cos(Math.toRadians(lightAzimuth));
+		double sinAzimuth = Math.sin(Math.toRadians(lightAzimuth));
+		double cosElev = Math.cos(Math.toRadians(lightElevation));
+		double sinElev = Math.sin(Math.toRadians(lightElevation));
+		final double io = Utils.SQRT_2 * sinElev / 2.0;
+		final double ix = (1.0 - io) * lightContrast * Utils.SQRT_2 * cosElev * cosAzimuth;
+		final double iy = (1.0 - io) * lightContrast * Utils.SQRT_2 * cosElev * sinAzimuth;
+		final double brightness = lightBrightness;
+		final double lightRed = ((lightColor >> 16) & 0xff) / 255.0;
+		final double lightGreen = ((lightColor >> 8) & 0xff) / 255.0;
+		final double lightBlue = (lightColor & 0xff) / 255.0;
+
+		// With lighting, each band carries a one-value border so that every
+		// pixel can see its four neighbours.
+		final int border = light ? 1 : 0;
+		final int stride = width + 2 * border;
+		int band = Math.min(bandHeight, height);
+		final double[] values = new double[(band + 2 * border) * stride];
+		final int[] argb = new int[band * width];
+
+		for (int bandStart = 0; bandStart < height; bandStart += band) {
+			int rows = Math.min(band, height - bandStart);
+			if (light && wrapEnabled) {
+				source.getValues(0, bandStart, width, rows, values, stride + 1, stride);
+				source.getValues(0, wrap(bandStart - 1, height), width, 1, values, 1, stride);
+				source.getValues(0, wrap(bandStart + rows, height), width, 1, values, (rows + 1) * stride + 1, stride);
+				for (int row = 0; row < rows + 2; row++) {
+					values[row * stride] = values[row * stride + width];
+					values[row * stride + width + 1] = values[row * stride + 1];
+				}
+			} else {
+				source.getValues(-border, bandStart - border, stride, rows + 2 * border, values, 0, stride);
+			}
+
+			int minRows = Math.max(1, MIN_PARALLEL_PIXELS / width);
+			Parallel.forBands(0, rows, minRows, threadCount, new Parallel.BandTask() {
+				public void run(int start, int end) {
+					for (int row = start; row < end; row++) {
+						int src = (row + border) * stride + border;
+						int dst = row * width;
+						for (int x = 0; x < width; x++, src++, dst++) {
+							double value = values[src];
+							double position = (value - tableMin) * tableScale;
+							int index = position <= 0.0 ? 0 : (position >= table.length - 1 ? table.length - 1 : (int) (position + 0.5));
+							int color = table[index];
+							if (light) {
+								double intensity = ix * (values[src - 1] - values[src + 1]) + iy * (values[src - stride] - values[src + stride]) + io;
+								if (intensity < 0.0) {
+									intensity = 0.0;
+								}
+								intensity *= brightness;
+								color = applyLight(color, intensity * lightRed, intensity * lightGreen, intensity * lightBlue);
+							}
+							argb[dst] = color;
+						}
+					}
+				}
+			});
+			consumer.consume(bandStart, rows, argb);
+		}
+	}
+
+	private static int checkSize(int width, int height) {
+		if ((long) width * height > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("the image is too large for an array; render it band by band instead");
+		return width * height;
+	}
+
+	private static int wrap(int row, int height) {
+		return ((row % height) + height) % height;
+	}
+
+	// Blends a color onto an opaque white background using the color's
+	// alpha, as libnoise does when no background image is set.
+	static int blendOntoBackground(int argb) {
+		double alpha = (argb >>> 24) / 255.0;
+		int r = toChannel((1.0 - alpha) + alpha * (((argb >> 16) & 0xff) / 255.0));
+		int g = toChannel((1.0 - alpha) + alpha * (((argb >> 8) & 0xff) / 255.0));
+		int b = toChannel((1.0 - alpha) + alpha * ((argb & 0xff) / 255.0));
+		return 0xff000000 | (r << 16) | (g << 8) | b;
+	}
+
+	// Scales each color channel of an opaque color by the light value.
+	static int applyLight(int argb, double red, double green, double blue) {
+		int r = toChannel(((argb >> 16) & 0xff) / 255.0 * red);
+		int g = toChannel(((argb >> 8) & 0xff) / 255.0 * green);
+		int b = toChannel((argb & 0xff) / 255.0 * blue);
+		return 0xff000000 | (r << 16) | (g << 8) | b;
+	}
+
+	private static int toChannel(double value) {
+		if (value < 0.0) {
+			value = 0.0;
+		} else if (value > 1.0) {
+			value = 1.0;
+		}
+		return ((int) (value * 255.0)) & 0xff;
+	}
+}
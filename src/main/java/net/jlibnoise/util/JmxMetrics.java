@@ -0,0 +1,312 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A {@link MetricsRecorder} that publishes the throughput, latency,
+ * parallelism and cache figures of this library as a JMX MBean, for
+ * monitoring tools and dashboards.
+ * 
+ * install() registers an instance with the platform MBean server under
+ * {@link #OBJECT_NAME} and makes it the recorder of {@link Metrics}:
+ * 
+ * <pre>
+ * JmxMetrics.install();
+ * </pre>
+ * 
+ * Counters such as getSampleCount() run from installation or the last
+ * reset(); rates such as getSamplesPerSecond() cover the last
+ * {@link #WINDOW_SECONDS} complete seconds. Latencies are kept in a
+ * histogram with power-of-two buckets from 1 microsecond up.
+ */
+public class JmxMetrics implements MetricsRecorder, JmxMetricsMBean {
+	/// Name under which install() registers the MBean.
+	public static final String OBJECT_NAME = "net.jlibnoise:type=Metrics";
+
+	/// Number of complete seconds covered by the rates.
+	public static final int WINDOW_SECONDS = 10;
+
+	/// Base-2 logarithm of the upper bound of the first latency bucket, in
+	/// nanoseconds.
+	static final int FIRST_BUCKET_SHIFT = 10;
+
+	/// Number of latency buckets; the last one holds every latency from
+	/// 2^34 nanoseconds, about 17.2 seconds, up.
+	static final int BUCKET_COUNT = 26;
+
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	// The installed instance, if any.
+	private static JmxMetrics installed;
+
+	// System.nanoTime() when this instance was created.  Seconds are counted
+	// from it, since nanoTime() itself may be negative.
+	final long originNanos = System.nanoTime();
+
+	// Per-second totals of the last WINDOW_SECONDS + 1 seconds, indexed by
+	// second modulo the slot count; a slot whose stamp is not its second is
+	// stale.
+	final long[] slotSeconds = new long[WINDOW_SECONDS + 1];
+	final long[] slotSamples = new long[WINDOW_SECONDS + 1];
+	final long[] slotBusyNanos = new long[WINDOW_SECONDS + 1];
+
+	final long[] latencyHistogram = new long[BUCKET_COUNT];
+	long sampleCount;
+	long regionCount;
+	long regionNanos;
+	long cacheHits;
+	long cacheMisses;
+	long bandCount;
+	long bandWaitNanos;
+	int queuedBands;
+	int activeBands;
+
+	/**
+	 * Registers a new instance with the platform MBean server and installs
+	 * it as the recorder of {@link Metrics}, unless one is already
+	 * installed.
+	 * 
+	 * @return The installed instance.
+	 * @throws IllegalStateException if the MBean cannot be registered.
+	 */
+	public static synchronized JmxMetrics install() {
+		if (installed == null) {
+			JmxMetrics metrics = new JmxMetrics();
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+			} catch (JMException e) {
+				throw new IllegalStateException("cannot register " + OBJECT_NAME, e);
+			}
+			installed = metrics;
+		}
+		Metrics.setRecorder(installed);
+		return installed;
+	}
+
+	/**
+	 * Unregisters the installed instance and stops reporting to it.
+	 */
+	public static synchronized void uninstall() {
+		if (installed == null)
+			return;
+		if (Metrics.getRecorder() == installed) {
+			Metrics.setRecorder(null);
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("cannot unregister " + OBJECT_NAME, e);
+		} finally {
+			installed = null;
+		}
+	}
+
+	@Override
+	public synchronized void regionSampled(Object source, long samples, long nanos, int threadCount, long hits, long misses) {
+		sampleCount += samples;
+		regionCount++;
+		regionNanos += nanos;
+		cacheHits += hits;
+		cacheMisses += misses;
+		latencyHistogram[bucket(nanos)]++;
+		slotSamples[slot(second())] += samples;
+	}
+
+	@Override
+	public synchronized void bandQueued() {
+		queuedBands++;
+	}
+
+	@Override
+	public synchronized void bandStarted(boolean queued, long waitNanos) {
+		if (queued) {
+			queuedBands--;
+		}
+		activeBands++;
+		bandCount++;
+		bandWaitNanos += waitNanos;
+	}
+
+	@Override
+	public synchronized void bandFinished(long busyNanos) {
+		activeBands--;
+		slotBusyNanos[slot(second())] += busyNanos;
+	}
+
+	@Override
+	public synchronized long getSampleCount() {
+		return sampleCount;
+	}
+
+	@Override
+	public synchronized double getSamplesPerSecond() {
+		return (double) windowSum(slotSamples) / WINDOW_SECONDS;
+	}
+
+	@Override
+	public synchronized long getRegionCount() {
+		return regionCount;
+	}
+
+	@Override
+	public synchronized long[] getRegionLatencyHistogram() {
+		return latencyHistogram.clone();
+	}
+
+	@Override
+	public long[] getRegionLatencyBucketLimitsNanos() {
+		long[] limits = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+			limits[i] = 1L << (FIRST_BUCKET_SHIFT + i);
+		}
+		limits[BUCKET_COUNT - 1] = Long.MAX_VALUE;
+		return limits;
+	}
+
+	@Override
+	public synchronized double getRegionLatencyMeanMillis() {
+		return regionCount == 0 ? 0.0 : regionNanos / 1e6 / regionCount;
+	}
+
+	@Override
+	public synchronized double getRegionLatencyP50Millis() {
+		return percentile(0.5);
+	}
+
+	@Override
+	public synchronized double getRegionLatencyP99Millis() {
+		return percentile(0.99);
+	}
+
+	@Override
+	public synchronized int getQueuedBands() {
+		return queuedBands;
+	}
+
+	@Override
+	public synchronized int getActiveBands() {
+		return activeBands;
+	}
+
+	@Override
+	public synchronized double getBandWaitMeanMillis() {
+		return bandCount == 0 ? 0.0 : bandWaitNanos / 1e6 / bandCount;
+	}
+
+	@Override
+	public synchronized double getWorkerUtilization() {
+		return (double) windowSum(slotBusyNanos) / ((double) WINDOW_SECONDS * NANOS_PER_SECOND * Parallel.getDefaultThreadCount());
+	}
+
+	@Override
+	public synchronized long getCacheHits() {
+		return cacheHits;
+	}
+
+	@Override
+	public synchronized long getCacheMisses() {
+		return cacheMisses;
+	}
+
+	@Override
+	public synchronized double getCacheHitRatio() {
+		long lookups = cacheHits + cacheMisses;
+		return lookups == 0 ? Double.NaN : (double) cacheHits / lookups;
+	}
+
+	@Override
+	public synchronized void reset() {
+		Arrays.fill(slotSeconds, 0L);
+		Arrays.fill(slotSamples, 0L);
+		Arrays.fill(slotBusyNanos, 0L);
+		Arrays.fill(latencyHistogram, 0L);
+		sampleCount = 0;
+		regionCount = 0;
+		regionNanos = 0;
+		cacheHits = 0;
+		cacheMisses = 0;
+		bandCount = 0;
+		bandWaitNanos = 0;
+	}
+
+	// Returns the latency bucket of a duration.
+	static int bucket(long nanos) {
+		int bits = 64 - Long.numberOfLeadingZeros(Math.max(0L, nanos) >> FIRST_BUCKET_SHIFT);
+		return Math.min(bits, BUCKET_COUNT - 1);
+	}
+
+	// Returns the upper bound, in milliseconds, of the bucket that holds the
+	// given fraction of the regions.
+	private double percentile(double fraction) {
+		if (regionCount == 0)
+			return 0.0;
+		long rank = (long) Math.ceil(fraction * regionCount);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+			seen += latencyHistogram[i];
+			if (seen >= rank) {
+				return (1L << (FIRST_BUCKET_SHIFT + i)) / 1e6;
+			}
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	// Returns the number of whole seconds since this instance was created.
+	private long second() {
+		return (System.nanoTime() - originNanos) / NANOS_PER_SECOND;
+	}
+
+	// Returns the slot of a second, clearing it if it is stale.
+	private int slot(long second) {
+		int slot = (int) (second % slotSeconds.length);
+		if (slotSeconds[slot] != second) {
+			slotSeconds[slot] = second;
+			slotSamples[slot] = 0;
+			slotBusyNanos[slot] = 0;
+		}
+		return slot;
+	}
+
+	// Returns the sum of a per-second total over the last WINDOW_SECONDS
+	// complete seconds.
+	private long windowSum(long[] totals) {
+		long current = second();
+		long sum = 0;
+		for (int i = 0; i < slotSeconds.length; i++) {
+			long age = current - slotSeconds[i];
+			if (age >= 1 && age <= WINDOW_SECONDS) {
+				sum += totals[i];
+			}
+		}
+		return sum;
+	}
+}
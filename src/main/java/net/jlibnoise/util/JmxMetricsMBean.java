@@ -0,0 +1,98 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+/**
+ * The JMX management interface of {@link JmxMetrics}.
+ */
+public interface JmxMetricsMBean {
+	/**
+	 * Total number of samples in the sampled regions.
+	 */
+	long getSampleCount();
+
+	/**
+	 * Samples per second over the last JmxMetrics.WINDOW_SECONDS seconds.
+	 */
+	double getSamplesPerSecond();
+
+	/**
+	 * Total number of sampled regions.
+	 */
+	long getRegionCount();
+
+	/**
+	 * Number of regions in each latency bucket; see
+	 * getRegionLatencyBucketLimitsNanos().
+	 */
+	long[] getRegionLatencyHistogram();
+
+	/**
+	 * Exclusive upper bound of each latency bucket, in nanoseconds; the
+	 * last bucket is unbounded.
+	 */
+	long[] getRegionLatencyBucketLimitsNanos();
+
+	double getRegionLatencyMeanMillis();
+
+	/**
+	 * Median region latency, to the upper bound of its bucket.
+	 */
+	double getRegionLatencyP50Millis();
+
+	/**
+	 * 99th percentile region latency, to the upper bound of its bucket.
+	 */
+	double getRegionLatencyP99Millis();
+
+	/**
+	 * Bands handed to worker threads that have not started yet.
+	 */
+	int getQueuedBands();
+
+	/**
+	 * Bands running at the moment.
+	 */
+	int getActiveBands();
+
+	double getBandWaitMeanMillis();
+
+	/**
+	 * Share of the capacity of Parallel.getDefaultThreadCount() threads
+	 * that was spent running bands over the last JmxMetrics.WINDOW_SECONDS
+	 * seconds.
+	 */
+	double getWorkerUtilization();
+
+	long getCacheHits();
+
+	long getCacheMisses();
+
+	/**
+	 * Share of Cache lookups that were hits, or NaN before the first one.
+	 */
+	double getCacheHitRatio();
+
+	/**
+	 * Clears the counters and histograms; the gauges are unaffected.
+	 */
+	void reset();
+}
@@ -0,0 +1,95 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import net.jlibnoise.Module;
+
+/**
+ * Holds the {@link MetricsRecorder} that this library reports to.
+ * 
+ * No recorder is installed by default, in which case reporting costs a
+ * single check per region or band. The begin and end methods are used by
+ * the samplers; beginRegion() returns an opaque token, or null if no
+ * recorder is installed, to pass unchanged to endRegion().
+ */
+public final class Metrics {
+	// The state of a region request between beginRegion() and endRegion().
+	static final class Region {
+		final MetricsRecorder recorder;
+		final CacheCounts caches;
+		final long start;
+
+		Region(MetricsRecorder recorder, Module module) {
+			this.recorder = recorder;
+			this.caches = new CacheCounts(module);
+			this.start = System.nanoTime();
+		}
+	}
+
+	private static volatile MetricsRecorder recorder;
+
+	private Metrics() {
+	}
+
+	/**
+	 * Returns the installed recorder, or null if there is none.
+	 */
+	public static MetricsRecorder getRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Installs a recorder, replacing the previous one.
+	 * 
+	 * @param recorder The recorder, or null to stop reporting.
+	 */
+	public static void setRecorder(MetricsRecorder recorder) {
+		Metrics.recorder = recorder;
+	}
+
+	/**
+	 * Starts measuring a region request.
+	 * 
+	 * @param module The module at the root of the sampled graph.
+	 * @return The token of the request, or null if no recorder is
+	 *         installed.
+	 */
+	public static Object beginRegion(Module module) {
+		MetricsRecorder current = recorder;
+		return current == null ? null : new Region(current, module);
+	}
+
+	/**
+	 * Reports a region request to the recorder that was installed when it
+	 * began.
+	 * 
+	 * @param token The token returned by beginRegion().
+	 * @param source The sampler that served the request.
+	 * @param samples The number of samples in the region.
+	 * @param threadCount The number of threads that sampled the region.
+	 */
+	public static void endRegion(Object token, Object source, long samples, int threadCount) {
+		if (token != null) {
+			Region region = (Region) token;
+			region.recorder.regionSampled(source, samples, System.nanoTime() - region.start, threadCount, region.caches.getHits(), region.caches.getMisses());
+		}
+	}
+}
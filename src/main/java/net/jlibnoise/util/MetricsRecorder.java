@@ -0,0 +1,69 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+/**
+ * Receives measurements of the work done by this library: the regions
+ * sampled by the grid samplers and the bands run by {@link Parallel}.
+ * 
+ * Install an implementation with Metrics.setRecorder(); {@link JmxMetrics}
+ * publishes the measurements through JMX. The methods are called from the
+ * threads that do the work, possibly from several at once, so they must be
+ * thread-safe and should return quickly. They are called once per region
+ * or band, never per sample.
+ */
+public interface MetricsRecorder {
+	/**
+	 * Called after a grid sampler has filled a region.
+	 * 
+	 * @param source The sampler.
+	 * @param samples The number of samples in the region.
+	 * @param nanos The time the request took.
+	 * @param threadCount The number of threads that sampled the region.
+	 * @param cacheHits The hits of the Cache modules of the graph during
+	 *            the request, from all threads.
+	 * @param cacheMisses The misses of the Cache modules of the graph
+	 *            during the request, from all threads.
+	 */
+	void regionSampled(Object source, long samples, long nanos, int threadCount, long cacheHits, long cacheMisses);
+
+	/**
+	 * Called when a band has been handed to a worker thread.
+	 */
+	void bandQueued();
+
+	/**
+	 * Called when a band starts to run, on the thread that runs it.
+	 * 
+	 * @param queued Whether the band was handed to a worker thread, rather
+	 *            than run by the calling thread.
+	 * @param waitNanos The time the band waited for a worker thread; 0 if
+	 *            it was not queued.
+	 */
+	void bandStarted(boolean queued, long waitNanos);
+
+	/**
+	 * Called when a band has finished, on the thread that ran it.
+	 * 
+	 * @param busyNanos The time the band took.
+	 */
+	void bandFinished(long busyNanos);
+}
@@ -0,0 +1,155 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+/**
+ * A two-dimensional array of noise values held in memory.
+ * 
+ * The values are stored in row-major order. Reading a region that extends
+ * past the edges of the map repeats the nearest edge value, which matches
+ * how libnoise treats the borders of a noise map.
+ */
+public class NoiseMap implements GridSource {
+	// Number of columns.
+	final int width;
+
+	// Number of rows.
+	final int height;
+
+	// The values, in row-major order.
+	final double[] values;
+
+	/**
+	 * Creates a noise map filled with zeros.
+	 * 
+	 * @param width The number of columns.
+	 * @param height The number of rows.
+	 */
+	public NoiseMap(int width, int height) {
+		this(width, height, new double[checkSize(width, height)]);
+	}
+
+	/**
+	 * Creates a noise map backed by an existing array. The array is not
+	 * copied.
+	 * 
+	 * @param width The number of columns.
+	 * @param height The number of rows.
+	 * @param values The values, in row-major order.
+	 * @throws IllegalArgumentException if the array is smaller than
+	 *             <code>width * height</code>.
+	 */
+	public NoiseMap(int width, int height, double[] values) {
+		if (values.length < checkSize(width, height))
+			throw new IllegalArgumentException("values is too small");
+		this.width = width;
+		this.height = height;
+		this.values = values;
+	}
+
+	/**
+	 * Creates a noise map holding every value of a grid source.
+	 * 
+	 * @param source The grid source to copy.
+	 * @return The new noise map.
+	 */
+	public static NoiseMap copyOf(GridSource source) {
+		NoiseMap map = new NoiseMap(source.getWidth(), source.getHeight());
+		source.getValues(0, 0, map.width, map.height, map.values, 0, map.width);
+		return map;
+	}
+
+	private static int checkSize(int width, int height) {
+		if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("invalid noise map size");
+		return width * height;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the array that backs this noise map.
+	 * 
+	 * @return The values, in row-major order.
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Returns the value at the given position. Positions outside the map
+	 * return the nearest edge value.
+	 * 
+	 * @param x The column.
+	 * @param y The row.
+	 * @return The value.
+	 */
+	public double getValue(int x, int y) {
+		x = x < 0 ? 0 : (x >= width ? width - 1 : x);
+		y = y < 0 ? 0 : (y >= height ? height - 1 : y);
+		return values[y * width + x];
+	}
+
+	/**
+	 * Sets the value at the given position.
+	 * 
+	 * @param x The column.
+	 * @param y The row.
+	 * @param value The value.
+	 */
+	public void setValue(int x, int y, double value) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new IllegalArgumentException("position is outside the noise map");
+		values[y * width + x] = value;
+	}
+
+	public void getValues(int x, int y, int regionWidth, int regionHeight, double[] dest, int offset, int stride) {
+		if (width == 0 || height == 0)
+			throw new IllegalStateException("the noise map is empty");
+		for (int row = 0; row < regionHeight; row++) {
+			int sy = y + row;
+			sy = sy < 0 ? 0 : (sy >= height ? height - 1 : sy);
+			int src = sy * width;
+			int index = offset + row * stride;
+
+			// Copy the part of the row that lies inside the map in one go and
+			// repeat the edge values on either side.
+			int first = Math.max(x, 0);
+			int last = Math.min(x + regionWidth, width);
+			for (int cx = x; cx < first && cx < x + regionWidth; cx++) {
+				dest[index++] = values[src];
+			}
+			if (first < last) {
+				System.arraycopy(values, src + first, dest, index, last - first);
+				index += last - first;
+			}
+			for (int cx = Math.max(last, first); cx < x + regionWidth; cx++) {
+				dest[index++] = values[src + width - 1];
+			}
+		}
+	}
+}
@@ -0,0 +1,184 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits index ranges into bands and processes the bands concurrently.
+ * 
+ * The samplers and renderers use this to spread large requests over several
+ * threads. The calling thread always processes the first band itself; the
+ * remaining bands run on a shared pool of daemon threads. Because that pool
+ * grows on demand, a band may itself start a parallel request without
+ * risking a deadlock.
+ * 
+ * A module graph that is evaluated from several threads at once must be
+ * safe for concurrent calls to getValue(). Every module in this library is,
+ * as long as its parameters are not changed while a request is running.
+ */
+public final class Parallel {
+	/**
+	 * A unit of work over the half-open index range [start, end).
+	 */
+	public interface BandTask {
+		void run(int start, int end);
+	}
+
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "jlibnoise-worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	// Queued time of a band that is run by the calling thread.
+	private static final long NOT_QUEUED = Long.MIN_VALUE;
+
+	private static volatile int defaultThreadCount = Runtime.getRuntime().availableProcessors();
+
+	private Parallel() {
+	}
+
+	/**
+	 * Returns the number of threads used by requests that do not specify
+	 * one. Defaults to the number of available processors.
+	 * 
+	 * @return The default thread count.
+	 */
+	public static int getDefaultThreadCount() {
+		return defaultThreadCount;
+	}
+
+	/**
+	 * Sets the number of threads used by requests that do not specify one.
+	 * 
+	 * @param threadCount The default thread count; 1 disables parallelism.
+	 */
+	public static void setDefaultThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("threadCount must be at least 1");
+		defaultThreadCount = threadCount;
+	}
+
+	/**
+	 * Runs a task over [start, end), split into at most @a threadCount bands
+	 * of at least @a minBandSize indices each, and waits for all of them to
+	 * complete.
+	 * 
+	 * If the range is too small to split, the task runs once on the calling
+	 * thread. If any band throws, the first failure is rethrown after all
+	 * bands have finished.
+	 * 
+	 * @param start The first index.
+	 * @param end One past the last index.
+	 * @param minBandSize The smallest band worth handing to another thread.
+	 * @param threadCount The maximum number of bands.
+	 * @param task The task to run.
+	 */
+	public static void forBands(int start, int end, int minBandSize, int threadCount, final BandTask task) {
+		int count = end - start;
+		if (count <= 0)
+			return;
+		final MetricsRecorder recorder = Metrics.getRecorder();
+		int bands = Math.min(threadCount, count / Math.max(1, minBandSize));
+		if (bands <= 1) {
+			runBand(task, start, end, recorder, NOT_QUEUED);
+			return;
+		}
+
+		Future<?>[] futures = new Future<?>[bands - 1];
+		for (int i = 1; i < bands; i++) {
+			final int bandStart = start + (int) ((long) count * i / bands);
+			final int bandEnd = start + (int) ((long) count * (i + 1) / bands);
+			final long queued;
+			if (recorder != null) {
+				recorder.bandQueued();
+				queued = System.nanoTime();
+			} else {
+				queued = NOT_QUEUED;
+			}
+			futures[i - 1] = EXECUTOR.submit(new Runnable() {
+				public void run() {
+					runBand(task, bandStart, bandEnd, recorder, queued);
+				}
+			});
+		}
+
+		Throwable failure = null;
+		try {
+			runBand(task, start, start + count / bands, recorder, NOT_QUEUED);
+		} catch (Throwable t) {
+			failure = t;
+		}
+
+		// Always wait for every band, so that no worker is still writing into
+		// the caller's buffers once this method returns.
+		boolean interrupted = false;
+		for (int i = 0; i < futures.length; i++) {
+			while (true) {
+				try {
+					futures[i].get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (failure == null)
+						failure = e.getCause();
+					break;
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+		if (failure != null)
+			throw new RuntimeException(failure);
+	}
+
+	// Runs one band, reporting it to the recorder if there is one.
+	private static void runBand(BandTask task, int start, int end, MetricsRecorder recorder, long queued) {
+		if (recorder == null) {
+			task.run(start, end);
+			return;
+		}
+		long started = System.nanoTime();
+		boolean pooled = queued != NOT_QUEUED;
+		recorder.bandStarted(pooled, pooled ? started - queued : 0L);
+		try {
+			task.run(start, end);
+		} finally {
+			recorder.bandFinished(System.nanoTime() - started);
+		}
+	}
+}
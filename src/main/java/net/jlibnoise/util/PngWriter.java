@@ -0,0 +1,583 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes noise maps and rendered images as PNG files, compressing
+ * independent blocks of rows in parallel.
+ * 
+ * PNG image data is a single zlib stream, which a plain encoder has to
+ * deflate on one thread. This writer instead splits the rows into blocks of
+ * {@link #getBlockRows()} rows and deflates each block on its own thread as
+ * a separate raw deflate stream that ends on a byte boundary (a "sync
+ * flush"). Concatenated, the blocks form one valid deflate stream; the
+ * writer adds the zlib header and an Adler-32 checksum combined from the
+ * per-block checksums. The result is a standard PNG that any decoder
+ * reads. Each block starts with an empty dictionary, which costs a little
+ * compression compared to a single stream.
+ * 
+ * Rows are encoded as they arrive, a few blocks at a time, so an image can
+ * be streamed from an {@link ImageRenderer} or a {@link GridSource} without
+ * holding it in memory; see {@link #open}.
+ * 
+ * Supported formats are 8-bit grayscale, 16-bit grayscale and 8-bit RGBA.
+ * Grayscale images are written from noise values, which are mapped
+ * linearly from the range set by setRange() onto the full sample range and
+ * clamped. RGBA images are written from packed ARGB pixels.
+ */
+public class PngWriter {
+	/**
+	 * The pixel formats supported by the writer.
+	 */
+	public enum Format {
+		GRAY8(1, 8, 0), GRAY16(2, 16, 0), RGBA8(4, 8, 6);
+
+		final int bytesPerPixel;
+		final int bitDepth;
+		final int colorType;
+
+		Format(int bytesPerPixel, int bitDepth, int colorType) {
+			this.bytesPerPixel = bytesPerPixel;
+			this.bitDepth = bitDepth;
+			this.colorType = colorType;
+		}
+	}
+
+	/// Default number of rows deflated as one independent block.
+	public static final int DEFAULT_BLOCK_ROWS = 32;
+
+	// Noise value mapped to the lowest gray level.
+	double lowValue = -1.0;
+
+	// Noise value mapped to the highest gray level.
+	double highValue = 1.0;
+
+	// Number of rows deflated as one independent block.
+	int blockRows = DEFAULT_BLOCK_ROWS;
+
+	// Deflate compression level.
+	int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	// Maximum number of blocks deflated at once.
+	int threadCount = Parallel.getDefaultThreadCount();
+
+	public double getLowValue() {
+		return lowValue;
+	}
+
+	public double getHighValue() {
+		return highValue;
+	}
+
+	/**
+	 * Sets the range of noise values that is mapped onto the gray levels of
+	 * grayscale images.
+	 * 
+	 * @param lowValue The noise value mapped to black.
+	 * @param highValue The noise value mapped to white.
+	 */
+	public void setRange(double lowValue, double highValue) {
+		if (lowValue >= highValue)
+			throw new IllegalArgumentException("lowValue must be less than highValue");
+		this.lowValue = lowValue;
+		this.highValue = highValue;
+	}
+
+	public int getBlockRows() {
+		return blockRows;
+	}
+
+	/**
+	 * Sets the number of rows deflated as one independent block. Smaller
+	 * blocks spread better over threads; larger blocks compress better.
+	 * 
+	 * @param blockRows The number of rows per block.
+	 */
+	public void setBlockRows(int blockRows) {
+		if (blockRows < 1)
+			throw new IllegalArgumentException("blockRows must be at least 1");
+		this.blockRows = blockRows;
+	}
+
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	/**
+	 * Sets the deflate compression level.
+	 * 
+	 * @param compressionLevel A level from 0 to 9, or -1 for the default.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		if (compressionLevel < -1 || compressionLevel > 9)
+			throw new IllegalArgumentException("compressionLevel must be between -1 and 9");
+		this.compressionLevel = compressionLevel;
+	}
+
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the maximum number of blocks deflated at once.
+	 * 
+	 * @param threadCount The thread count; 1 deflates on the calling thread.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("threadCount must be at least 1");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Writes a grid source as a grayscale PNG. The channel is not closed.
+	 * 
+	 * @param source The grid source.
+	 * @param format {@link Format#GRAY8} or {@link Format#GRAY16}.
+	 * @param channel The destination channel.
+	 * @throws IOException if writing to the channel fails.
+	 */
+	public void write(GridSource source, Format format, WritableByteChannel channel) throws IOException {
+		int width = source.getWidth();
+		int height = source.getHeight();
+		Encoder encoder = open(channel, width, height, format);
+		int rows = Math.min(height, blockRows * threadCount);
+		double[] values = new double[rows * width];
+		for (int y = 0; y < height; y += rows) {
+			int count = Math.min(rows, height - y);
+			source.getValues(0, y, width, count, values, 0, width);
+			encoder.writeRows(values, 0, count);
+		}
+		encoder.finish();
+	}
+
+	/**
+	 * Writes packed ARGB pixels as an RGBA PNG. The channel is not closed.
+	 * 
+	 * @param argb The pixels in row-major order.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param channel The destination channel.
+	 * @throws IOException if writing to the channel fails.
+	 */
+	public void write(int[] argb, int width, int height, WritableByteChannel channel) throws IOException {
+		Encoder encoder = open(channel, width, height, Format.RGBA8);
+		encoder.writeRows(argb, 0, height);
+		encoder.finish();
+	}
+
+	/**
+	 * Writes an image as an RGBA PNG. The channel is not closed.
+	 * 
+	 * @param image The image.
+	 * @param channel The destination channel.
+	 * @throws IOException if writing to the channel fails.
+	 */
+	public void write(BufferedImage image, WritableByteChannel channel) throws IOException {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		Encoder encoder = open(channel, width, height, Format.RGBA8);
+		int rows = Math.min(height, blockRows * threadCount);
+		int[] argb = new int[rows * width];
+		for (int y = 0; y < height; y += rows) {
+			int count = Math.min(rows, height - y);
+			image.getRGB(0, y, width, count, argb, 0, width);
+			encoder.writeRows(argb, 0, count);
+		}
+		encoder.finish();
+	}
+
+	/**
+	 * Renders a grid source and writes it as an RGBA PNG, one band at a
+	 * time, so that neither the noise values nor the image are held in
+	 * memory as a whole. The channel is not closed.
+	 * 
+	 * @param renderer The renderer.
+	 * @param source The grid source.
+	 * @param channel The destination channel.
+	 * @throws IOException if writing to the channel fails.
+	 */
+	public void write(ImageRenderer renderer, GridSource source, WritableByteChannel channel) throws IOException {
+		final Encoder encoder = open(channel, source.getWidth(), source.getHeight(), Format.RGBA8);
+		final IOException[] failure = new IOException[1];
+		renderer.render(source, new ImageRenderer.BandConsumer() {
+			public void consume(int startRow, int rowCount, int[] argb) {
+				if (failure[0] != null)
+					return;
+				try {
+					encoder.writeRows(argb, 0, rowCount);
+				} catch (IOException e) {
+					failure[0] = e;
+				}
+			}
+		});
+		if (failure[0] != null)
+			throw failure[0];
+		encoder.finish();
+	}
+
+	/**
+	 * Starts writing a PNG file whose rows are supplied incrementally.
+	 * 
+	 * @param channel The destination channel; it is not closed.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param format The pixel format.
+	 * @return An encoder that accepts the rows of the image in order.
+	 * @throws IOException if writing to the channel fails.
+	 */
+	public Encoder open(WritableByteChannel channel, int width, int height, Format format) throws IOException {
+		if (width < 1 || height < 1)
+			throw new IllegalArgumentException("the image is empty");
+		if ((long) width * format.bytesPerPixel + 1 > Integer.MAX_VALUE / Math.max(1, blockRows))
+			throw new IllegalArgumentException("the image is too wide");
+		return new Encoder(channel, width, height, format);
+	}
+
+	/**
+	 * Encodes the rows of one PNG file. Rows are buffered until a full set
+	 * of blocks is available, then deflated in parallel and written.
+	 */
+	public final class Encoder {
+		final PngOutput png;
+		final int width;
+		final int height;
+		final Format format;
+		final int rowBytes;
+		final int blocks;
+		final int rows;
+
+		// The writer's settings when the encoder was opened, so that changing
+		// them while an image is being written does not affect it.
+		final double lowValue;
+		final double highValue;
+		final int blockRows;
+		final int compressionLevel;
+		final int threadCount;
+
+		// Unfiltered rows waiting to be deflated, plus the last row of the
+		// previous set in front of them for the "up" filter.  Before the
+		// first row that slot is all zeros, as the PNG filters require.
+		final byte[] raw;
+		int pendingRows = 0;
+		int writtenRows = 0;
+
+		// Per-block state, reused for every set of blocks.
+		final Deflater[] deflaters;
+		final byte[][] filtered;
+		final byte[][] output;
+		final int[] outputLength;
+		final long[] checksums;
+		final int[] blockLengths;
+
+		long adler = 1;
+		boolean headerWritten = false;
+
+		Encoder(WritableByteChannel channel, int width, int height, Format format) throws IOException {
+			this.png = new PngOutput(channel);
+			this.width = width;
+			this.height = height;
+			this.format = format;
+			this.rowBytes = width * format.bytesPerPixel;
+			this.lowValue = PngWriter.this.lowValue;
+			this.highValue = PngWriter.this.highValue;
+			this.blockRows = PngWriter.this.blockRows;
+			this.compressionLevel = PngWriter.this.compressionLevel;
+			this.threadCount = PngWriter.this.threadCount;
+			this.blocks = threadCount;
+			this.rows = blockRows * blocks;
+			this.raw = new byte[(rows + 1) * rowBytes];
+			this.deflaters = new Deflater[blocks];
+			this.filtered = new byte[blocks][blockRows * (rowBytes + 1)];
+			this.output = new byte[blocks][];
+			this.outputLength = new int[blocks];
+			this.checksums = new long[blocks];
+			this.blockLengths = new int[blocks];
+			for (int i = 0; i < blocks; i++) {
+				output[i] = new byte[blockRows * (rowBytes + 1) / 2 + 64];
+			}
+			png.writeHeader(width, height, format.bitDepth, format.colorType);
+		}
+
+		/**
+		 * Appends grayscale rows given as noise values.
+		 * 
+		 * @param values The noise values in row-major order.
+		 * @param offset The index of the first value.
+		 * @param rowCount The number of rows.
+		 * @throws IOException if writing to the channel fails.
+		 */
+		public void writeRows(double[] values, int offset, int rowCount) throws IOException {
+			if (format == Format.RGBA8)
+				throw new IllegalStateException("RGBA images are written from ARGB pixels");
+			checkRows(rowCount);
+			double scale = (format == Format.GRAY16 ? 65535.0 : 255.0) / (highValue - lowValue);
+			double max = format == Format.GRAY16 ? 65535.0 : 255.0;
+			for (int r = 0; r < rowCount; r++) {
+				int dst = (pendingRows + 1) * rowBytes;
+				int src = offset + r * width;
+				for (int x = 0; x < width; x++) {
+					double level = (values[src + x] - lowValue) * scale + 0.5;
+					int sample = level <= 0.0 ? 0 : (level >= max ? (int) max : (int) level);
+					if (format == Format.GRAY16) {
+						raw[dst++] = (byte) (sample >> 8);
+					}
+					raw[dst++] = (byte) sample;
+				}
+				rowAdded();
+			}
+		}
+
+		/**
+		 * Appends RGBA rows given as packed ARGB pixels.
+		 * 
+		 * @param argb The pixels in row-major order.
+		 * @param offset The index of the first pixel.
+		 * @param rowCount The number of rows.
+		 * @throws IOException if writing to the channel fails.
+		 */
+		public void writeRows(int[] argb, int offset, int rowCount) throws IOException {
+			if (format != Format.RGBA8)
+				throw new IllegalStateException("grayscale images are written from noise values");
+			checkRows(rowCount);
+			for (int r = 0; r < rowCount; r++) {
+				int dst = (pendingRows + 1) * rowBytes;
+				int src = offset + r * width;
+				for (int x = 0; x < width; x++) {
+					int pixel = argb[src + x];
+					raw[dst++] = (byte) (pixel >> 16);
+					raw[dst++] = (byte) (pixel >> 8);
+					raw[dst++] = (byte) pixel;
+					raw[dst++] = (byte) (pixel >>> 24);
+				}
+				rowAdded();
+			}
+		}
+
+		/**
+		 * Writes the remaining rows and the end of the file. All rows of the
+		 * image must have been written.
+		 * 
+		 * @throws IOException if writing to the channel fails.
+		 */
+		public void finish() throws IOException {
+			if (writtenRows + pendingRows != height)
+				throw new IllegalStateException("not all rows have been written");
+			flush();
+
+			// An empty final block terminates the deflate stream, followed by
+			// the checksum of the whole uncompressed stream.
+			Deflater last = new Deflater(compressionLevel, true);
+			byte[] tail = new byte[64];
+			int length = 0;
+			try {
+				last.finish();
+				while (!last.finished()) {
+					length += last.deflate(tail, length, tail.length - length - 4);
+				}
+			} finally {
+				last.end();
+			}
+			tail[length++] = (byte) (adler >> 24);
+			tail[length++] = (byte) (adler >> 16);
+			tail[length++] = (byte) (adler >> 8);
+			tail[length++] = (byte) adler;
+			png.writeChunk(PngOutput.IDAT, tail, 0, length);
+			png.writeEnd();
+
+			for (int i = 0; i < blocks; i++) {
+				if (deflaters[i] != null) {
+					deflaters[i].end();
+					deflaters[i] = null;
+				}
+			}
+		}
+
+		private void checkRows(int rowCount) {
+			if (rowCount < 0 || writtenRows + pendingRows + rowCount > height)
+				throw new IllegalArgumentException("too many rows");
+		}
+
+		private void rowAdded() throws IOException {
+			pendingRows++;
+			if (pendingRows == rows) {
+				flush();
+			}
+		}
+
+		// Filters and deflates the pending rows, one block per thread, and
+		// writes the blocks in order.
+		private void flush() throws IOException {
+			if (pendingRows == 0)
+				return;
+			final int blockCount = (pendingRows + blockRows - 1) / blockRows;
+			final int pending = pendingRows;
+			Parallel.forBands(0, blockCount, 1, threadCount, new Parallel.BandTask() {
+				public void run(int start, int end) {
+					for (int b = start; b < end; b++) {
+						deflateBlock(b, b * blockRows, Math.min(blockRows, pending - b * blockRows));
+					}
+				}
+			});
+
+			for (int b = 0; b < blockCount; b++) {
+				byte[] data = output[b];
+				int length = outputLength[b];
+				if (!headerWritten) {
+					// Prepend the zlib header to the first block.
+					byte[] withHeader = new byte[length + 2];
+					withHeader[0] = 0x78;
+					withHeader[1] = (byte) 0x9c;
+					System.arraycopy(data, 0, withHeader, 2, length);
+					data = withHeader;
+					length += 2;
+					headerWritten = true;
+				}
+				png.writeChunk(PngOutput.IDAT, data, 0, length);
+				adler = combineAdler32(adler, checksums[b], blockLengths[b]);
+			}
+
+			// Keep the last row for filtering the first row of the next set.
+			System.arraycopy(raw, pending * rowBytes, raw, 0, rowBytes);
+			writtenRows += pending;
+			pendingRows = 0;
+		}
+
+		// Applies the "up" filter to a block of rows and deflates it into a
+		// byte-aligned raw deflate stream.
+		void deflateBlock(int block, int firstRow, int rowCount) {
+			byte[] out = filtered[block];
+			int length = 0;
+			for (int r = firstRow; r < firstRow + rowCount; r++) {
+				int current = (r + 1) * rowBytes;
+				int above = r * rowBytes;
+				out[length++] = 2;
+				for (int i = 0; i < rowBytes; i++) {
+					out[length++] = (byte) (raw[current + i] - raw[above + i]);
+				}
+			}
+
+			Adler32 checksum = new Adler32();
+			checksum.update(out, 0, length);
+			checksums[block] = checksum.getValue();
+			blockLengths[block] = length;
+
+			Deflater deflater = deflaters[block];
+			if (deflater == null) {
+				deflater = new Deflater(compressionLevel, true);
+				deflaters[block] = deflater;
+			} else {
+				deflater.reset();
+			}
+			deflater.setInput(out, 0, length);
+			byte[] buffer = output[block];
+			int produced = 0;
+			while (true) {
+				produced += deflater.deflate(buffer, produced, buffer.length - produced, Deflater.SYNC_FLUSH);
+				if (produced < buffer.length)
+					break;
+				byte[] larger = new byte[buffer.length * 2];
+				System.arraycopy(buffer, 0, larger, 0, produced);
+				buffer = larger;
+			}
+			output[block] = buffer;
+			outputLength[block] = produced;
+		}
+	}
+
+	// Combines the Adler-32 checksums of two consecutive byte sequences, the
+	// second of which is length2 bytes long.  This is zlib's
+	// adler32_combine().
+	static long combineAdler32(long adler1, long adler2, long length2) {
+		final long base = 65521;
+		long remainder = length2 % base;
+		long sum1 = adler1 & 0xffff;
+		long sum2 = (remainder * sum1) % base;
+		sum1 += (adler2 & 0xffff) + base - 1;
+		sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + base - remainder;
+		if (sum1 >= base)
+			sum1 -= base;
+		if (sum1 >= base)
+			sum1 -= base;
+		if (sum2 >= (base << 1))
+			sum2 -= (base << 1);
+		if (sum2 >= base)
+			sum2 -= base;
+		return sum1 | (sum2 << 16);
+	}
+
+	/**
+	 * Writes the chunk structure of a PNG file.
+	 */
+	static class PngOutput {
+		static final byte[] IHDR = { 'I', 'H', 'D', 'R' };
+		static final byte[] IDAT = { 'I', 'D', 'A', 'T' };
+		static final byte[] IEND = { 'I', 'E', 'N', 'D' };
+		static final byte[] SIGNATURE = { (byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n' };
+
+		final WritableByteChannel channel;
+		final CRC32 crc = new CRC32();
+		final ByteBuffer frame = ByteBuffer.allocate(8);
+
+		PngOutput(WritableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		void writeHeader(int width, int height, int bitDepth, int colorType) throws IOException {
+			writeFully(ByteBuffer.wrap(SIGNATURE));
+			ByteBuffer ihdr = ByteBuffer.allocate(13);
+			ihdr.putInt(width).putInt(height).put((byte) bitDepth).put((byte) colorType);
+			ihdr.put((byte) 0).put((byte) 0).put((byte) 0);
+			writeChunk(IHDR, ihdr.array(), 0, 13);
+		}
+
+		void writeChunk(byte[] type, byte[] data, int offset, int length) throws IOException {
+			crc.reset();
+			crc.update(type);
+			crc.update(data, offset, length);
+			frame.clear();
+			frame.putInt(length).put(type).flip();
+			writeFully(frame);
+			writeFully(ByteBuffer.wrap(data, offset, length));
+			frame.clear();
+			frame.putInt((int) crc.getValue()).flip();
+			writeFully(frame);
+		}
+
+		void writeEnd() throws IOException {
+			writeChunk(IEND, new byte[0], 0, 0);
+		}
+
+		private void writeFully(ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+}
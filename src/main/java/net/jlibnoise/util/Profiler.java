@@ -0,0 +1,405 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.exception.NoModuleException;
+
+/**
+ * Measures where a module graph spends its time.
+ * 
+ * attach() inserts a probe between every module of a graph and each of its
+ * source modules, and returns a probe for the root module; the graph is
+ * then evaluated through that probe as usual, from any number of threads.
+ * Each probe counts the input values its module is evaluated at and the
+ * time the module takes, both <i>inclusive</i> of its source modules and
+ * <i>exclusive</i> of them. detach() restores the original connections.
+ * 
+ * Reading the clock around every module would cost more than many modules
+ * do, so only one in every getSampleInterval() calls to the root probe is
+ * timed, together with everything it evaluates; the times are scaled up
+ * accordingly. Call counts are always exact, so a module that is evaluated
+ * several times per sample, for lack of a {@link net.jlibnoise.modifier.Cache},
+ * stands out in the report.
+ * 
+ * The graph must not be changed while it is attached. A module that is
+ * shared by several parents has a single probe, so its figures cover all
+ * of its uses.
+ */
+public class Profiler {
+	/// Default number of root calls per timed root call.
+	public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+	/**
+	 * The figures of one module of the profiled graph.
+	 */
+	public static final class Node {
+		final Module module;
+
+		// The probe of each source module, in source order.
+		final Node[] sources;
+
+		// The original source module connections, restored by detach().
+		final Module[] originalSources;
+
+		final Probe probe;
+
+		final LongAdder calls = new LongAdder();
+		final LongAdder timedCalls = new LongAdder();
+		final LongAdder inclusiveNanos = new LongAdder();
+		final LongAdder exclusiveNanos = new LongAdder();
+
+		Node(Module module, Profiler profiler) {
+			this.module = module;
+			this.sources = new Node[module.getSourceModuleCount()];
+			this.originalSources = new Module[sources.length];
+			this.probe = new Probe(this, profiler);
+		}
+
+		public Module getModule() {
+			return module;
+		}
+
+		/**
+		 * Returns the number of input values that the module was evaluated
+		 * at, through getValue() or getValues().
+		 */
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		/**
+		 * Returns the estimated time spent in the module and its source
+		 * modules.
+		 */
+		public long getInclusiveNanos() {
+			return scale(inclusiveNanos.sum());
+		}
+
+		/**
+		 * Returns the estimated time spent in the module itself.
+		 */
+		public long getExclusiveNanos() {
+			return scale(exclusiveNanos.sum());
+		}
+
+		private long scale(long nanos) {
+			long timed = timedCalls.sum();
+			return timed == 0 ? 0 : (long) ((double) nanos * calls.sum() / timed);
+		}
+	}
+
+	// The timing state of one thread.
+	static final class State {
+		// Nesting depth of the probe being evaluated; 0 outside the graph.
+		int depth;
+
+		// Whether the current root call is timed.
+		boolean timing;
+
+		// Root calls since the last timed one.
+		int untimedCalls;
+
+		// Time spent in the source modules of the probe being evaluated.
+		long childNanos;
+	}
+
+	// Module that counts and times the calls to the module it stands for.
+	static final class Probe extends Module {
+		final Node node;
+
+		final Profiler profiler;
+
+		Probe(Node node, Profiler profiler) {
+			super(1);
+			this.node = node;
+			this.profiler = profiler;
+			sourceModule[0] = node.module;
+		}
+
+		@Override
+		public int getSourceModuleCount() {
+			return 1;
+		}
+
+		@Override
+		public double getValue(double x, double y, double z) {
+			State state = profiler.enter();
+			node.calls.increment();
+			if (!state.timing) {
+				try {
+					return node.module.getValue(x, y, z);
+				} finally {
+					state.depth--;
+				}
+			}
+			long savedChildNanos = state.childNanos;
+			state.childNanos = 0;
+			long start = System.nanoTime();
+			try {
+				return node.module.getValue(x, y, z);
+			} finally {
+				profiler.exit(state, node, 1, System.nanoTime() - start, savedChildNanos);
+			}
+		}
+
+		@Override
+		public void getValues(double[] x, double[] y, double[] z, int srcOffset, double[] dest, int destOffset, int count) {
+			State state = profiler.enter();
+			node.calls.add(count);
+			if (!state.timing) {
+				try {
+					node.module.getValues(x, y, z, srcOffset, dest, destOffset, count);
+				} finally {
+					state.depth--;
+				}
+				return;
+			}
+			long savedChildNanos = state.childNanos;
+			state.childNanos = 0;
+			long start = System.nanoTime();
+			try {
+				node.module.getValues(x, y, z, srcOffset, dest, destOffset, count);
+			} finally {
+				profiler.exit(state, node, count, System.nanoTime() - start, savedChildNanos);
+			}
+		}
+	}
+
+	// Node of the root module while a graph is attached, null otherwise.
+	Node root;
+
+	// Every node of the graph, in the order they were discovered.
+	final List<Node> nodes = new ArrayList<Node>();
+
+	// Number of root calls per timed root call.
+	volatile int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+	final ThreadLocal<State> states = new ThreadLocal<State>() {
+		@Override
+		protected State initialValue() {
+			return new State();
+		}
+	};
+
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * Sets how many calls to the root probe share one timed call. 1 times
+	 * every call, which gives the most precise figures at the highest cost.
+	 * 
+	 * @param sampleInterval The sample interval.
+	 */
+	public void setSampleInterval(int sampleInterval) {
+		if (sampleInterval < 1)
+			throw new IllegalArgumentException("sampleInterval must be at least 1");
+		this.sampleInterval = sampleInterval;
+	}
+
+	/**
+	 * Inserts probes into a graph. The graph must be evaluated through the
+	 * returned module for the root calls to be counted.
+	 * 
+	 * @param rootModule The module at the root of the graph.
+	 * @return The probe of the root module.
+	 * @throws IllegalStateException if a graph is already attached.
+	 */
+	public synchronized Module attach(Module rootModule) {
+		if (root != null)
+			throw new IllegalStateException("a graph is already attached");
+		nodes.clear();
+		IdentityHashMap<Module, Node> known = new IdentityHashMap<Module, Node>();
+		root = node(rootModule, known);
+		ArrayDeque<Node> pending = new ArrayDeque<Node>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			Node node = pending.pop();
+			for (int i = 0; i < node.sources.length; i++) {
+				Module source;
+				try {
+					source = node.module.getSourceModule(i);
+				} catch (NoModuleException e) {
+					// Unconnected source modules are left alone.
+					continue;
+				}
+				boolean discovered = !known.containsKey(source);
+				node.originalSources[i] = source;
+				node.sources[i] = node(source, known);
+				if (discovered) {
+					pending.push(node.sources[i]);
+				}
+			}
+		}
+		for (Node node : nodes) {
+			for (int i = 0; i < node.sources.length; i++) {
+				if (node.sources[i] != null) {
+					node.module.setSourceModule(i, node.sources[i].probe);
+				}
+			}
+		}
+		return root.probe;
+	}
+
+	/**
+	 * Removes the probes from the attached graph. The recorded figures
+	 * remain available until the next attach().
+	 */
+	public synchronized void detach() {
+		if (root == null)
+			return;
+		for (Node node : nodes) {
+			for (int i = 0; i < node.sources.length; i++) {
+				if (node.originalSources[i] != null) {
+					node.module.setSourceModule(i, node.originalSources[i]);
+				}
+			}
+		}
+		root = null;
+	}
+
+	/**
+	 * Returns the node of the root module, or null if no graph has been
+	 * attached.
+	 */
+	public Node getRoot() {
+		return nodes.isEmpty() ? null : nodes.get(0);
+	}
+
+	/**
+	 * Returns the node of every module of the graph, the root first.
+	 */
+	public List<Node> getNodes() {
+		return Collections.unmodifiableList(nodes);
+	}
+
+	/**
+	 * Returns the number of input values that the modules of the graph
+	 * were evaluated at, summed over all modules.
+	 */
+	public long getTotalCalls() {
+		long calls = 0;
+		for (Node node : nodes) {
+			calls += node.getCalls();
+		}
+		return calls;
+	}
+
+	/**
+	 * Prints the graph as a tree, with the share of the total time and the
+	 * calls per sample of each module, followed by the modules that take
+	 * the most time themselves. A module that is shared by several parents
+	 * is expanded under the first one only.
+	 * 
+	 * @param out The stream to print to.
+	 */
+	public void printReport(PrintStream out) {
+		Node rootNode = getRoot();
+		if (rootNode == null) {
+			out.println("No graph profiled.");
+			return;
+		}
+		long samples = Math.max(1, rootNode.getCalls());
+		double total = Math.max(1, rootNode.getInclusiveNanos());
+		out.printf("%d samples, %.1f ms, %.1f ns per sample%n", rootNode.getCalls(), total / 1e6, total / samples);
+		out.println("  incl%   excl%  calls/sample    ns/call  module");
+		printTree(out, rootNode, 0, samples, total, Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>()));
+
+		List<Node> hottest = new ArrayList<Node>(nodes);
+		Collections.sort(hottest, new Comparator<Node>() {
+			public int compare(Node a, Node b) {
+				return Long.compare(b.getExclusiveNanos(), a.getExclusiveNanos());
+			}
+		});
+		out.println();
+		out.println("Hottest modules by exclusive time:");
+		for (int i = 0; i < Math.min(5, hottest.size()); i++) {
+			Node node = hottest.get(i);
+			out.printf("%6.1f%%  %s%n", 100.0 * node.getExclusiveNanos() / total, name(node));
+		}
+	}
+
+	private void printTree(PrintStream out, Node node, int depth, long samples, double total, Set<Node> printed) {
+		boolean repeated = !printed.add(node);
+		long calls = node.getCalls();
+		StringBuilder indent = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			indent.append("  ");
+		}
+		out.printf("%6.1f%% %6.1f%% %13.2f %10.1f  %s%s%s%n", 100.0 * node.getInclusiveNanos() / total, 100.0 * node.getExclusiveNanos() / total, (double) calls / samples,
+				calls == 0 ? 0.0 : (double) node.getInclusiveNanos() / calls, indent, name(node), repeated ? " (shared, see above)" : "");
+		if (repeated) {
+			return;
+		}
+		for (Node source : node.sources) {
+			if (source != null) {
+				printTree(out, source, depth + 1, samples, total, printed);
+			}
+		}
+	}
+
+	private String name(Node node) {
+		return node.module.getClass().getSimpleName() + "#" + nodes.indexOf(node);
+	}
+
+	private Node node(Module module, IdentityHashMap<Module, Node> known) {
+		Node node = known.get(module);
+		if (node == null) {
+			node = new Node(module, this);
+			known.put(module, node);
+			nodes.add(node);
+		}
+		return node;
+	}
+
+	// Called on entry to every probe; decides at the root whether the call
+	// is timed.
+	State enter() {
+		State state = states.get();
+		if (state.depth++ == 0) {
+			state.timing = ++state.untimedCalls >= sampleInterval;
+			if (state.timing) {
+				state.untimedCalls = 0;
+			}
+		}
+		return state;
+	}
+
+	// Called on exit from a timed probe.
+	void exit(State state, Node node, int count, long elapsed, long savedChildNanos) {
+		node.timedCalls.add(count);
+		node.inclusiveNanos.add(elapsed);
+		node.exclusiveNanos.add(elapsed - state.childNanos);
+		state.childNanos = savedChildNanos + elapsed;
+		state.depth--;
+	}
+}
@@ -0,0 +1,194 @@
+/* Copyright (C) 2011 Garrett Fleenor
+
+ This library is free software; you can redistribute it and/or modify it
+ under the terms of the GNU Lesser General Public License as published by
+ the Free Software Foundation; either version 3.0 of the License, or (at
+ your option) any later version.
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ License (COPYING.txt) for more details.
+
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation,
+ Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+ This is a port of libnoise ( http://libnoise.sourceforge.net/index.html ).  Original implementation by Jason Bevins
+
+*/
+
+package net.jlibnoise.util;
+
+/**
+ * Derives surface normals, slope and curvature from a height map in a
+ * single pass.
+ * 
+ * The height map is read from a {@link GridSource} one square tile at a
+ * time. Each tile is read with a one-value border, so every derived value
+ * is computed from the four neighbours of its cell, including the cells on
+ * the edges of the tile. On the edges of the grid itself the neighbours
+ * come from outside the grid, as defined by the source: grid samplers
+ * continue the surface, so adjacent maps line up seamlessly, while a
+ * {@link NoiseMap} repeats its edge values.
+ * 
+ * Any subset of the derived layers can be requested; a layer whose buffer
+ * is null is skipped. All layers are written in row-major order:
+ * 
+ * - <i>normals</i> holds three values per cell, the ( x, y, z ) components
+ *   of the unit surface normal. x points along the rows, y along the
+ *   columns and z up, out of the height map.
+ * - <i>slope</i> holds the angle between the surface and the horizontal,
+ *   in radians.
+ * - <i>curvature</i> holds the Laplacian of the height: negative on ridges
+ *   and peaks, positive in valleys and pits.
+ * 
+ * Tiles are processed concurrently; see {@link #setThreadCount(int)}.
+ */
+public class TerrainAnalyzer {
+	/// Default edge length of a tile, in cells.
+	public static final int DEFAULT_TILE_SIZE = 128;
+
+	// Horizontal distance between two adjacent cells.
+	double cellSize = 1.0;
+
+	// Factor applied to the height values before the derivatives are taken.
+	double heightScale = 1.0;
+
+	// Edge length of a tile, in cells.
+	int tileSize = DEFAULT_TILE_SIZE;
+
+	// Maximum number of threads used by a single request.
+	int threadCount = Parallel.getDefaultThreadCount();
+
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Sets the horizontal distance between two adjacent cells, in the same
+	 * units as the scaled height values.
+	 * 
+	 * @param cellSize The cell size.
+	 */
+	public void setCellSize(double cellSize) {
+		if (cellSize <= 0.0)
+			throw new IllegalArgumentException("cellSize must be positive");
+		this.cellSize = cellSize;
+	}
+
+	public double getHeightScale() {
+		return heightScale;
+	}
+
+	/**
+	 * Sets the factor applied to the height values before the derivatives
+	 * are taken.
+	 * 
+	 * @param heightScale The height scale.
+	 */
+	public void setHeightScale(double heightScale) {
+		this.heightScale = heightScale;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Sets the edge length of a tile, in cells. Smaller tiles keep the
+	 * working set in cache; larger tiles read fewer border values.
+	 * 
+	 * @param tileSize The tile size.
+	 */
+	public void setTileSize(int tileSize) {
+		if (tileSize < 1)
+			throw new IllegalArgumentException("tileSize must be at least 1");
+		this.tileSize = tileSize;
+	}
+
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the maximum number of threads used by a single request.
+	 * 
+	 * @param threadCount The thread count; 1 processes every tile on the
+	 *            calling thread.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("threadCount must be at least 1");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Computes the requested layers for the whole grid.
+	 * 
+	 * @param source The height map.
+	 * @param normals Receives three values per cell, or null.
+	 * @param slope Receives one value per cell, or null.
+	 * @param curvature Receives one value per cell, or null.
+	 * @throws IllegalArgumentException if a buffer is too small.
+	 */
+	public void analyze(final GridSource source, final float[] normals, final float[] slope, final float[] curvature) {
+		final int width = source.getWidth();
+		final int height = source.getHeight();
+		long cells = (long) width * height;
+		if ((normals != null && normals.length < cells * 3) || (slope != null && slope.length < cells) || (curvature != null && curvature.length < cells))
+			throw new IllegalArgumentException("buffer is too small");
+		if (cells == 0 || (normals == null && slope == null && curvature == null))
+			return;
+
+		final int tile = tileSize;
+		final int tilesX = (width + tile - 1) / tile;
+		int tilesY = (height + tile - 1) / tile;
+
+		// Height differences are scaled by heightScale and divided by the
+		// distance between the two neighbours.
+		final double gradientScale = heightScale / (2.0 * cellSize);
+		final double laplacianScale = heightScale / (cellSize * cellSize);
+
+		Parallel.forBands(0, tilesX * tilesY, 1, threadCount, new Parallel.BandTask() {
+			public void run(int start, int end) {
+				int stride = tile + 2;
+				double[] values = new double[stride * stride];
+				for (int t = start; t < end; t++) {
+					int x0 = (t % tilesX) * tile;
+					int y0 = (t / tilesX) * tile;
+					int w = Math.min(tile, width - x0);
+					int h = Math.min(tile, height - y0);
+					source.getValues(x0 - 1, y0 - 1, w + 2, h + 2, values, 0, stride);
+
+					for (int y = 0; y < h; y++) {
+						int src = (y + 1) * stride + 1;
+						int dst = (y0 + y) * width + x0;
+						for (int x = 0; x < w; x++, src++, dst++) {
+							double center = values[src];
+							double left = values[src - 1];
+							double right = values[src + 1];
+							double down = values[src - stride];
+							double up = values[src + stride];
+
+							double dx = (right - left) * gradientScale;
+							double dy = (up - down) * gradientScale;
+							if (normals != null) {
+								double length = Math.sqrt(dx * dx + dy * dy + 1.0);
+								normals[dst * 3] = (float) (-dx / length);
+								normals[dst * 3 + 1] = (float) (-dy / length);
+								normals[dst * 3 + 2] = (float) (1.0 / length);
+							}
+							if (slope != null) {
+								slope[dst] = (float) Math.atan(Math.sqrt(dx * dx + dy * dy));
+							}
+							if (curvature != null) {
+								curvature[dst] = (float) ((left + right + down + up - 4.0 * center) * laplacianScale);
+							}
+						}
+					}
+				}
+			}
+		});
+	}
+}
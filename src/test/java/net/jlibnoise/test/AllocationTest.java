@@ -0,0 +1,272 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.jlibnoise.MathPrecision;
+import net.jlibnoise.Module;
+import net.jlibnoise.Utils;
+import net.jlibnoise.combiner.Add;
+import net.jlibnoise.combiner.Displace;
+import net.jlibnoise.combiner.Max;
+import net.jlibnoise.combiner.Min;
+import net.jlibnoise.combiner.Multiply;
+import net.jlibnoise.combiner.NaryAdd;
+import net.jlibnoise.combiner.NaryMax;
+import net.jlibnoise.combiner.NaryMin;
+import net.jlibnoise.combiner.NaryMultiply;
+import net.jlibnoise.combiner.Power;
+import net.jlibnoise.filter.Billow;
+import net.jlibnoise.filter.RidgedMulti;
+import net.jlibnoise.filter.Voronoi;
+import net.jlibnoise.generator.Checkerboard;
+import net.jlibnoise.generator.Constant;
+import net.jlibnoise.generator.CurlNoise;
+import net.jlibnoise.generator.Cylinders;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.generator.Spheres;
+import net.jlibnoise.model.Cylinder;
+import net.jlibnoise.model.Line;
+import net.jlibnoise.model.Plane;
+import net.jlibnoise.model.Sphere;
+import net.jlibnoise.modifier.Abs;
+import net.jlibnoise.modifier.Cache;
+import net.jlibnoise.modifier.Clamp;
+import net.jlibnoise.modifier.Curve;
+import net.jlibnoise.modifier.Exponent;
+import net.jlibnoise.modifier.Invert;
+import net.jlibnoise.modifier.LookupTable;
+import net.jlibnoise.modifier.ScaleBias;
+import net.jlibnoise.modifier.Terrace;
+import net.jlibnoise.selector.Blend;
+import net.jlibnoise.selector.Select;
+import net.jlibnoise.selector.ThresholdSelect;
+import net.jlibnoise.transformer.DomainWarp;
+import net.jlibnoise.transformer.RotatePoint;
+import net.jlibnoise.transformer.ScalePoint;
+import net.jlibnoise.transformer.TranslatePoint;
+import net.jlibnoise.transformer.Turbulence;
+
+/**
+ * Checks that evaluating a built graph, one value at a time or in batches,
+ * allocates nothing on the calling thread.
+ */
+public class AllocationTest {
+    private static final int COUNT = 1000;
+
+    // Passes before measuring, so that per-thread buffers exist and the
+    // measured code is compiled.
+    private static final int WARMUP_PASSES = 20;
+
+    private static final int MEASURED_PASSES = 3;
+
+    private static final Runnable EMPTY = new Runnable() {
+        public void run() {
+        }
+    };
+
+    private final double[][] input = input();
+
+    private final double[] values = new double[COUNT];
+
+    @Test
+    public void modulesDoNotAllocate() {
+        assumeTrue(supported());
+        for (MathPrecision precision : MathPrecision.values()) {
+            for (Map.Entry<String, Module> entry : modules().entrySet()) {
+                final Module module = entry.getValue();
+                precision.applyTo(module);
+                assertEquals(entry.getKey() + " getValue(), " + precision, 0L, allocatedBytes(new Runnable() {
+                    public void run() {
+                        for (int i = 0; i < COUNT; i++) {
+                            values[i] = module.getValue(input[0][i], input[1][i], input[2][i]);
+                        }
+                    }
+                }));
+                assertEquals(entry.getKey() + " getValues(), " + precision, 0L, allocatedBytes(new Runnable() {
+                    public void run() {
+                        module.getValues(input[0], input[1], input[2], 0, values, 0, COUNT);
+                    }
+                }));
+            }
+        }
+    }
+
+    @Test
+    public void modelsDoNotAllocate() {
+        assumeTrue(supported());
+        final Perlin perlin = new Perlin();
+        final Sphere sphere = new Sphere(perlin);
+        final Plane plane = new Plane(perlin);
+        final Cylinder cylinder = new Cylinder(perlin);
+        final Line line = new Line(perlin);
+        assertEquals(0L, allocatedBytes(new Runnable() {
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    values[i] = sphere.getValue(input[0][i] * 90.0, input[1][i] * 180.0) + plane.getValue(input[0][i], input[2][i])
+                            + cylinder.getValue(input[1][i] * 180.0, input[2][i]) + line.getValue(input[0][i]);
+                }
+            }
+        }));
+    }
+
+    @Test
+    public void vectorNoiseDoesNotAllocate() {
+        assumeTrue(supported());
+        final CurlNoise curl = new CurlNoise();
+        final double[] dest = new double[3];
+        final double[][] batch = new double[3][COUNT];
+        assertEquals(0L, allocatedBytes(new Runnable() {
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    curl.getValue(input[0][i], input[1][i], input[2][i], dest, 0);
+                    curl.getCurl(input[0][i], input[1][i], input[2][i], dest, 0);
+                }
+                curl.getValues(input[0], input[1], input[2], 0, batch[0], batch[1], batch[2], 0, COUNT);
+                curl.getCurls(input[0], input[1], input[2], 0, batch[0], batch[1], batch[2], 0, COUNT);
+            }
+        }));
+    }
+
+    @Test
+    public void latLonToXYZDoesNotAllocate() {
+        assumeTrue(supported());
+        final double[] dest = new double[3];
+        assertEquals(0L, allocatedBytes(new Runnable() {
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    Utils.latLonToXYZ(input[0][i] * 90.0, input[1][i] * 180.0, dest, 0);
+                }
+            }
+        }));
+        double[] xyz = Utils.latLonToXYZ(30.0, 60.0);
+        Utils.latLonToXYZ(30.0, 60.0, dest, 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(xyz[i], dest[i], 0.0);
+        }
+    }
+
+    private static Map<String, Module> modules() {
+        Map<String, Module> modules = new LinkedHashMap<String, Module>();
+        modules.put("Checkerboard", new Checkerboard());
+        Constant constant = new Constant();
+        constant.setValue(0.5);
+        modules.put("Constant", constant);
+        modules.put("Cylinders", new Cylinders());
+        modules.put("Perlin", new Perlin());
+        modules.put("Spheres", new Spheres());
+        modules.put("Billow", new Billow());
+        modules.put("RidgedMulti", new RidgedMulti());
+        Voronoi voronoi = new Voronoi();
+        voronoi.setEnableDistance(true);
+        modules.put("Voronoi", voronoi);
+        modules.put("Abs", new Abs());
+        modules.put("Cache", new Cache());
+        Clamp clamp = new Clamp();
+        clamp.setBounds(-0.5, 0.5);
+        modules.put("Clamp", clamp);
+        Curve curve = new Curve();
+        for (int i = 0; i < 8; i++) {
+            double value = -1.0 + 2.0 * i / 7.0;
+            curve.AddControlPoint(value, value * value * value);
+        }
+        modules.put("Curve", curve);
+        modules.put("Exponent", new Exponent());
+        modules.put("Invert", new Invert());
+        LookupTable table = new LookupTable();
+        table.setFunction(new LookupTable.TransferFunction() {
+            @Override
+            public double apply(double value) {
+                return value * Math.abs(value);
+            }
+        });
+        modules.put("LookupTable", table);
+        modules.put("ScaleBias", new ScaleBias());
+        Terrace terrace = new Terrace();
+        terrace.makeControlPoints(8);
+        modules.put("Terrace", terrace);
+        modules.put("Add", new Add());
+        modules.put("Displace", new Displace());
+        modules.put("Max", new Max());
+        modules.put("Min", new Min());
+        modules.put("Multiply", new Multiply());
+        modules.put("NaryAdd", new NaryAdd(4));
+        modules.put("NaryMax", new NaryMax(4));
+        modules.put("NaryMin", new NaryMin(4));
+        modules.put("NaryMultiply", new NaryMultiply(4));
+        modules.put("Power", new Power());
+        modules.put("Blend", new Blend());
+        Select select = new Select();
+        select.setBounds(0.5, -0.5);
+        select.setEdgeFalloff(0.125);
+        modules.put("Select", select);
+        ThresholdSelect thresholdSelect = new ThresholdSelect(4);
+        thresholdSelect.setThresholds(new double[] { -0.5, 0.0, 0.5 }, new double[] { 0.1, 0.1, 0.1 });
+        modules.put("ThresholdSelect", thresholdSelect);
+        modules.put("DomainWarp", new DomainWarp());
+        RotatePoint rotate = new RotatePoint();
+        rotate.setAngles(30.0, 45.0, 60.0);
+        modules.put("RotatePoint", rotate);
+        modules.put("ScalePoint", new ScalePoint());
+        modules.put("TranslatePoint", new TranslatePoint());
+        modules.put("Turbulence", new Turbulence());
+
+        for (Module module : modules.values()) {
+            for (int i = 0; i < module.getSourceModuleCount(); i++) {
+                Perlin source = new Perlin();
+                source.setSeed(i);
+                source.setOctaveCount(2);
+                module.setSourceModule(i, source);
+            }
+        }
+        return modules;
+    }
+
+    private static boolean supported() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled();
+    }
+
+    // Returns the bytes that one run of the task allocates on the calling
+    // thread after the warm-up passes, less what the same measurement of an
+    // empty task allocates.  A run during which the JIT deoptimizes compiled
+    // code allocates on the heap the objects that escape analysis had
+    // replaced by scalars; that allocation is the compiler's, not the
+    // module's, and does not recur, whereas an allocation in the module shows
+    // up in every run.  So the smallest of a few runs is taken.
+    private static long allocatedBytes(Runnable task) {
+        return measure(task) - measure(EMPTY);
+    }
+
+    private static long measure(Runnable task) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            task.run();
+        }
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_PASSES; i++) {
+            long start = bean.getThreadAllocatedBytes(id);
+            task.run();
+            allocated = Math.min(allocated, bean.getThreadAllocatedBytes(id) - start);
+        }
+        return allocated;
+    }
+
+    private static double[][] input() {
+        double[][] input = new double[3][COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            input[0][i] = Math.sin(i * 0.37) * 0.9;
+            input[1][i] = Math.cos(i * 0.23) * 0.9;
+            input[2][i] = i * 0.013 - 6.5;
+        }
+        return input;
+    }
+}
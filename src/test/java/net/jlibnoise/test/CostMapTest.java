@@ -0,0 +1,75 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.jlibnoise.generator.Constant;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.model.CostMap;
+import net.jlibnoise.model.PlaneSampler;
+import net.jlibnoise.selector.Select;
+
+public class CostMapTest {
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 32;
+
+    @Test
+    public void visitsShowSelectFalloffZones() {
+        Constant source0 = new Constant();
+        Constant source1 = new Constant();
+        Perlin control = new Perlin();
+        Select select = new Select();
+        select.setSourceModule(0, source0);
+        select.setSourceModule(1, source1);
+        select.setControlModule(control);
+        select.setBounds(10.0, 0.0);
+        select.setEdgeFalloff(0.1);
+        PlaneSampler sampler = new PlaneSampler(select);
+        sampler.setSize(WIDTH, HEIGHT);
+
+        CostMap costs = new CostMap(sampler);
+        double[] visits = new double[WIDTH * HEIGHT];
+        costs.getValues(0, 0, WIDTH, HEIGHT, visits, 0, WIDTH);
+        PlaneSampler controlSampler = new PlaneSampler(control);
+        controlSampler.setSize(WIDTH, HEIGHT);
+        double[] controlValues = new double[WIDTH * HEIGHT];
+        controlSampler.getValues(controlValues);
+
+        int blended = 0;
+        for (int i = 0; i < visits.length; i++) {
+            // The select and control modules, then one source module, or
+            // both of them within the falloff zone around 0.0.
+            boolean falloff = Math.abs(controlValues[i]) < 0.1;
+            assertEquals(falloff ? 4.0 : 3.0, visits[i], 0.0);
+            if (falloff) {
+                blended++;
+            }
+        }
+        assertTrue(blended > 0 && blended < visits.length);
+
+        // The graph and the sampler are restored.
+        assertSame(select, sampler.getModule());
+        assertSame(source0, select.getSourceModule(0));
+        assertSame(control, select.getSourceModule(2));
+    }
+
+    @Test
+    public void nanosAreMeasuredForEverySample() {
+        PlaneSampler sampler = new PlaneSampler(new Perlin());
+        sampler.setSize(WIDTH, HEIGHT);
+        CostMap costs = new CostMap(sampler);
+        costs.setMeasure(CostMap.Measure.NANOS);
+        costs.setRepeatCount(1);
+        double[] nanos = new double[WIDTH * HEIGHT];
+        costs.getValues(0, 0, WIDTH, HEIGHT, nanos, 0, WIDTH);
+        double total = 0.0;
+        for (double value : nanos) {
+            assertTrue(value >= 0.0);
+            total += value;
+        }
+        assertTrue(total > 0.0);
+    }
+}
@@ -0,0 +1,101 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jlibnoise.NoiseQuality;
+import net.jlibnoise.generator.CurlNoise;
+
+public class CurlNoiseTest {
+    private static final double H = 1e-6;
+
+    @Test
+    public void curlMatchesFiniteDifferences() {
+        CurlNoise curl = new CurlNoise();
+        curl.setSeed(17);
+        curl.setFrequency(1.5);
+        curl.setOctaveCount(4);
+        double[] analytic = new double[3];
+        double[] numeric = new double[3];
+        Random random = new Random(9);
+        for (NoiseQuality quality : new NoiseQuality[] { NoiseQuality.STANDARD, NoiseQuality.BEST }) {
+            curl.setNoiseQuality(quality);
+            for (int i = 0; i < 2000; i++) {
+                double x = random.nextDouble() * 40.0 - 20.0;
+                double y = random.nextDouble() * 40.0 - 20.0;
+                double z = random.nextDouble() * 40.0 - 20.0;
+                curl.getCurl(x, y, z, analytic, 0);
+                finiteDifferenceCurl(curl, x, y, z, numeric);
+                for (int axis = 0; axis < 3; axis++) {
+                    assertEquals(numeric[axis], analytic[axis], 1e-5 * (1.0 + Math.abs(numeric[axis])));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void curlIsDivergenceFree() {
+        CurlNoise curl = new CurlNoise();
+        curl.setNoiseQuality(NoiseQuality.BEST);
+        curl.setOctaveCount(3);
+        double[] plus = new double[3];
+        double[] minus = new double[3];
+        Random random = new Random(10);
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextDouble() * 20.0;
+            double y = random.nextDouble() * 20.0;
+            double z = random.nextDouble() * 20.0;
+            double divergence = 0.0;
+            double magnitude = 0.0;
+            for (int axis = 0; axis < 3; axis++) {
+                curl.getCurl(x + (axis == 0 ? H : 0.0), y + (axis == 1 ? H : 0.0), z + (axis == 2 ? H : 0.0), plus, 0);
+                curl.getCurl(x - (axis == 0 ? H : 0.0), y - (axis == 1 ? H : 0.0), z - (axis == 2 ? H : 0.0), minus, 0);
+                double derivative = (plus[axis] - minus[axis]) / (2.0 * H);
+                divergence += derivative;
+                magnitude += Math.abs(derivative);
+            }
+            assertEquals(0.0, divergence, 1e-4 * (1.0 + magnitude));
+        }
+    }
+
+    @Test
+    public void batchMatchesScalar() {
+        CurlNoise curl = new CurlNoise();
+        double[] x = new double[100], y = new double[100], z = new double[100];
+        double[] cx = new double[101], cy = new double[101], cz = new double[101];
+        for (int i = 0; i < 100; i++) {
+            x[i] = i * 0.07;
+            y[i] = 0.3 - i * 0.01;
+            z[i] = 1.7;
+        }
+        curl.getCurls(x, y, z, 0, cx, cy, cz, 1, 100);
+        double[] expected = new double[3];
+        for (int i = 0; i < 100; i++) {
+            curl.getCurl(x[i], y[i], z[i], expected, 0);
+            assertEquals(expected[0], cx[i + 1], 0.0);
+            assertEquals(expected[1], cy[i + 1], 0.0);
+            assertEquals(expected[2], cz[i + 1], 0.0);
+        }
+    }
+
+    // Computes the curl of the potential from central differences of its
+    // components.
+    private static void finiteDifferenceCurl(CurlNoise curl, double x, double y, double z, double[] dest) {
+        double[] plus = new double[3];
+        double[] minus = new double[3];
+        double[][] jacobian = new double[3][3];
+        for (int axis = 0; axis < 3; axis++) {
+            curl.getValue(x + (axis == 0 ? H : 0.0), y + (axis == 1 ? H : 0.0), z + (axis == 2 ? H : 0.0), plus, 0);
+            curl.getValue(x - (axis == 0 ? H : 0.0), y - (axis == 1 ? H : 0.0), z - (axis == 2 ? H : 0.0), minus, 0);
+            for (int component = 0; component < 3; component++) {
+                jacobian[component][axis] = (plus[component] - minus[component]) / (2.0 * H);
+            }
+        }
+        dest[0] = jacobian[2][1] - jacobian[1][2];
+        dest[1] = jacobian[0][2] - jacobian[2][0];
+        dest[2] = jacobian[1][0] - jacobian[0][1];
+    }
+}
@@ -0,0 +1,103 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.jlibnoise.Utils;
+import net.jlibnoise.generator.Constant;
+import net.jlibnoise.modifier.Curve;
+import net.jlibnoise.modifier.Terrace;
+
+public class CurveTerraceTest {
+
+    @Test
+    public void terraceMatchesLinearScan() {
+        Constant source = new Constant();
+        Terrace terrace = new Terrace();
+        terrace.setSourceModule(0, source);
+        double[] points = new double[65];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = -1.0 + i * (2.0 / 64) + 0.01 * Math.sin(i);
+            terrace.addControlPoint(points[i]);
+        }
+
+        for (int invert = 0; invert < 2; invert++) {
+            terrace.setInvertTerraces(invert == 1);
+            for (double v = -1.2; v <= 1.2; v += 0.0037) {
+                source.setValue(v);
+                assertEquals(terrace(points, invert == 1, v), terrace.getValue(0, 0, 0), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void curveMatchesCubicInterpolation() {
+        Constant source = new Constant();
+        Curve curve = new Curve();
+        curve.setSourceModule(0, source);
+        double[] inputs = { -1.0, -0.5, 0.0, 0.3, 0.8, 1.0 };
+        double[] outputs = { -0.8, -0.2, 0.1, 0.7, 0.4, 1.0 };
+        // Added out of order to exercise the sorted insertion.
+        for (int i = inputs.length - 1; i >= 0; i--) {
+            curve.AddControlPoint(inputs[i], outputs[i]);
+        }
+        assertEquals(inputs.length, curve.getControlPoints().length);
+        for (int i = 0; i < inputs.length; i++) {
+            assertEquals(inputs[i], curve.getInputValue(i), 0.0);
+            assertEquals(outputs[i], curve.getOutputValue(i), 0.0);
+        }
+
+        for (double v = -1.2; v <= 1.2; v += 0.0037) {
+            source.setValue(v);
+            assertEquals(curve(inputs, outputs, v), curve.getValue(0, 0, 0), 1e-12);
+        }
+        source.setValue(0.3);
+        assertEquals(0.7, curve.getValue(0, 0, 0), 1e-12);
+    }
+
+    private static double terrace(double[] points, boolean invert, double v) {
+        int indexPos;
+        for (indexPos = 0; indexPos < points.length; indexPos++) {
+            if (v < points[indexPos]) {
+                break;
+            }
+        }
+        int index0 = Utils.clampValue(indexPos - 1, 0, points.length - 1);
+        int index1 = Utils.clampValue(indexPos, 0, points.length - 1);
+        if (index0 == index1) {
+            return points[index1];
+        }
+        double value0 = points[index0];
+        double value1 = points[index1];
+        double alpha = (v - value0) / (value1 - value0);
+        if (invert) {
+            alpha = 1.0 - alpha;
+            double temp = value0;
+            value0 = value1;
+            value1 = temp;
+        }
+        alpha *= alpha;
+        return Utils.linearInterp(value0, value1, alpha);
+    }
+
+    private static double curve(double[] inputs, double[] outputs, double v) {
+        int n = inputs.length;
+        int indexPos;
+        for (indexPos = 0; indexPos < n; indexPos++) {
+            if (v < inputs[indexPos]) {
+                break;
+            }
+        }
+        int index0 = Utils.clampValue(indexPos - 2, 0, n - 1);
+        int index1 = Utils.clampValue(indexPos - 1, 0, n - 1);
+        int index2 = Utils.clampValue(indexPos, 0, n - 1);
+        int index3 = Utils.clampValue(indexPos + 1, 0, n - 1);
+        if (index1 == index2) {
+            return outputs[index1];
+        }
+        double alpha = (v - inputs[index1]) / (inputs[index2] - inputs[index1]);
+        return Utils.cubicInterp(outputs[index0], outputs[index1], outputs[index2], outputs[index3], alpha);
+    }
+
+}
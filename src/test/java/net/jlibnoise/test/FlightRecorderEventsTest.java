@@ -0,0 +1,102 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.jlibnoise.combiner.Add;
+import net.jlibnoise.combiner.NaryCombiner;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.model.PlaneSampler;
+import net.jlibnoise.modifier.Cache;
+
+public class FlightRecorderEventsTest {
+    @Test
+    public void recordsTilesWithCacheCountsAndCompilations() throws Exception {
+        assumeTrue(FlightRecorder.isAvailable());
+        Cache cache = new Cache();
+        cache.setSourceModule(0, new Perlin());
+        Add inner = new Add();
+        inner.setSourceModule(0, cache);
+        inner.setSourceModule(1, cache);
+        Add root = new Add();
+        root.setSourceModule(0, inner);
+        root.setSourceModule(1, new Perlin());
+
+        File file = File.createTempFile("jlibnoise", ".jfr");
+        try {
+            Recording recording = new Recording();
+            recording.enable("net.jlibnoise.Tile");
+            recording.enable("net.jlibnoise.GraphCompilation");
+            recording.start();
+            PlaneSampler sampler = new PlaneSampler(NaryCombiner.flatten(root));
+            sampler.setSize(64, 32);
+            sampler.setThreadCount(1);
+            sampler.getValues(new double[64 * 32]);
+            recording.stop();
+            recording.dump(file.toPath());
+            recording.close();
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            int tiles = 0;
+            int compilations = 0;
+            for (RecordedEvent event : events) {
+                String name = event.getEventType().getName();
+                if (name.equals("net.jlibnoise.Tile")) {
+                    tiles++;
+                    assertEquals(64 * 32, event.getLong("samples"));
+                    assertEquals(32, event.getInt("height"));
+                    // Both operands of the sum read the cache at every sample.
+                    assertEquals(2 * 64 * 32, event.getLong("cacheHits") + event.getLong("cacheMisses"));
+                } else if (name.equals("net.jlibnoise.GraphCompilation")) {
+                    compilations++;
+                    assertEquals("flatten", event.getString("operation"));
+                }
+            }
+            assertEquals(1, tiles);
+            assertEquals(1, compilations);
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void cacheCountsHitsAndMisses() {
+        Cache cache = new Cache();
+        cache.setSourceModule(0, new Perlin());
+        cache.getValue(0.5, 0.5, 0.5);
+        cache.getValue(0.5, 0.5, 0.5);
+        cache.getValue(0.5, 0.5, 0.5);
+        cache.getValue(0.7, 0.5, 0.5);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void cacheKeepsCountsOfFinishedThreads() throws Exception {
+        final Cache cache = new Cache();
+        cache.setSourceModule(0, new Perlin());
+        for (int t = 0; t < 3; t++) {
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    cache.getValue(0.5, 0.5, 0.5);
+                    cache.getValue(0.5, 0.5, 0.5);
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+        cache.getValue(0.5, 0.5, 0.5);
+        assertEquals(3, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+    }
+}
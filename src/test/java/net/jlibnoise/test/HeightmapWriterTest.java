@@ -0,0 +1,187 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import net.jlibnoise.util.HeightmapWriter;
+import net.jlibnoise.util.NoiseMap;
+
+public class HeightmapWriterTest {
+
+    private static NoiseMap ramp(int width, int height) {
+        NoiseMap map = new NoiseMap(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                map.setValue(x, y, -1.0 + 2.0 * (y * width + x) / (width * height - 1));
+            }
+        }
+        return map;
+    }
+
+    private static int sample(NoiseMap map, int x, int y) {
+        return (int) ((map.getValue(x, y) + 1.0) / 2.0 * 65535.0 + 0.5);
+    }
+
+    // Parses a TIFF or BigTIFF header and its first IFD, checks the tags
+    // that describe a 16-bit grayscale strip image, and compares the strips
+    // against the map.  Returns the tags, keyed by number, as {type, count,
+    // value}.
+    private static Map<Integer, long[]> checkTiff(byte[] bytes, NoiseMap map, int rowsPerStrip, boolean big) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int width = map.getWidth();
+        int height = map.getHeight();
+        assertEquals('I', buffer.get());
+        assertEquals('I', buffer.get());
+        assertEquals(big ? 43 : 42, buffer.getShort());
+        long ifd;
+        if (big) {
+            assertEquals(8, buffer.getShort());
+            assertEquals(0, buffer.getShort());
+            ifd = buffer.getLong();
+        } else {
+            ifd = buffer.getInt();
+        }
+        buffer.position((int) ifd);
+        long entries = big ? buffer.getLong() : buffer.getShort();
+        Map<Integer, long[]> tags = new HashMap<Integer, long[]>();
+        int previous = -1;
+        for (int i = 0; i < entries; i++) {
+            int tag = buffer.getShort() & 0xffff;
+            int type = buffer.getShort();
+            long count = big ? buffer.getLong() : buffer.getInt();
+            long value;
+            if (type == 3) {
+                value = buffer.getShort() & 0xffff;
+                buffer.position(buffer.position() + (big ? 6 : 2));
+            } else if (type == 4) {
+                value = buffer.getInt() & 0xffffffffL;
+                buffer.position(buffer.position() + (big ? 4 : 0));
+            } else {
+                assertEquals(16, type);
+                value = buffer.getLong();
+            }
+            assertTrue("tags must be sorted", tag > previous);
+            previous = tag;
+            tags.put(tag, new long[] { type, count, value });
+        }
+        assertEquals(0L, big ? buffer.getLong() : buffer.getInt());
+
+        assertEquals(width, tags.get(256)[2]);
+        assertEquals(height, tags.get(257)[2]);
+        assertEquals(16, tags.get(258)[2]);
+        assertEquals(1, tags.get(259)[2]);
+        assertEquals(1, tags.get(262)[2]);
+        assertEquals(1, tags.get(277)[2]);
+        assertEquals(rowsPerStrip, tags.get(278)[2]);
+
+        int strips = (height + rowsPerStrip - 1) / rowsPerStrip;
+        long[] offsets = tags.get(273);
+        long[] counts = tags.get(279);
+        assertEquals(big ? 16 : 4, offsets[0]);
+        assertEquals(big ? 16 : 4, counts[0]);
+        assertEquals(strips, offsets[1]);
+        assertEquals(strips, counts[1]);
+        for (int i = 0; i < strips; i++) {
+            // A single offset and byte count are stored in the entries;
+            // otherwise the entries point at arrays.
+            long start = offsets[2];
+            long length = counts[2];
+            if (strips > 1) {
+                buffer.position((int) offsets[2] + i * (big ? 8 : 4));
+                start = big ? buffer.getLong() : buffer.getInt();
+                buffer.position((int) counts[2] + i * (big ? 8 : 4));
+                length = big ? buffer.getLong() : buffer.getInt();
+            }
+            int rows = Math.min(rowsPerStrip, height - i * rowsPerStrip);
+            assertEquals((long) rows * width * 2, length);
+
+            ByteBuffer strip = ByteBuffer.wrap(bytes, (int) start, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+            for (int y = i * rowsPerStrip; y < i * rowsPerStrip + rows; y++) {
+                for (int x = 0; x < width; x++) {
+                    assertEquals(sample(map, x, y), strip.getShort() & 0xffff);
+                }
+            }
+            if (i == strips - 1) {
+                assertEquals(bytes.length, start + length);
+            }
+        }
+        return tags;
+    }
+
+    @Test
+    public void pngRoundTrip() throws Exception {
+        NoiseMap map = ramp(31, 23);
+        HeightmapWriter writer = new HeightmapWriter();
+        writer.setStripHeight(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(map, HeightmapWriter.Format.PNG16, Channels.newChannel(out));
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(31, image.getWidth());
+        assertEquals(23, image.getHeight());
+        assertEquals(0, image.getRaster().getSample(0, 0, 0));
+        assertEquals(65535, image.getRaster().getSample(30, 22, 0));
+        for (int y = 0; y < 23; y++) {
+            for (int x = 0; x < 31; x++) {
+                assertEquals(sample(map, x, y), image.getRaster().getSample(x, y, 0));
+            }
+        }
+    }
+
+    @Test
+    public void rawIsLittleEndianByDefault() throws Exception {
+        NoiseMap map = new NoiseMap(2, 1, new double[] { -1.0, 1.0 });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new HeightmapWriter().write(map, HeightmapWriter.Format.RAW16, Channels.newChannel(out));
+        byte[] bytes = out.toByteArray();
+        assertEquals(4, bytes.length);
+        assertEquals(0, bytes[0]);
+        assertEquals(0, bytes[1]);
+        assertEquals((byte) 0xff, bytes[2]);
+        assertEquals((byte) 0xff, bytes[3]);
+    }
+
+    @Test
+    public void tiffRoundTrip() throws Exception {
+        NoiseMap map = ramp(5, 7);
+        HeightmapWriter writer = new HeightmapWriter();
+        writer.setStripHeight(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(map, HeightmapWriter.Format.TIFF16, Channels.newChannel(out));
+        checkTiff(out.toByteArray(), map, 3, false);
+    }
+
+    @Test
+    public void tiffIgnoresRawByteOrder() throws Exception {
+        NoiseMap map = ramp(4, 2);
+        HeightmapWriter writer = new HeightmapWriter();
+        writer.setByteOrder(ByteOrder.BIG_ENDIAN);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(map, HeightmapWriter.Format.TIFF16, Channels.newChannel(out));
+        checkTiff(out.toByteArray(), map, 2, false);
+        assertEquals(ByteOrder.BIG_ENDIAN, writer.getByteOrder());
+    }
+
+    @Test
+    public void bigTiffRoundTrip() throws Exception {
+        NoiseMap map = ramp(6, 5);
+        HeightmapWriter writer = new HeightmapWriter();
+        writer.setStripHeight(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(map, HeightmapWriter.Format.BIGTIFF16, Channels.newChannel(out));
+        checkTiff(out.toByteArray(), map, 2, true);
+    }
+}
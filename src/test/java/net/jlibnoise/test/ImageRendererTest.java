@@ -0,0 +1,47 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.model.PlaneSampler;
+import net.jlibnoise.util.GradientColor;
+import net.jlibnoise.util.ImageRenderer;
+import net.jlibnoise.util.NoiseMap;
+
+public class ImageRendererTest {
+
+    @Test
+    public void grayscaleEndpoints() {
+        NoiseMap map = new NoiseMap(2, 1, new double[] { -1.0, 1.0 });
+        int[] argb = new ImageRenderer().render(map);
+        assertEquals(0xff000000, argb[0]);
+        assertEquals(0xffffffff, argb[1]);
+    }
+
+    @Test
+    public void bandSizeDoesNotChangeOutput() {
+        PlaneSampler sampler = new PlaneSampler(new Perlin());
+        sampler.setSize(40, 37);
+        NoiseMap map = NoiseMap.copyOf(sampler);
+
+        ImageRenderer renderer = new ImageRenderer();
+        renderer.setGradient(GradientColor.terrain());
+        renderer.setLightEnabled(true);
+        renderer.setWrapEnabled(true);
+        renderer.setBandHeight(37);
+        int[] single = renderer.render(map);
+        renderer.setBandHeight(5);
+        assertArrayEquals(single, renderer.render(map));
+    }
+
+    @Test
+    public void samplerAndNoiseMapAgreeInsideTheGrid() {
+        PlaneSampler sampler = new PlaneSampler(new Perlin());
+        sampler.setSize(16, 16);
+        ImageRenderer renderer = new ImageRenderer();
+        assertArrayEquals(renderer.render(NoiseMap.copyOf(sampler)), renderer.render(sampler));
+    }
+}
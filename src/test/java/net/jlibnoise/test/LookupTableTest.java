@@ -0,0 +1,90 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.jlibnoise.generator.Constant;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.model.Plane;
+import net.jlibnoise.modifier.Cache;
+import net.jlibnoise.modifier.Clamp;
+import net.jlibnoise.modifier.Exponent;
+import net.jlibnoise.modifier.LookupTable;
+import net.jlibnoise.modifier.ScaleBias;
+
+public class LookupTableTest {
+
+    @Test
+    public void chainIsSampledWithinErrorBound() {
+        Constant source = new Constant();
+        Exponent exponent = new Exponent();
+        exponent.setExponent(2.5);
+        ScaleBias scaleBias = new ScaleBias();
+        scaleBias.setSourceModule(0, exponent);
+        scaleBias.setScale(1.5);
+        Clamp clamp = new Clamp();
+        clamp.setSourceModule(0, scaleBias);
+        exponent.setSourceModule(0, source);
+
+        LookupTable table = new LookupTable();
+        table.setSourceModule(0, source);
+        table.setChain(clamp, exponent);
+        table.setResolution(16);
+        table.setMaxError(1e-5);
+        // The setters built the table.
+        assertTrue(table.getResolution() > 16);
+        // The chain is connected to its original source again.
+        assertEquals(source, exponent.getSourceModule(0));
+
+        for (double v = -1.0; v <= 1.0; v += 0.00123) {
+            source.setValue(v);
+            assertEquals(clamp.getValue(0, 0, 0), table.getValue(0, 0, 0), 2e-5);
+        }
+    }
+
+    @Test
+    public void valuesOutsideRangeAreClamped() {
+        Constant source = new Constant();
+        LookupTable table = new LookupTable();
+        table.setSourceModule(0, source);
+        table.setFunction(new LookupTable.TransferFunction() {
+            @Override
+            public double apply(double value) {
+                return value * 3.0 + 1.0;
+            }
+        });
+        table.setInputRange(-2.0, 2.0);
+        table.setResolution(8);
+
+        source.setValue(0.7);
+        assertEquals(3.1, table.getValue(0, 0, 0), 1e-12);
+        source.setValue(5.0);
+        assertEquals(7.0, table.getValue(0, 0, 0), 1e-12);
+        source.setValue(-5.0);
+        assertEquals(-5.0, table.getValue(0, 0, 0), 1e-12);
+    }
+
+    @Test
+    public void buildLeavesNoProbeInChainCache() {
+        Exponent exponent = new Exponent();
+        exponent.setSourceModule(0, new Perlin());
+        Cache cache = new Cache();
+        cache.setSourceModule(0, exponent);
+        ScaleBias scaleBias = new ScaleBias();
+        scaleBias.setSourceModule(0, cache);
+        scaleBias.setScale(0.5);
+        Plane plane = new Plane(scaleBias);
+        double expected = plane.getValue(1.0, 0.0);
+
+        LookupTable table = new LookupTable();
+        table.setSourceModule(0, new Constant());
+        table.setChain(scaleBias, exponent);
+        // The probes must not be returned for ordinary sample points, such
+        // as the one a plane maps (1, 0) to.
+        assertEquals(expected, plane.getValue(1.0, 0.0), 0.0);
+        assertEquals(expected, plane.getValue(1.0, 0.0), 0.0);
+    }
+
+}
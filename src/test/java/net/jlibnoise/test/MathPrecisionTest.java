@@ -0,0 +1,72 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jlibnoise.MathHelper;
+import net.jlibnoise.MathPrecision;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.generator.Spheres;
+import net.jlibnoise.modifier.Exponent;
+import net.jlibnoise.transformer.RotatePoint;
+
+public class MathPrecisionTest {
+
+    @Test
+    public void fastMatchesMathHelperWithinPi() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            double x = (random.nextDouble() * 2.0 - 1.0) * Math.PI;
+            assertEquals(MathHelper.sin(x), MathPrecision.FAST.sin(x), 0.0);
+            assertEquals(MathHelper.cos(x), MathPrecision.FAST.cos(x), 0.0);
+            double v = random.nextDouble() * 100.0;
+            assertEquals(MathHelper.sqrt(v), MathPrecision.FAST.sqrt(v), 0.0);
+        }
+    }
+
+    @Test
+    public void errorBoundsHoldOutsidePi() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100000; i++) {
+            double x = (random.nextDouble() * 2.0 - 1.0) * 1000.0;
+            assertEquals(Math.sin(x), MathPrecision.FAST.sin(x), 1.1e-3);
+            assertEquals(Math.cos(x), MathPrecision.FAST.cos(x), 1.1e-3);
+            assertEquals(Math.sin(x), MathPrecision.FASTEST.sin(x), 5.7e-2);
+            assertEquals(Math.cos(x), MathPrecision.FASTEST.cos(x), 5.7e-2);
+
+            double base = Math.exp((random.nextDouble() * 2.0 - 1.0) * 10.0);
+            double exponent = (random.nextDouble() * 2.0 - 1.0) * 4.0;
+            double pow = Math.pow(base, exponent);
+            assertEquals(pow, MathPrecision.FASTEST.pow(base, exponent), pow * 3e-7);
+        }
+        assertEquals(0.0, MathPrecision.FASTEST.pow(0.0, 2.0), 0.0);
+        assertTrue(Double.isNaN(MathPrecision.FASTEST.pow(-2.0, 0.5)));
+    }
+
+    @Test
+    public void applyToReachesWholeGraph() {
+        Perlin perlin = new Perlin();
+        Spheres spheres = new Spheres();
+        Exponent exponent = new Exponent();
+        exponent.setSourceModule(0, spheres);
+        RotatePoint rotate = new RotatePoint();
+        rotate.setSourceModule(0, exponent);
+        rotate.setAngles(200.0, 30.0, -45.0);
+
+        assertEquals(MathPrecision.FAST, rotate.getMathPrecision());
+        MathPrecision.EXACT.applyTo(rotate);
+        assertEquals(MathPrecision.EXACT, rotate.getMathPrecision());
+        assertEquals(MathPrecision.EXACT, exponent.getMathPrecision());
+        assertEquals(MathPrecision.EXACT, spheres.getMathPrecision());
+        assertEquals(MathPrecision.FAST, perlin.getMathPrecision());
+
+        // An exact rotation by 200, 30 and -45 degrees preserves distances
+        // from the origin, so the concentric spheres are unchanged.
+        assertEquals(exponent.getValue(0.3, 0.4, 0.5), rotate.getValue(0.3, 0.4, 0.5), 1e-9);
+    }
+
+}
@@ -0,0 +1,101 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import net.jlibnoise.combiner.Add;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.model.PlaneSampler;
+import net.jlibnoise.modifier.Cache;
+import net.jlibnoise.util.JmxMetrics;
+import net.jlibnoise.util.Metrics;
+import net.jlibnoise.util.MetricsRecorder;
+import net.jlibnoise.util.Parallel;
+
+public class MetricsTest {
+    @After
+    public void tearDown() {
+        JmxMetrics.uninstall();
+        Metrics.setRecorder(null);
+    }
+
+    @Test
+    public void jmxMetricsRecordRegionsAndCaches() throws Exception {
+        JmxMetrics metrics = JmxMetrics.install();
+        assertSame(metrics, Metrics.getRecorder());
+
+        Cache cache = new Cache();
+        cache.setSourceModule(0, new Perlin());
+        Add add = new Add();
+        add.setSourceModule(0, cache);
+        add.setSourceModule(1, new Perlin());
+        PlaneSampler sampler = new PlaneSampler(add);
+        sampler.setSize(256, 128);
+        sampler.setThreadCount(2);
+        sampler.getValues(new double[256 * 128]);
+        sampler.getValues(0, 0, 16, 16, new double[16 * 16], 0, 16);
+
+        assertEquals(2, metrics.getRegionCount());
+        assertEquals(256 * 128 + 16 * 16, metrics.getSampleCount());
+        long regions = 0;
+        for (long count : metrics.getRegionLatencyHistogram()) {
+            regions += count;
+        }
+        assertEquals(2, regions);
+        assertEquals(256 * 128 + 16 * 16, metrics.getCacheHits() + metrics.getCacheMisses());
+        assertEquals(0, metrics.getQueuedBands());
+        assertEquals(0, metrics.getActiveBands());
+
+        ObjectName name = new ObjectName(JmxMetrics.OBJECT_NAME);
+        assertEquals(metrics.getSampleCount(), ManagementFactory.getPlatformMBeanServer().getAttribute(name, "SampleCount"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getSampleCount());
+        JmxMetrics.uninstall();
+        assertNull(Metrics.getRecorder());
+    }
+
+    @Test
+    public void parallelReportsEveryBand() {
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicInteger pooled = new AtomicInteger();
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+        Metrics.setRecorder(new MetricsRecorder() {
+            public void regionSampled(Object source, long samples, long nanos, int threadCount, long cacheHits, long cacheMisses) {
+            }
+
+            public void bandQueued() {
+                queued.incrementAndGet();
+            }
+
+            public void bandStarted(boolean wasQueued, long waitNanos) {
+                started.incrementAndGet();
+                if (wasQueued) {
+                    pooled.incrementAndGet();
+                }
+            }
+
+            public void bandFinished(long busyNanos) {
+                finished.incrementAndGet();
+            }
+        });
+        Parallel.forBands(0, 400, 100, 4, new Parallel.BandTask() {
+            public void run(int start, int end) {
+            }
+        });
+        assertEquals(3, queued.get());
+        assertEquals(3, pooled.get());
+        assertEquals(4, started.get());
+        assertEquals(4, finished.get());
+    }
+}
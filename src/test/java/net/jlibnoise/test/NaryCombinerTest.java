@@ -0,0 +1,142 @@
+package net.jlibnoise.test;
+
+import static net.jlibnoise.test.TestModules.input;
+import static net.jlibnoise.test.TestModules.perlin;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.combiner.Add;
+import net.jlibnoise.combiner.Max;
+import net.jlibnoise.combiner.Multiply;
+import net.jlibnoise.combiner.NaryAdd;
+import net.jlibnoise.combiner.NaryCombiner;
+import net.jlibnoise.combiner.NaryMax;
+import net.jlibnoise.combiner.NaryMin;
+import net.jlibnoise.combiner.NaryMultiply;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.modifier.Abs;
+
+public class NaryCombinerTest {
+    private static final int COUNT = 700;
+
+    @Test
+    public void weightedCombinations() {
+        Perlin[] sources = new Perlin[5];
+        NaryCombiner[] combiners = { new NaryAdd(5), new NaryMultiply(5), new NaryMin(5), new NaryMax(5) };
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = perlin(i);
+            for (NaryCombiner combiner : combiners) {
+                combiner.setSourceModule(i, sources[i]);
+                combiner.setWeight(i, 0.5 + i);
+            }
+        }
+        double[][] input = input(COUNT);
+        double[] values = new double[COUNT + 2];
+        for (int c = 0; c < combiners.length; c++) {
+            combiners[c].getValues(input[0], input[1], input[2], 0, values, 2, COUNT);
+            for (int i = 0; i < COUNT; i++) {
+                double expected = sources[0].getValue(input[0][i], input[1][i], input[2][i]) * 0.5;
+                for (int s = 1; s < sources.length; s++) {
+                    double value = sources[s].getValue(input[0][i], input[1][i], input[2][i]) * (0.5 + s);
+                    expected = c == 0 ? expected + value : c == 1 ? expected * value : c == 2 ? Math.min(expected, value) : Math.max(expected, value);
+                }
+                assertEquals(expected, combiners[c].getValue(input[0][i], input[1][i], input[2][i]), 0.0);
+                assertEquals(expected, values[i + 2], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void flattenBinaryChains() {
+        // ((p0 + p1) + ... + p11) * abs(max(p12, max(p13, p14)))
+        Module sum = perlin(0);
+        for (int i = 1; i < 12; i++) {
+            Add add = new Add();
+            add.setSourceModule(0, sum);
+            add.setSourceModule(1, perlin(i));
+            sum = add;
+        }
+        Max inner = new Max();
+        inner.setSourceModule(0, perlin(13));
+        inner.setSourceModule(1, perlin(14));
+        Max max = new Max();
+        max.setSourceModule(0, perlin(12));
+        max.setSourceModule(1, inner);
+        Abs abs = new Abs();
+        abs.setSourceModule(0, max);
+        Multiply root = new Multiply();
+        root.setSourceModule(0, sum);
+        root.setSourceModule(1, abs);
+
+        double[][] input = input(COUNT);
+        double[] expected = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            expected[i] = root.getValue(input[0][i], input[1][i], input[2][i]);
+        }
+
+        Module flattened = NaryCombiner.flatten(root);
+        assertTrue(flattened instanceof NaryMultiply);
+        assertTrue(flattened.getSourceModule(0) instanceof NaryAdd);
+        assertEquals(12, flattened.getSourceModule(0).getSourceModuleCount());
+        assertSame(abs, flattened.getSourceModule(1));
+        assertTrue(abs.getSourceModule(0) instanceof NaryMax);
+        assertEquals(3, abs.getSourceModule(0).getSourceModuleCount());
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(expected[i], flattened.getValue(input[0][i], input[1][i], input[2][i]), 0.0);
+        }
+    }
+
+    @Test
+    public void flattenKeepsSharedModulesShared() {
+        Add add = new Add();
+        add.setSourceModule(0, perlin(0));
+        add.setSourceModule(1, perlin(1));
+        Abs first = new Abs();
+        first.setSourceModule(0, add);
+        Abs second = new Abs();
+        second.setSourceModule(0, add);
+        Multiply root = new Multiply();
+        root.setSourceModule(0, first);
+        root.setSourceModule(1, second);
+
+        NaryCombiner.flatten(root);
+        assertTrue(first.getSourceModule(0) instanceof NaryAdd);
+        assertSame(first.getSourceModule(0), second.getSourceModule(0));
+    }
+
+    @Test
+    public void flattenKeepsSharedChainModulesShared() {
+        Add inner = new Add();
+        inner.setSourceModule(0, perlin(0));
+        inner.setSourceModule(1, perlin(1));
+        Add outer = new Add();
+        outer.setSourceModule(0, inner);
+        outer.setSourceModule(1, perlin(2));
+        Abs abs = new Abs();
+        abs.setSourceModule(0, inner);
+        Multiply root = new Multiply();
+        root.setSourceModule(0, outer);
+        root.setSourceModule(1, abs);
+        double[][] input = input(COUNT);
+        double[] expected = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            expected[i] = root.getValue(input[0][i], input[1][i], input[2][i]);
+        }
+
+        // The inner Add also feeds the Abs, so it is flattened on its own
+        // rather than expanded into the outer chain.
+        Module flattened = NaryCombiner.flatten(root);
+        Module sum = flattened.getSourceModule(0);
+        assertTrue(sum instanceof NaryAdd);
+        assertEquals(2, sum.getSourceModuleCount());
+        assertTrue(abs.getSourceModule(0) instanceof NaryAdd);
+        assertSame(abs.getSourceModule(0), sum.getSourceModule(0));
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(expected[i], flattened.getValue(input[0][i], input[1][i], input[2][i]), 0.0);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.model.PlaneSampler;
+import net.jlibnoise.util.GradientColor;
+import net.jlibnoise.util.ImageRenderer;
+import net.jlibnoise.util.PngWriter;
+
+public class PngWriterTest {
+
+    private static PlaneSampler sampler(int width, int height) {
+        PlaneSampler sampler = new PlaneSampler(new Perlin());
+        sampler.setBounds(0.0, 4.0, 0.0, 3.0);
+        sampler.setSize(width, height);
+        return sampler;
+    }
+
+    private static PngWriter writer() {
+        // Small blocks and several threads, so that the image is split into
+        // many independently deflated blocks.
+        PngWriter writer = new PngWriter();
+        writer.setBlockRows(3);
+        writer.setThreadCount(4);
+        return writer;
+    }
+
+    @Test
+    public void rgbaMatchesRenderedImage() throws Exception {
+        PlaneSampler sampler = sampler(57, 41);
+        ImageRenderer renderer = new ImageRenderer();
+        renderer.setGradient(GradientColor.terrain());
+        renderer.setLightEnabled(true);
+        renderer.setBandHeight(7);
+        int[] expected = renderer.render(sampler);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer().write(renderer, sampler, Channels.newChannel(out));
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        for (int y = 0; y < 41; y++) {
+            for (int x = 0; x < 57; x++) {
+                assertEquals(expected[y * 57 + x], image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void grayscaleRoundTrip() throws Exception {
+        PlaneSampler sampler = sampler(33, 50);
+        double[] values = new double[33 * 50];
+        sampler.getValues(values);
+
+        for (PngWriter.Format format : new PngWriter.Format[] { PngWriter.Format.GRAY8, PngWriter.Format.GRAY16 }) {
+            double max = format == PngWriter.Format.GRAY16 ? 65535.0 : 255.0;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer().write(sampler, format, Channels.newChannel(out));
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+            for (int y = 0; y < 50; y++) {
+                for (int x = 0; x < 33; x++) {
+                    double level = (values[y * 33 + x] + 1.0) / 2.0 * max + 0.5;
+                    int expected = (int) Math.max(0.0, Math.min(max, level));
+                    assertEquals(expected, image.getRaster().getSample(x, y, 0));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void encoderKeepsSettingsFromOpen() throws Exception {
+        PlaneSampler sampler = sampler(21, 30);
+        double[] values = new double[21 * 30];
+        sampler.getValues(values);
+
+        PngWriter writer = writer();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PngWriter.Encoder encoder = writer.open(Channels.newChannel(out), 21, 30, PngWriter.Format.GRAY8);
+        encoder.writeRows(values, 0, 10);
+        writer.setRange(0.0, 1.0);
+        writer.setBlockRows(64);
+        writer.setThreadCount(1);
+        writer.setCompressionLevel(0);
+        encoder.writeRows(values, 10 * 21, 20);
+        encoder.finish();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        for (int y = 0; y < 30; y++) {
+            for (int x = 0; x < 21; x++) {
+                double level = (values[y * 21 + x] + 1.0) / 2.0 * 255.0 + 0.5;
+                int expected = (int) Math.max(0.0, Math.min(255.0, level));
+                assertEquals(expected, image.getRaster().getSample(x, y, 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.combiner.Add;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.modifier.ScaleBias;
+import net.jlibnoise.util.Profiler;
+
+public class ProfilerTest {
+    private static final int COUNT = 1000;
+
+    private final double[] x = coordinates(0.37);
+    private final double[] y = coordinates(0.23);
+    private final double[] z = coordinates(0.011);
+
+    @Test
+    public void probesPreserveValuesAndDetachRestoresTheGraph() {
+        Perlin perlin = new Perlin();
+        ScaleBias scaled = new ScaleBias();
+        scaled.setSourceModule(0, perlin);
+        Add add = new Add();
+        add.setSourceModule(0, perlin);
+        add.setSourceModule(1, scaled);
+
+        Profiler profiler = new Profiler();
+        Module probe = profiler.attach(add);
+        double[] values = new double[COUNT];
+        probe.getValues(x, y, z, 0, values, 0, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(values[i], probe.getValue(x[i], y[i], z[i]), 0.0);
+        }
+        profiler.detach();
+        assertSame(perlin, add.getSourceModule(0));
+        assertSame(scaled, add.getSourceModule(1));
+        assertSame(perlin, scaled.getSourceModule(0));
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(values[i], add.getValue(x[i], y[i], z[i]), 0.0);
+        }
+    }
+
+    @Test
+    public void countsEveryEvaluationOfSharedModules() {
+        Perlin perlin = new Perlin();
+        ScaleBias scaled = new ScaleBias();
+        scaled.setSourceModule(0, perlin);
+        Add add = new Add();
+        add.setSourceModule(0, perlin);
+        add.setSourceModule(1, scaled);
+
+        Profiler profiler = new Profiler();
+        profiler.setSampleInterval(1);
+        Module probe = profiler.attach(add);
+        probe.getValues(x, y, z, 0, new double[COUNT], 0, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            probe.getValue(x[i], y[i], z[i]);
+        }
+        profiler.detach();
+
+        assertEquals(3, profiler.getNodes().size());
+        assertEquals(2 * COUNT, profiler.getRoot().getCalls());
+        long exclusive = 0;
+        for (Profiler.Node node : profiler.getNodes()) {
+            if (node.getModule() == perlin) {
+                assertEquals(4 * COUNT, node.getCalls());
+            }
+            assertTrue(node.getExclusiveNanos() <= node.getInclusiveNanos());
+            exclusive += node.getExclusiveNanos();
+        }
+        // With every call timed, the exclusive times add up to the total.
+        assertEquals(profiler.getRoot().getInclusiveNanos(), exclusive);
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        profiler.printReport(new PrintStream(report));
+        assertTrue(report.toString().contains("Perlin#"));
+        assertTrue(report.toString().contains("(shared, see above)"));
+    }
+
+    @Test
+    public void sampledTimesAreScaledToAllCalls() {
+        Profiler profiler = new Profiler();
+        Module probe = profiler.attach(new Perlin());
+        for (int i = 0; i < COUNT; i++) {
+            probe.getValue(x[i], y[i], z[i]);
+        }
+        Profiler.Node root = profiler.getRoot();
+        assertEquals(COUNT, root.getCalls());
+        assertTrue(root.getInclusiveNanos() > 0);
+        assertEquals(root.getInclusiveNanos(), root.getExclusiveNanos());
+    }
+
+    private static double[] coordinates(double step) {
+        double[] values = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = Math.sin(i * step) * 3.0;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,88 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.model.Cylinder;
+import net.jlibnoise.model.CylinderSampler;
+import net.jlibnoise.model.Line;
+import net.jlibnoise.model.LineSampler;
+import net.jlibnoise.model.SphereSampler;
+
+public class SamplerTest {
+
+    @Test
+    public void cylinderSamplerMatchesCylinderModel() {
+        Perlin perlin = new Perlin();
+        Cylinder cylinder = new Cylinder(perlin);
+        CylinderSampler sampler = new CylinderSampler(perlin);
+        sampler.setBounds(-150.0, 170.0, -2.0, 3.0);
+        sampler.setSize(23, 11);
+
+        double[] values = new double[23 * 11];
+        sampler.getValues(values);
+        for (int y = 0; y < 11; y++) {
+            for (int x = 0; x < 23; x++) {
+                double expected = cylinder.getValue(sampler.getAngle(x), sampler.getHeightAt(y));
+                assertEquals(expected, values[y * 23 + x], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void parallelSamplingMatchesSingleThreaded() {
+        SphereSampler sampler = new SphereSampler(new Perlin());
+        sampler.setSize(256, 200);
+
+        double[] serial = new double[256 * 200];
+        sampler.setThreadCount(1);
+        sampler.getValues(serial);
+
+        double[] parallel = new double[256 * 200];
+        sampler.setThreadCount(4);
+        sampler.getValues(parallel);
+
+        for (int i = 0; i < serial.length; i++) {
+            assertEquals(serial[i], parallel[i], 0.0);
+        }
+    }
+
+    @Test
+    public void regionMayExtendPastGridEdges() {
+        CylinderSampler sampler = new CylinderSampler(new Perlin());
+        sampler.setSize(8, 8);
+
+        double[] full = new double[8 * 8];
+        sampler.getValues(full);
+
+        // A 10x10 region with a one-cell border; the interior must match.
+        double[] region = new double[10 * 10];
+        sampler.getValues(-1, -1, 10, 10, region, 0, 10);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                assertEquals(full[y * 8 + x], region[(y + 1) * 10 + x + 1], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void lineSamplerMatchesLineModel() {
+        Perlin perlin = new Perlin();
+        Line line = new Line(perlin);
+        LineSampler sampler = new LineSampler(perlin);
+        line.setStartPoint(-1.5, 0.25, 3.0);
+        line.setEndPoint(2.0, 4.5, -1.0);
+        sampler.setStartPoint(-1.5, 0.25, 3.0);
+        sampler.setEndPoint(2.0, 4.5, -1.0);
+        line.setAttenuate(true);
+        sampler.setAttenuate(true);
+
+        double[] values = new double[65];
+        sampler.getValues(values, 0, 65);
+        for (int i = 0; i < 65; i++) {
+            assertEquals(line.getValue(i * (1.0 / 64)), values[i], 0.0);
+        }
+    }
+}
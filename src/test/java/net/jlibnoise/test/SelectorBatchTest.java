@@ -0,0 +1,103 @@
+package net.jlibnoise.test;
+
+import static net.jlibnoise.test.TestModules.input;
+import static net.jlibnoise.test.TestModules.perlin;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.modifier.Clamp;
+import net.jlibnoise.selector.Blend;
+import net.jlibnoise.selector.Select;
+import net.jlibnoise.test.TestModules.Counter;
+
+public class SelectorBatchTest {
+    private static final int COUNT = 1000;
+
+    @Test
+    public void selectBatchMatchesScalar() {
+        Select select = new Select();
+        select.setSourceModule(0, perlin(1));
+        select.setSourceModule(1, perlin(2));
+        select.setControlModule(perlin(3));
+        select.setBounds(1.0, -0.2);
+        double[][] input = input(COUNT);
+        double[] values = new double[COUNT + 1];
+        for (double falloff : new double[] { 0.0, 0.05, 0.3 }) {
+            select.setEdgeFalloff(falloff);
+            select.getValues(input[0], input[1], input[2], 0, values, 1, COUNT);
+            for (int i = 0; i < COUNT; i++) {
+                assertEquals(select.getValue(input[0][i], input[1][i], input[2][i]), values[i + 1], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void selectEvaluatesOnlyTheSelectedSource() {
+        Counter source0 = new Counter(perlin(1));
+        Counter source1 = new Counter(perlin(2));
+        Module control = perlin(3);
+        Select select = new Select();
+        select.setSourceModule(0, source0);
+        select.setSourceModule(1, source1);
+        select.setControlModule(control);
+        select.setBounds(10.0, 0.0);
+        double[][] input = input(COUNT);
+        int inRange = 0;
+        for (int i = 0; i < COUNT; i++) {
+            double value = control.getValue(input[0][i], input[1][i], input[2][i]);
+            if (value >= 0.0 && value <= 10.0) {
+                inRange++;
+            }
+        }
+        select.getValues(input[0], input[1], input[2], 0, new double[COUNT], 0, COUNT);
+        assertEquals(COUNT - inRange, source0.count);
+        assertEquals(inRange, source1.count);
+    }
+
+    @Test
+    public void blendBatchMatchesScalar() {
+        Blend blend = new Blend();
+        blend.setSourceModule(0, perlin(1));
+        blend.setSourceModule(1, perlin(2));
+        blend.setControlModule(perlin(3));
+        double[][] input = input(COUNT);
+        double[] values = new double[COUNT];
+        blend.getValues(input[0], input[1], input[2], 0, values, 0, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(blend.getValue(input[0][i], input[1][i], input[2][i]), values[i], 0.0);
+        }
+    }
+
+    @Test
+    public void blendSkipsSourcesWithZeroWeight() {
+        Counter source0 = new Counter(perlin(1));
+        Counter source1 = new Counter(perlin(2));
+        Clamp control = new Clamp();
+        control.setSourceModule(0, new Counter(perlin(3)) {
+            @Override
+            public double getValue(double x, double y, double z) {
+                return super.getValue(x, y, z) * 10.0;
+            }
+        });
+        Blend blend = new Blend();
+        blend.setSourceModule(0, source0);
+        blend.setSourceModule(1, source1);
+        blend.setControlModule(control);
+        double[][] input = input(COUNT);
+        int lower = 0, upper = 0;
+        for (int i = 0; i < COUNT; i++) {
+            double value = control.getValue(input[0][i], input[1][i], input[2][i]);
+            lower += value == -1.0 ? 1 : 0;
+            upper += value == 1.0 ? 1 : 0;
+        }
+        double[] values = new double[COUNT];
+        blend.getValues(input[0], input[1], input[2], 0, values, 0, COUNT);
+        assertEquals(COUNT - upper, source0.count);
+        assertEquals(COUNT - lower, source1.count);
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(blend.getValue(input[0][i], input[1][i], input[2][i]), values[i], 0.0);
+        }
+    }
+}
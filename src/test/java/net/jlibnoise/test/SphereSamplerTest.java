@@ -0,0 +1,46 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.model.Sphere;
+import net.jlibnoise.model.SphereSampler;
+
+public class SphereSamplerTest {
+
+    @Test
+    public void matchesSphereModel() {
+        Perlin perlin = new Perlin();
+        Sphere sphere = new Sphere(perlin);
+        SphereSampler sampler = new SphereSampler(perlin);
+        sampler.setBounds(-60.0, 75.0, -170.0, 130.0);
+        sampler.setSize(37, 19);
+
+        double[] values = new double[37 * 19];
+        sampler.getValues(values);
+
+        for (int y = 0; y < 19; y++) {
+            for (int x = 0; x < 37; x++) {
+                double expected = sphere.getValue(sampler.getLatitude(y), sampler.getLongitude(x));
+                assertEquals(expected, values[y * 37 + x], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void rowBandsMatchFullGrid() {
+        SphereSampler sampler = new SphereSampler(new Perlin());
+        sampler.setSize(16, 8);
+
+        double[] full = new double[16 * 8];
+        sampler.getValues(full);
+
+        double[] band = new double[16 * 3 + 1];
+        sampler.getValues(4, 3, band, 1);
+        for (int i = 0; i < 16 * 3; i++) {
+            assertEquals(full[4 * 16 + i], band[i + 1], 0.0);
+        }
+    }
+}
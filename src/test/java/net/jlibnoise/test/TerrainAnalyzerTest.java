@@ -0,0 +1,55 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.jlibnoise.util.NoiseMap;
+import net.jlibnoise.util.TerrainAnalyzer;
+
+public class TerrainAnalyzerTest {
+
+    @Test
+    public void inclinedPlane() {
+        // Height rises by 1 per cell along x, so the slope is 45 degrees
+        // everywhere except on the clamped left and right edges.
+        NoiseMap map = new NoiseMap(9, 7);
+        for (int y = 0; y < 7; y++) {
+            for (int x = 0; x < 9; x++) {
+                map.setValue(x, y, x);
+            }
+        }
+        float[] normals = new float[9 * 7 * 3];
+        float[] slope = new float[9 * 7];
+        float[] curvature = new float[9 * 7];
+        TerrainAnalyzer analyzer = new TerrainAnalyzer();
+        analyzer.setTileSize(4);
+        analyzer.analyze(map, normals, slope, curvature);
+
+        int cell = 3 * 9 + 4;
+        assertEquals(Math.PI / 4, slope[cell], 1e-6);
+        assertEquals(-Math.sqrt(0.5), normals[cell * 3], 1e-6);
+        assertEquals(0.0, normals[cell * 3 + 1], 1e-6);
+        assertEquals(Math.sqrt(0.5), normals[cell * 3 + 2], 1e-6);
+        assertEquals(0.0, curvature[cell], 1e-6);
+    }
+
+    @Test
+    public void tileSizeDoesNotChangeOutput() {
+        NoiseMap map = new NoiseMap(13, 11);
+        for (int y = 0; y < 11; y++) {
+            for (int x = 0; x < 13; x++) {
+                map.setValue(x, y, Math.sin(x * 0.7) * Math.cos(y * 0.3));
+            }
+        }
+        TerrainAnalyzer analyzer = new TerrainAnalyzer();
+        float[] expected = new float[13 * 11];
+        analyzer.analyze(map, null, null, expected);
+        analyzer.setTileSize(3);
+        float[] tiled = new float[13 * 11];
+        analyzer.analyze(map, null, null, tiled);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], tiled[i], 0.0);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package net.jlibnoise.test;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.generator.Perlin;
+
+// Source modules and input coordinates shared by the batch evaluation tests.
+final class TestModules {
+
+    private TestModules() {
+    }
+
+    // A cheap Perlin module; distinct seeds give uncorrelated sources.
+    static Perlin perlin(int seed) {
+        Perlin perlin = new Perlin();
+        perlin.setSeed(seed);
+        perlin.setOctaveCount(2);
+        return perlin;
+    }
+
+    // Returns count points as x, y and z arrays; x increases steadily and z
+    // repeats every 37 points.
+    static double[][] input(int count) {
+        double[][] input = new double[3][count];
+        for (int i = 0; i < count; i++) {
+            input[0][i] = i * 0.011;
+            input[1][i] = 0.5;
+            input[2][i] = i % 37 * 0.05;
+        }
+        return input;
+    }
+
+    // Counts the input values for which the source module is evaluated.
+    static class Counter extends Module {
+        int count;
+
+        Counter(Module source) {
+            super(1);
+            setSourceModule(0, source);
+        }
+
+        @Override
+        public int getSourceModuleCount() {
+            return 1;
+        }
+
+        @Override
+        public double getValue(double x, double y, double z) {
+            count++;
+            return sourceModule[0].getValue(x, y, z);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package net.jlibnoise.test;
+
+import static net.jlibnoise.test.TestModules.input;
+import static net.jlibnoise.test.TestModules.perlin;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.jlibnoise.Module;
+import net.jlibnoise.generator.Constant;
+import net.jlibnoise.selector.Select;
+import net.jlibnoise.selector.ThresholdSelect;
+import net.jlibnoise.test.TestModules.Counter;
+
+public class ThresholdSelectTest {
+    private static final int SOURCES = 12;
+    private static final int COUNT = 2000;
+
+    @Test
+    public void matchesNestedSelectChain() {
+        double[] thresholds = new double[SOURCES - 1];
+        double[] falloffs = new double[SOURCES - 1];
+        for (int i = 0; i < thresholds.length; i++) {
+            thresholds[i] = -0.9 + i * 0.16;
+            falloffs[i] = i % 3 == 0 ? 0.0 : 0.02 * (i % 4);
+        }
+        Module control = perlin(100);
+        ThresholdSelect selector = new ThresholdSelect(SOURCES);
+        selector.setThresholds(thresholds, falloffs);
+        selector.setControlModule(control);
+
+        // Select level i outputs source i below threshold i and the next
+        // level above it.
+        Module chain = perlin(SOURCES - 1);
+        selector.setSourceModule(SOURCES - 1, chain);
+        for (int i = SOURCES - 2; i >= 0; i--) {
+            Module source = perlin(i);
+            selector.setSourceModule(i, source);
+            Select select = new Select();
+            select.setSourceModule(0, source);
+            select.setSourceModule(1, chain);
+            select.setControlModule(control);
+            select.setBounds(1e9, thresholds[i]);
+            select.setEdgeFalloff(falloffs[i]);
+            chain = select;
+        }
+
+        double[][] input = input(COUNT);
+        double[] values = new double[COUNT];
+        selector.getValues(input[0], input[1], input[2], 0, values, 0, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            double expected = chain.getValue(input[0][i], input[1][i], input[2][i]);
+            assertEquals(expected, selector.getValue(input[0][i], input[1][i], input[2][i]), 1e-12);
+            assertEquals(selector.getValue(input[0][i], input[1][i], input[2][i]), values[i], 0.0);
+        }
+    }
+
+    @Test
+    public void evaluatesAtMostTwoSources() {
+        ThresholdSelect selector = new ThresholdSelect(SOURCES);
+        double[] falloffs = new double[SOURCES - 1];
+        java.util.Arrays.fill(falloffs, 1.0);
+        double[] thresholds = new double[SOURCES - 1];
+        for (int i = 0; i < thresholds.length; i++) {
+            thresholds[i] = selector.getThreshold(i);
+        }
+        selector.setThresholds(thresholds, falloffs);
+        assertEquals((thresholds[1] - thresholds[0]) / 2, selector.getEdgeFalloff(0), 1e-15);
+
+        Counter[] sources = new Counter[SOURCES];
+        for (int i = 0; i < SOURCES; i++) {
+            sources[i] = new Counter(new Constant());
+            selector.setSourceModule(i, sources[i]);
+        }
+        Counter control = new Counter(perlin(5));
+        selector.setControlModule(control);
+
+        double[][] input = input(COUNT);
+        selector.getValues(input[0], input[1], input[2], 0, new double[COUNT], 0, COUNT);
+        int evaluations = 0;
+        for (Counter source : sources) {
+            evaluations += source.count;
+        }
+        assertEquals(COUNT, control.count);
+        assertTrue(evaluations <= 2 * COUNT);
+        assertTrue(evaluations > COUNT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thresholdsMustIncrease() {
+        ThresholdSelect selector = new ThresholdSelect(3);
+        selector.setThresholds(new double[] { 0.5, 0.5 }, new double[2]);
+    }
+}
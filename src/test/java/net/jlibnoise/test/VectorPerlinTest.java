@@ -0,0 +1,82 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jlibnoise.NoiseQuality;
+import net.jlibnoise.generator.Perlin;
+import net.jlibnoise.generator.VectorPerlin;
+import net.jlibnoise.model.PlaneSampler;
+import net.jlibnoise.transformer.DomainWarp;
+import net.jlibnoise.transformer.Turbulence;
+
+public class VectorPerlinTest {
+
+    @Test
+    public void channelsMatchPerlin() {
+        VectorPerlin vector = new VectorPerlin();
+        Perlin perlin = new Perlin();
+        double[] channels = new double[4];
+        Random random = new Random(7);
+        for (NoiseQuality quality : NoiseQuality.values()) {
+            vector.setNoiseQuality(quality);
+            perlin.setNoiseQuality(quality);
+            for (int run = 0; run < 3; run++) {
+                vector.setSeed(run * 1000 - 1);
+                vector.setFrequency(0.5 + run);
+                vector.setOctaveCount(3 + run * 4);
+                perlin.setFrequency(vector.getFrequency());
+                perlin.setOctaveCount(vector.getOctaveCount());
+                for (int i = 0; i < 5000; i++) {
+                    double scale = i % 10 == 0 ? 1e9 : 50.0;
+                    double x = (random.nextDouble() * 2.0 - 1.0) * scale;
+                    double y = (random.nextDouble() * 2.0 - 1.0) * scale;
+                    double z = i % 7 == 0 ? Math.rint(x) : (random.nextDouble() * 2.0 - 1.0) * scale;
+                    vector.getValue(x, y, z, channels, 1);
+                    for (int channel = 0; channel < VectorPerlin.CHANNEL_COUNT; channel++) {
+                        perlin.setSeed(vector.getSeed() + channel);
+                        assertEquals(perlin.getValue(x, y, z), channels[channel + 1], 0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void turbulenceBatchMatchesScalar() {
+        Turbulence turbulence = new Turbulence();
+        turbulence.setSourceModule(0, new Perlin());
+        turbulence.setSeed(11);
+        turbulence.setFrequency(2.0);
+        turbulence.setPower(0.25);
+        turbulence.setRoughness(4);
+        PlaneSampler sampler = new PlaneSampler(turbulence);
+        sampler.setSize(700, 3);
+        sampler.setThreadCount(1);
+        double[] values = new double[700 * 3];
+        sampler.getValues(values);
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 700; column++) {
+                double expected = turbulence.getValue(sampler.getX(column), 0.0, sampler.getZ(row));
+                assertEquals(expected, values[row * 700 + column], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void domainWarpDisplacesEachAxis() {
+        DomainWarp warp = new DomainWarp();
+        warp.setSourceModule(0, new Perlin());
+        warp.setPowers(0.0, 0.0, 0.0);
+        Perlin source = (Perlin) warp.getSourceModule(0);
+        assertEquals(source.getValue(0.3, 0.6, 0.9), warp.getValue(0.3, 0.6, 0.9), 0.0);
+
+        warp.setPowers(0.5, 0.0, 0.0);
+        double[] channels = new double[3];
+        warp.getWarpNoise().getValue(0.3 + 12414.0 / 65536.0, 0.6 + 65124.0 / 65536.0, 0.9 + 31337.0 / 65536.0, channels, 0);
+        assertEquals(source.getValue(0.3 + channels[0] * 0.5, 0.6, 0.9), warp.getValue(0.3, 0.6, 0.9), 0.0);
+    }
+}
@@ -0,0 +1,183 @@
+package net.jlibnoise.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jlibnoise.MathHelper;
+import net.jlibnoise.NoiseGen;
+import net.jlibnoise.Utils;
+import net.jlibnoise.filter.Voronoi;
+import net.jlibnoise.model.PlaneSampler;
+
+public class VoronoiTest {
+
+    @Test
+    public void prunedSearchMatchesExhaustiveSearch() {
+        Random random = new Random(3);
+        Voronoi voronoi = new Voronoi();
+        voronoi.setEnableDistance(true);
+        for (int seed = 0; seed < 4; seed++) {
+            voronoi.setSeed(seed);
+            voronoi.setFrequency(seed == 3 ? 7.5 : 1.0);
+            for (int i = 0; i < 50000; i++) {
+                double scale = i % 10 == 0 ? 1e5 : 20.0;
+                double x = (random.nextDouble() * 2.0 - 1.0) * scale;
+                double y = (random.nextDouble() * 2.0 - 1.0) * scale;
+                double z = i % 7 == 0 ? Math.rint(y) : (random.nextDouble() * 2.0 - 1.0) * scale;
+                assertEquals(exhaustive(voronoi, x, y, z), voronoi.getValue(x, y, z), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void batchMatchesScalar() {
+        Voronoi voronoi = new Voronoi();
+        voronoi.setEnableDistance(true);
+        double[] x = new double[3000];
+        double[] y = new double[3000];
+        double[] z = new double[3000];
+        double[] values = new double[3001];
+        Random random = new Random(5);
+        // Closely spaced, moderately spaced and sparse input values.
+        double[] frequencies = { 3.0, 30.0, 3000.0 };
+        for (int run = 0; run < 6; run++) {
+            // The cache of the previous seed must not leak into this one.
+            voronoi.setSeed(run / 3);
+            voronoi.setFrequency(frequencies[run % 3]);
+            for (int i = 0; i < x.length; i++) {
+                x[i] = i * 0.01 - 15.0;
+                y[i] = random.nextDouble();
+                z[i] = i % 100 * 0.03;
+            }
+            voronoi.getValues(x, y, z, 0, values, 1, x.length);
+            for (int i = 0; i < x.length; i++) {
+                assertEquals(voronoi.getValue(x[i], y[i], z[i]), values[i + 1], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void planeSamplerMatchesExhaustiveSearch() {
+        Voronoi voronoi = new Voronoi();
+        voronoi.setEnableDistance(true);
+        voronoi.setFrequency(4.0);
+        PlaneSampler sampler = new PlaneSampler(voronoi);
+        sampler.setBounds(-3.0, 3.0, -2.0, 2.0);
+        sampler.setSize(300, 200);
+        sampler.setThreadCount(1);
+        double[] values = new double[300 * 200];
+        sampler.getValues(values);
+        for (int row = 0; row < 200; row++) {
+            for (int column = 0; column < 300; column++) {
+                double expected = exhaustive(voronoi, sampler.getX(column), 0.0, sampler.getZ(row));
+                assertEquals(expected, values[row * 300 + column], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void featuresMatchExhaustiveSearch() {
+        Voronoi voronoi = new Voronoi();
+        voronoi.setSeed(9);
+        voronoi.setFrequency(2.0);
+        Voronoi.Result result = new Voronoi.Result();
+        Random random = new Random(13);
+        int n = 2000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = (random.nextDouble() * 2.0 - 1.0) * 50.0;
+            y[i] = (random.nextDouble() * 2.0 - 1.0) * 50.0;
+            z[i] = (random.nextDouble() * 2.0 - 1.0) * 50.0;
+        }
+        double[] values = new double[n];
+        double[] f1 = new double[n];
+        double[] f2 = new double[n];
+        int[] cellIds = new int[n];
+        voronoi.getFeatures(x, y, z, 0, values, f1, f2, cellIds, 0, n);
+
+        for (int i = 0; i < n; i++) {
+            double x1 = x[i] * 2.0, y1 = y[i] * 2.0, z1 = z[i] * 2.0;
+            int xInt = (x1 > 0.0 ? (int) x1 : (int) x1 - 1);
+            int yInt = (y1 > 0.0 ? (int) y1 : (int) y1 - 1);
+            int zInt = (z1 > 0.0 ? (int) z1 : (int) z1 - 1);
+            double first = Double.MAX_VALUE, second = Double.MAX_VALUE;
+            for (int zCur = zInt - 2; zCur <= zInt + 2; zCur++) {
+                for (int yCur = yInt - 2; yCur <= yInt + 2; yCur++) {
+                    for (int xCur = xInt - 2; xCur <= xInt + 2; xCur++) {
+                        double xDist = xCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, 9) - x1;
+                        double yDist = yCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, 10) - y1;
+                        double zDist = zCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, 11) - z1;
+                        double dist = xDist * xDist + yDist * yDist + zDist * zDist;
+                        if (dist < first) {
+                            second = first;
+                            first = dist;
+                        } else if (dist < second) {
+                            second = dist;
+                        }
+                    }
+                }
+            }
+
+            voronoi.getFeatures(x[i], y[i], z[i], result);
+            assertEquals(voronoi.getValue(x[i], y[i], z[i]), result.value, 0.0);
+            assertEquals(result.value, values[i], 0.0);
+            assertEquals(MathHelper.sqrt(first), result.f1, 0.0);
+            assertEquals(MathHelper.sqrt(second), result.f2, 0.0);
+            assertEquals(result.f1, f1[i], 0.0);
+            assertEquals(result.f2, f2[i], 0.0);
+            assertEquals(result.cellId, cellIds[i]);
+            // The nearest seed point lies within one cube of its cube.
+            assertEquals(result.xCube, result.x, 1.0);
+            assertEquals(result.zCube, result.z, 1.0);
+        }
+    }
+
+    // The exhaustive search over the 5x5x5 neighborhood that the pruned
+    // search replaces.
+    private static double exhaustive(Voronoi voronoi, double x, double y, double z) {
+        double x1 = x * voronoi.getFrequency();
+        double y1 = y * voronoi.getFrequency();
+        double z1 = z * voronoi.getFrequency();
+        int seed = voronoi.getSeed();
+
+        int xInt = (x1 > 0.0 ? (int) x1 : (int) x1 - 1);
+        int yInt = (y1 > 0.0 ? (int) y1 : (int) y1 - 1);
+        int zInt = (z1 > 0.0 ? (int) z1 : (int) z1 - 1);
+
+        double minDist = 2147483647.0;
+        double xCandidate = 0;
+        double yCandidate = 0;
+        double zCandidate = 0;
+        for (int zCur = zInt - 2; zCur <= zInt + 2; zCur++) {
+            for (int yCur = yInt - 2; yCur <= yInt + 2; yCur++) {
+                for (int xCur = xInt - 2; xCur <= xInt + 2; xCur++) {
+                    double xPos = xCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed);
+                    double yPos = yCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed + 1);
+                    double zPos = zCur + NoiseGen.valueNoise3D(xCur, yCur, zCur, seed + 2);
+                    double xDist = xPos - x1;
+                    double yDist = yPos - y1;
+                    double zDist = zPos - z1;
+                    double dist = xDist * xDist + yDist * yDist + zDist * zDist;
+                    if (dist < minDist) {
+                        minDist = dist;
+                        xCandidate = xPos;
+                        yCandidate = yPos;
+                        zCandidate = zPos;
+                    }
+                }
+            }
+        }
+
+        double xDist = xCandidate - x1;
+        double yDist = yCandidate - y1;
+        double zDist = zCandidate - z1;
+        double value = voronoi.getMathPrecision().sqrt(xDist * xDist + yDist * yDist + zDist * zDist) * Utils.SQRT_3 - 1.0;
+        return value + (voronoi.getDisplacement() * NoiseGen.valueNoise3D((int) (MathHelper.floor(xCandidate)), (int) (MathHelper.floor(yCandidate)), (int) (MathHelper.floor(zCandidate)), seed));
+    }
+
+}